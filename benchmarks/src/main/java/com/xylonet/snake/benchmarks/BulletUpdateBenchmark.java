@@ -0,0 +1,65 @@
+package com.xylonet.snake.benchmarks;
+
+import com.xylonet.snake.game.Bullet;
+import com.xylonet.snake.game.GameBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameBoard.updateBullets 随在场子弹数的开销（第 1 关障碍物）
+ * 每次调用前重建关卡并放入指定数量的子弹（Level.Invocation，不计入测量），
+ * 保证每次测量面对同样的子弹数和障碍物，不会因为子弹飞出或障碍物被打掉而逐渐变轻
+ * 子弹数很少时单次调用只有几百纳秒，结果包含 JMH 逐次计时的固定开销，应主要比较大子弹数的趋势
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulletUpdateBenchmark {
+    private static final Bullet.Direction[] DIRECTIONS = Bullet.Direction.values();
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int bullets;
+
+    private GameBoard board;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+        board = new GameBoard();
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        board.initializeLevel(1);
+        List<Bullet> list = board.getBullets();
+        int size = GameBoard.GRID_SIZE;
+        for (int i = 0; i < bullets; i++) {
+            int x = 2 + random.nextInt(size - 4);
+            int y = 2 + random.nextInt(size - 4);
+            list.add(new Bullet(x, y, DIRECTIONS[i & 3]));
+        }
+    }
+
+    @Benchmark
+    public GameBoard updateBullets() {
+        board.updateBulletsOnly();
+        return board;
+    }
+}
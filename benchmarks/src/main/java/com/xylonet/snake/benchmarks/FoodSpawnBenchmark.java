@@ -0,0 +1,63 @@
+package com.xylonet.snake.benchmarks;
+
+import com.xylonet.snake.game.Food;
+import com.xylonet.snake.game.GameBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Food.spawn 在接近填满的棋盘上的开销
+ * spawn 随机试探空位，最多 1000 次；占用率越高试探次数越多
+ * 不测全满棋盘：每次试满 1000 次后都会打印警告，测到的主要是控制台输出
+ * 占用判断用预先生成的布尔表，只衡量 spawn 本身
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FoodSpawnBenchmark {
+
+    @Param({"0.5", "0.9", "0.99", "0.999"})
+    public double fill;
+
+    private Food food;
+    private boolean[] occupied;
+
+    @Setup
+    public void setUp() {
+        int size = GameBoard.GRID_SIZE;
+        occupied = new boolean[size * size];
+        int target = (int) Math.round(occupied.length * fill);
+        Random random = new Random(42);
+        int filled = 0;
+        while (filled < target) {
+            int index = random.nextInt(occupied.length);
+            if (!occupied[index]) {
+                occupied[index] = true;
+                filled++;
+            }
+        }
+        food = new Food();
+    }
+
+    @Benchmark
+    public Food spawn() {
+        food.spawn(GameBoard.GRID_SIZE, GameBoard.GRID_SIZE,
+                (x, y) -> occupied[y * GameBoard.GRID_SIZE + x]);
+        return food;
+    }
+}
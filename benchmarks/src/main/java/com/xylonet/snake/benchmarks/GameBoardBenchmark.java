@@ -0,0 +1,82 @@
+package com.xylonet.snake.benchmarks;
+
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.game.Snake;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameBoard 随关卡（障碍物密度 = 关卡 %）的开销
+ * - isOccupied：随机格子查询
+ * - update：蛇绕 8x8 方形行走；撞死后原地复活，高关卡下包含频繁的死亡 / 复活路径
+ * - initializeLevel：生成蛇、食物、门和全部障碍物
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBoardBenchmark {
+    private static final int QUERY_COUNT = 1024;  // 预生成的查询坐标数（2 的幂）
+    private static final int SQUARE_SIDE = 8;
+    private static final Snake.Direction[] SQUARE = {
+            Snake.Direction.RIGHT, Snake.Direction.DOWN, Snake.Direction.LEFT, Snake.Direction.UP
+    };
+
+    @Param({"1", "10", "25", "50"})
+    public int level;
+
+    private GameBoard board;
+    private final int[] queryX = new int[QUERY_COUNT];
+    private final int[] queryY = new int[QUERY_COUNT];
+    private int queryIndex;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        board = new GameBoard();
+        board.initializeLevel(level);
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryX[i] = random.nextInt(GameBoard.GRID_SIZE);
+            queryY[i] = random.nextInt(GameBoard.GRID_SIZE);
+        }
+    }
+
+    @Benchmark
+    public boolean isOccupied() {
+        int i = queryIndex++ & (QUERY_COUNT - 1);
+        return board.isOccupied(queryX[i], queryY[i]);
+    }
+
+    @Benchmark
+    public GameBoard update() {
+        Snake snake = board.getSnake();
+        if (!snake.isAlive()) {
+            snake.reset(GameBoard.GRID_SIZE / 2, GameBoard.GRID_SIZE / 2, Snake.Direction.RIGHT);
+            step = 0;
+        }
+        snake.setDirection(SQUARE[(step++ / SQUARE_SIDE) & 3]);
+        board.update();
+        return board;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameBoard initializeLevel() {
+        board.initializeLevel(level);
+        return board;
+    }
+}
@@ -0,0 +1,73 @@
+package com.xylonet.snake.benchmarks;
+
+import com.xylonet.snake.game.BoardSnapshot;
+import com.xylonet.snake.ui.RasterRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RasterRenderer 整帧渲染：单线程与 ForkJoin 并行条带的对比
+ * - board 为 "格子数:格子像素"，从游戏棋盘（64 格 10 像素）到 4096 格 1 像素的缩略总览
+ * - threads = 1 走单线程路径，作为加速比的基准；其余为独立 ForkJoinPool 的并行度
+ * - 快照内容随机（70% 空格，其余为各类实体），同类格子的连续段很短，接近最坏情况
+ * 加速比 = threads=1 的耗时 / 同一 board 下的耗时；受内存带宽限制，通常低于核数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true", "-Xmx2g"})
+public class RasterBenchmark {
+
+    @Param({"64:10", "256:4", "1024:2", "4096:1"})
+    public String board;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private BoardSnapshot snapshot;
+    private RasterRenderer renderer;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        String[] parts = board.split(":");
+        int cells = Integer.parseInt(parts[0]);
+        snapshot = new BoardSnapshot(cells, cells);
+        Random random = new Random(42);
+        for (int i = 0; i < snapshot.cells.length; i++) {
+            int v = random.nextInt(100);
+            snapshot.cells[i] = (byte) (v < 70 ? 0 : v < 90 ? 2 : v < 95 ? 3 : v < 97 ? 6 : v < 98 ? 5 : 1);
+        }
+        renderer = new RasterRenderer(Integer.parseInt(parts[1]));
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        return renderer.render(snapshot, -1, -1, pool);
+    }
+}
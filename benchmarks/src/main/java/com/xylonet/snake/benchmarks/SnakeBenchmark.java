@@ -0,0 +1,56 @@
+package com.xylonet.snake.benchmarks;
+
+import com.xylonet.snake.game.Snake;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snake.move / checkSelfCollision 随蛇长的开销
+ * 蛇沿直线生长到指定长度：身体无重叠，checkSelfCollision 总是扫描完整个身体（最坏情况）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeBenchmark {
+
+    @Param({"3", "100", "1000", "10000"})
+    public int length;
+
+    private Snake snake;
+
+    @Setup
+    public void setUp() {
+        snake = new Snake(0, 0, Snake.Direction.RIGHT);
+        while (snake.getLength() < length) {
+            snake.move(true);
+        }
+    }
+
+    /**
+     * 不生长的一步：头部加一节、尾部去一节
+     */
+    @Benchmark
+    public Snake move() {
+        snake.move(false);
+        return snake;
+    }
+
+    @Benchmark
+    public boolean checkSelfCollision() {
+        return snake.checkSelfCollision();
+    }
+}
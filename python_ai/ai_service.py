@@ -4,6 +4,7 @@ Xylonet Snake AI Service
 实时Socket服务，接收游戏状态并返回AI分析
 """
 
+import argparse
 import socket
 import json
 import threading
@@ -12,9 +13,13 @@ import sys
 import os
 from pathlib import Path
 
-# 导入行为分析器
+# 行为分析器在首次分析时再导入，缩短启动到就绪的时间
 sys.path.append(str(Path(__file__).parent / 'scripts'))
-from behavior_analyzer import analyze_from_database
+
+from board_ring import BoardRingReader, CELL_SNAKE_HEAD, CELL_FOOD
+
+# 启动握手：就绪后向 stdout 输出该前缀的一行，Java 端解析得到监听地址
+READY_PREFIX = 'AI_READY'
 
 class SnakeAIService:
     def __init__(self, start_port=50705, max_attempts=10):
@@ -24,39 +29,37 @@ class SnakeAIService:
         self.actual_port = None
         self.running = False
         self.client_socket = None
+        self.frame_ring = None  # 共享内存棋盘帧（RING_ATTACH 后可用）
+
+    def bind_available_port(self):
+        """动态分配可用端口，直接绑定避免“先探测后绑定”的竞争
+        start_port 为 0 时由操作系统分配（工作进程池使用）"""
+        if self.start_port == 0:
+            server_socket = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+            server_socket.bind(('localhost', 0))
+            return server_socket, server_socket.getsockname()[1]
 
-    def find_available_port(self):
-        """动态分配可用端口"""
         for port in range(self.start_port, self.start_port + self.max_attempts):
+            server_socket = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+            server_socket.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
             try:
-                test_socket = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
-                test_socket.bind(('localhost', port))
-                test_socket.close()
-                return port
+                server_socket.bind(('localhost', port))
+                return server_socket, port
             except OSError:
+                server_socket.close()
                 continue
         raise RuntimeError(f"无法在 {self.start_port}-{self.start_port + self.max_attempts} 范围内找到可用端口")
 
     def start(self):
         """启动Socket服务"""
         try:
-            # 找到可用端口
-            self.actual_port = self.find_available_port()
-
-            # 创建Socket服务器
-            self.server_socket = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
-            self.server_socket.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
-            self.server_socket.bind(('localhost', self.actual_port))
+            # 找到可用端口并创建Socket服务器
+            self.server_socket, self.actual_port = self.bind_available_port()
             self.server_socket.listen(1)
 
-            # 将端口号写入文件供Java读取
-            port_file = Path(__file__).parent.parent / 'data' / 'ai_port.txt'
-            port_file.parent.mkdir(parents=True, exist_ok=True)
-            with open(port_file, 'w') as f:
-                f.write(str(self.actual_port))
-
+            # 就绪握手：Java 端从 stdout 读取这一行
+            print(f"{READY_PREFIX} host=localhost port={self.actual_port}")
             print(f"[AI服务] 启动成功，监听端口: {self.actual_port}")
-            print(f"[AI服务] 端口信息已写入: {port_file}")
             sys.stdout.flush()
 
             self.running = True
@@ -115,6 +118,7 @@ class SnakeAIService:
         if self.client_socket:
             self.client_socket.close()
             self.client_socket = None
+        self.detach_ring()
 
     def process_message(self, message):
         """处理接收到的消息"""
@@ -127,6 +131,17 @@ class SnakeAIService:
                 response = {'type': 'PONG', 'timestamp': time.time()}
                 self.send_response(response)
 
+            elif msg_type == 'TICK_STATE':
+                # 实时建议：只回 HINT，Java 端按截止时间决定是否采用
+                response = self.compute_hint(data)
+                if response is not None:
+                    self.send_response(response)
+
+            elif msg_type == 'RING_ATTACH':
+                # 挂载共享内存帧文件，之后 TICK_STATE 只携带帧号
+                response = self.attach_ring(data)
+                self.send_response(response)
+
             elif msg_type == 'GAME_STATE':
                 # 游戏状态更新
                 response = self.analyze_game_state(data)
@@ -154,9 +169,95 @@ class SnakeAIService:
             'message': 'State received'
         }
 
+    # 方向 -> (dx, dy, 危险位)，与 Java 端 AIHint 保持一致
+    DIRECTIONS = {
+        'UP': (0, -1, 1),
+        'DOWN': (0, 1, 2),
+        'LEFT': (-1, 0, 4),
+        'RIGHT': (1, 0, 8),
+    }
+    OPPOSITE = {'UP': 'DOWN', 'DOWN': 'UP', 'LEFT': 'RIGHT', 'RIGHT': 'LEFT'}
+    WINDOW_RADIUS = 3
+    WINDOW_SIZE = 7
+
+    def attach_ring(self, data):
+        """打开 Java 端创建的共享内存帧文件"""
+        self.detach_ring()
+        try:
+            self.frame_ring = BoardRingReader(data['path'])
+            print(f"[AI服务] 共享内存帧已挂载: {data['path']}")
+            sys.stdout.flush()
+            return {'type': 'RING_ATTACHED', 'ok': True}
+        except Exception as e:
+            print(f"[AI服务] 挂载共享内存帧失败: {e}", file=sys.stderr)
+            sys.stderr.flush()
+            return {'type': 'RING_ATTACHED', 'ok': False, 'error': str(e)}
+
+    def detach_ring(self):
+        if self.frame_ring:
+            self.frame_ring.close()
+            self.frame_ring = None
+
+    def compute_hint(self, data):
+        """根据蛇头周围 7x7 占用位图计算危险方向与建议方向
+        消息带 frame 时从共享内存帧读取整盘状态；该帧已被覆盖时不回应"""
+        tick = data.get('tick', 0)
+        current = data.get('dir', 'RIGHT')
+        if 'frame' in data and self.frame_ring:
+            frame = self.frame_ring.read(data['frame'])
+            if frame is None:
+                return None
+            _, cells = frame
+            hx, hy = self.frame_ring.locate(cells, CELL_SNAKE_HEAD)
+            fx, fy = self.frame_ring.locate(cells, CELL_FOOD)
+            neighborhood = self.frame_ring.neighborhood(cells, hx, hy, self.WINDOW_RADIUS)
+        else:
+            hx, hy = data.get('hx', 0), data.get('hy', 0)
+            fx, fy = data.get('fx', -1), data.get('fy', -1)
+            neighborhood = data.get('nb', 0)
+
+        danger = 0
+        best_direction = None
+        best_distance = None
+        for name, (dx, dy, bit) in self.DIRECTIONS.items():
+            index = (dy + self.WINDOW_RADIUS) * self.WINDOW_SIZE + (dx + self.WINDOW_RADIUS)
+            if (neighborhood >> index) & 1:
+                danger |= bit
+                continue
+            if name == self.OPPOSITE.get(current):
+                continue
+            if fx < 0:
+                distance = 0 if name == current else 1
+            else:
+                distance = abs(hx + dx - fx) + abs(hy + dy - fy)
+            if best_distance is None or distance < best_distance or \
+                    (distance == best_distance and name == current):
+                best_direction = name
+                best_distance = distance
+
+        return {
+            'type': 'HINT',
+            'tick': tick,
+            'direction': best_direction,
+            'danger': danger
+        }
+
     def analyze_player_behavior(self, data):
-        """分析玩家行为并返回MBTI"""
+        """分析玩家行为并返回MBTI
+        请求携带 features 时直接基于在线特征计算，不访问数据库"""
         try:
+            if 'features' in data:
+                from behavior_analyzer import analyze_from_features
+                result = analyze_from_features(data['features'])
+                return {
+                    'type': 'ANALYSIS_RESULT',
+                    'timestamp': time.time(),
+                    'mbti': result['mbti'],
+                    'confidence': result['confidence'],
+                    'sample_size': result['total_actions'],
+                    'traits': result['traits']
+                }
+
             # 获取数据库路径
             db_path = Path(__file__).parent.parent / 'data' / 'snake_game.db'
 
@@ -174,6 +275,7 @@ class SnakeAIService:
                 }
 
             # 使用行为分析器分析数据
+            from behavior_analyzer import analyze_from_database
             result = analyze_from_database(str(db_path))
 
             return {
@@ -215,19 +317,17 @@ class SnakeAIService:
 
         if self.client_socket:
             self.client_socket.close()
+        self.detach_ring()
         if self.server_socket:
             self.server_socket.close()
 
-        # 删除端口文件
-        try:
-            port_file = Path(__file__).parent.parent / 'data' / 'ai_port.txt'
-            if port_file.exists():
-                port_file.unlink()
-        except:
-            pass
-
 def main():
-    service = SnakeAIService(start_port=50705)
+    parser = argparse.ArgumentParser(description='Xylonet Snake AI Service')
+    parser.add_argument('--port', type=int, default=50705,
+                        help='起始端口；0 表示由操作系统分配')
+    args = parser.parse_args()
+
+    service = SnakeAIService(start_port=args.port)
 
     try:
         service.start()
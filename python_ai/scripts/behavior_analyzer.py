@@ -1,7 +1,7 @@
 #!/usr/bin/env python3
 """
 玩家行为分析器
-基于SQLite数据分析玩家游戏风格并推测MBTI
+基于Java端在线提取的行为特征（或SQLite数据）分析玩家游戏风格并推测MBTI
 """
 
 import sqlite3
@@ -206,43 +206,115 @@ class BehaviorAnalyzer:
         return min(max(planning, 0.0), 1.0)
 
     def _infer_mbti(self, stats: Dict) -> Tuple[str, float]:
-        """
-        基于统计数据推测MBTI类型
-        这是一个简化的启发式算法
-        """
-        mbti = ""
+        return infer_mbti(stats)
+
+
+def infer_mbti(stats: Dict) -> Tuple[str, float]:
+    """
+    基于统计数据推测MBTI类型
+    这是一个简化的启发式算法
+    """
+    mbti = ""
+
+    # E vs I (外向 vs 内向) - 基于探索性和攻击性
+    ei_score = (stats['exploration_score'] + stats['aggression_score']) / 2
+    mbti += 'E' if ei_score > 0.5 else 'I'
+
+    # S vs N (感觉 vs 直觉) - 基于谨慎度和计划性
+    sn_score = (stats['caution_score'] + stats['planning_score']) / 2
+    mbti += 'S' if sn_score > 0.5 else 'N'
+
+    # T vs F (思考 vs 情感) - 基于攻击性和计划性
+    tf_score = (stats['aggression_score'] + stats['planning_score']) / 2
+    mbti += 'T' if tf_score > 0.5 else 'F'
+
+    # J vs P (判断 vs 知觉) - 基于计划性
+    jp_score = stats['planning_score']
+    mbti += 'J' if jp_score > 0.6 else 'P'
 
-        # E vs I (外向 vs 内向) - 基于探索性和攻击性
-        ei_score = (stats['exploration_score'] + stats['aggression_score']) / 2
-        mbti += 'E' if ei_score > 0.5 else 'I'
+    # 计算置信度（基于数据量）
+    min_actions_for_confidence = 200
+    data_confidence = min(stats['total_actions'] / min_actions_for_confidence, 1.0)
 
-        # S vs N (感觉 vs 直觉) - 基于谨慎度和计划性
-        sn_score = (stats['caution_score'] + stats['planning_score']) / 2
-        mbti += 'S' if sn_score > 0.5 else 'N'
+    # 基于分数的置信度（分数越接近0.5越不确定）
+    score_confidence = sum([
+        abs(ei_score - 0.5) * 2,
+        abs(sn_score - 0.5) * 2,
+        abs(tf_score - 0.5) * 2,
+        abs(jp_score - 0.5) * 2
+    ]) / 4
 
-        # T vs F (思考 vs 情感) - 基于攻击性和计划性
-        tf_score = (stats['aggression_score'] + stats['planning_score']) / 2
-        mbti += 'T' if tf_score > 0.5 else 'F'
+    overall_confidence = (data_confidence * 0.6) + (score_confidence * 0.4)
 
-        # J vs P (判断 vs 知觉) - 基于计划性
-        jp_score = stats['planning_score']
-        mbti += 'J' if jp_score > 0.6 else 'P'
+    return mbti, overall_confidence
 
-        # 计算置信度（基于数据量）
-        min_actions_for_confidence = 200
-        data_confidence = min(stats['total_actions'] / min_actions_for_confidence, 1.0)
 
-        # 基于分数的置信度（分数越接近0.5越不确定）
-        score_confidence = sum([
-            abs(ei_score - 0.5) * 2,
-            abs(sn_score - 0.5) * 2,
-            abs(tf_score - 0.5) * 2,
-            abs(jp_score - 0.5) * 2
-        ]) / 4
+def _clamp(value: float) -> float:
+    return min(max(value, 0.0), 1.0)
 
-        overall_confidence = (data_confidence * 0.6) + (score_confidence * 0.4)
 
-        return mbti, overall_confidence
+def analyze_from_features(features: Dict) -> Dict:
+    """
+    基于Java端在线提取的特征分析玩家行为（不访问数据库）
+    特征字段见 BehaviorFeatures.java，计算口径与 BehaviorAnalyzer 的SQL版本一致
+    """
+    total_actions = features.get('total_actions', 0)
+    shots = features.get('shots', 0)
+    hit_rate = features.get('hit_rate', 0.5) if shots > 0 else 0.5
+
+    # 攻击性：高射击率 + 不太在乎命中率
+    if total_actions > 0:
+        aggression = _clamp(features.get('shot_rate', 0.0) * 0.7 + (1 - hit_rate) * 0.3)
+    else:
+        aggression = 0.5
+
+    # 谨慎度：存活时长（300秒为满分）+ 命中率
+    avg_session = features.get('avg_session_seconds', 0.0)
+    duration_score = min(avg_session / 300.0, 1.0) if avg_session else 0.5
+    caution = _clamp(duration_score * 0.6 + hit_rate * 0.4)
+
+    # 探索性：方向变化频率与分布熵 + 到访格子数（100个为满分）
+    if features.get('moves', 0) < 10:
+        exploration = 0.5
+    else:
+        change_score = features.get('change_ratio', 0.0) * 0.6 + features.get('direction_entropy', 0.0) * 0.4
+        unique_cells = features.get('unique_cells', 0)
+        position_score = min(unique_cells / 100.0, 1.0) if unique_cells else 0.5
+        exploration = _clamp(change_score * 0.5 + position_score * 0.5)
+
+    # 计划性：吃食物效率 + 反应时间稳定性
+    if features.get('food_collected', 0) > 0:
+        efficiency = 1.0 - min(features.get('time_to_food_mean_ms', 0.0) / 10000.0, 1.0)
+    else:
+        efficiency = 0.5
+    if features.get('reaction_count', 0) > 1:
+        consistency = 1.0 - min(features.get('reaction_std_ms', 0.0) / 500.0, 1.0)
+    else:
+        consistency = 0.5
+    planning = _clamp(efficiency * 0.6 + consistency * 0.4)
+
+    stats = {
+        'total_actions': total_actions,
+        'aggression_score': aggression,
+        'caution_score': caution,
+        'exploration_score': exploration,
+        'planning_score': planning
+    }
+    mbti, confidence = infer_mbti(stats)
+
+    return {
+        'mbti': mbti,
+        'confidence': confidence,
+        'total_sessions': features.get('total_sessions', 0),
+        'total_actions': total_actions,
+        'traits': {
+            'aggression': aggression,
+            'caution': caution,
+            'exploration': exploration,
+            'planning': planning
+        },
+        'avg_reaction_time_ms': features.get('reaction_mean_ms', 0.0)
+    }
 
 
 def analyze_from_database(db_path: str) -> Dict:
@@ -0,0 +1,99 @@
+#!/usr/bin/env python3
+"""
+共享内存棋盘帧读取器
+读取 Java 端 BoardFrameRing 写入的 mmap 文件（布局见 BoardFrameRing.java）
+"""
+
+import mmap
+import struct
+from typing import Optional, Tuple
+
+MAGIC = 0x52425358  # "XSBR"
+VERSION = 1
+HEADER_SIZE = 64
+FRAME_HEADER_SIZE = 32
+OFFSET_LATEST = 32
+
+# 网格单元编码，与 GameBoard.CELL_* 保持一致
+CELL_EMPTY = 0
+CELL_WALL = 1
+CELL_BLOCK = 2
+CELL_SNAKE_BODY = 3
+CELL_SNAKE_HEAD = 4
+CELL_FOOD = 5
+CELL_BULLET = 6
+CELL_DOOR = 7
+
+BLOCKING_CELLS = (CELL_WALL, CELL_BLOCK, CELL_SNAKE_BODY, CELL_SNAKE_HEAD)
+
+_U64 = struct.Struct('<Q')
+_HEADER = struct.Struct('<iiiiii')
+
+
+class BoardRingReader:
+    """单消费者读取器，使用 seqlock 保证读到的帧完整"""
+
+    def __init__(self, path: str, max_retries: int = 8):
+        self.path = path
+        self.max_retries = max_retries
+        self.file = open(path, 'rb')
+        self.map = mmap.mmap(self.file.fileno(), 0, access=mmap.ACCESS_READ)
+
+        magic, version, self.slot_count, self.slot_size, self.width, self.height = \
+            _HEADER.unpack_from(self.map, 0)
+        if magic != MAGIC or version != VERSION:
+            self.close()
+            raise ValueError(f"无效的帧文件: {path}")
+        self.cell_count = self.width * self.height
+
+    def latest_frame(self) -> int:
+        """最近发布的帧号，0 表示尚无帧"""
+        return _U64.unpack_from(self.map, OFFSET_LATEST)[0]
+
+    def read(self, frame: int) -> Optional[Tuple[int, bytes]]:
+        """
+        读取指定帧
+        返回 (tick, cells)；该槽位已被更新的帧覆盖或重试后仍不一致时返回 None
+        """
+        offset = HEADER_SIZE + (frame % self.slot_count) * self.slot_size
+        expected = frame * 2
+        for _ in range(self.max_retries):
+            before = _U64.unpack_from(self.map, offset)[0]
+            if before > expected:
+                return None  # 已被覆盖
+            if before != expected:
+                continue  # 写入中
+            tick = _U64.unpack_from(self.map, offset + 8)[0]
+            start = offset + FRAME_HEADER_SIZE
+            cells = self.map[start:start + self.cell_count]
+            if _U64.unpack_from(self.map, offset)[0] == before:
+                return tick, cells
+        return None
+
+    def close(self):
+        if self.map is not None:
+            self.map.close()
+            self.map = None
+        if self.file is not None:
+            self.file.close()
+            self.file = None
+
+    def neighborhood(self, cells: bytes, cx: int, cy: int, radius: int = 3) -> int:
+        """计算以 (cx, cy) 为中心的占用位图，与 GameBoard.getOccupancyWindow 一致"""
+        size = radius * 2 + 1
+        mask = 0
+        for dy in range(-radius, radius + 1):
+            y = cy + dy
+            for dx in range(-radius, radius + 1):
+                x = cx + dx
+                if x < 0 or x >= self.width or y < 0 or y >= self.height \
+                        or cells[y * self.width + x] in BLOCKING_CELLS:
+                    mask |= 1 << ((dy + radius) * size + (dx + radius))
+        return mask
+
+    def locate(self, cells: bytes, cell: int) -> Tuple[int, int]:
+        """查找第一个指定类型单元格的坐标，不存在时返回 (-1, -1)"""
+        index = cells.find(bytes((cell,)))
+        if index < 0:
+            return -1, -1
+        return index % self.width, index // self.width
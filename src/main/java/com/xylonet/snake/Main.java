@@ -1,22 +1,33 @@
 package com.xylonet.snake;
 
+import com.xylonet.snake.analysis.BehaviorFeatureExtractor;
+import com.xylonet.snake.analysis.BehaviorFeatures;
 import com.xylonet.snake.data.GameDatabase;
+import com.xylonet.snake.management.ManagementSupport;
+import com.xylonet.snake.management.TelemetryWriterMonitor;
 import com.xylonet.snake.network.AIClient;
-import com.xylonet.snake.network.PythonProcessManager;
+import com.xylonet.snake.network.PythonWorkerPool;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 游戏主类 - 演示Java-Python通信
  * 这是一个测试示例，展示如何集成所有组件
  */
 public class Main {
-    private static PythonProcessManager pythonManager;
-    private static AIClient aiClient;
+    private static PythonWorkerPool aiPool;
     private static GameDatabase database;
+    private static final BehaviorFeatureExtractor features = new BehaviorFeatureExtractor(64, 64);
+    private static long startNanos;
+    private static boolean firstAnalysisDone = false;
+
+    private static final long STARTUP_TIMEOUT_MS = 5000;
 
     public static void main(String[] args) {
         System.out.println("=== Xylonet Snake - Java-Python 通信测试 ===\n");
@@ -36,38 +47,39 @@ public class Main {
 
     /**
      * 初始化所有组件
+     * Python工作进程先异步拉起，与数据库初始化并行进行
      */
     private static boolean initializeComponents() {
         try {
-            // 1. 初始化数据库
-            System.out.println("1. 初始化数据库...");
+            // 1. 启动Python AI工作进程池（异步，不等待就绪）
+            System.out.println("1. 启动Python AI服务...");
+            startNanos = System.nanoTime();
+            aiPool = new PythonWorkerPool();
+            CompletableFuture<Void> ready = aiPool.start();
+
+            // 2. 初始化数据库（与Python启动重叠）
+            System.out.println("\n2. 初始化数据库...");
             initDatabase();
 
-            // 2. 启动Python AI服务
-            System.out.println("\n2. 启动Python AI服务...");
-            pythonManager = new PythonProcessManager();
-            if (!pythonManager.startPythonService()) {
-                return false;
-            }
-
-            // 3. 连接到AI服务
-            System.out.println("\n3. 连接到AI服务...");
-            Thread.sleep(1000);  // 等待Python服务完全启动
-
-            aiClient = new AIClient();
-            Integer port = pythonManager.getAiServicePort();
-            if (port == null || !aiClient.connect("localhost", port)) {
+            // 3. 连接数据库
+            System.out.println("\n3. 连接数据库...");
+            database = new GameDatabase();
+            if (!database.connect()) {
                 return false;
             }
+            ManagementSupport.register("TelemetryWriter", null, new TelemetryWriterMonitor(database.getWriter()));
 
-            // 4. 连接数据库
-            System.out.println("\n4. 连接数据库...");
-            database = new GameDatabase();
-            if (!database.connect()) {
+            // 4. 等待至少一个工作进程就绪
+            System.out.println("\n4. 连接到AI服务...");
+            try {
+                ready.get(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                System.err.println("Python服务未就绪: " + e.getMessage());
                 return false;
             }
 
-            System.out.println("\n✓ 所有组件初始化成功！\n");
+            System.out.println("\n✓ 所有组件初始化成功！（AI工作进程 "
+                    + aiPool.getAvailableWorkerCount() + "/" + aiPool.getWorkerCount() + "）\n");
             return true;
 
         } catch (Exception e) {
@@ -149,7 +161,8 @@ public class Main {
      */
     private static void testHeartbeat() {
         System.out.println("\n--- 测试心跳检测 ---");
-        boolean success = aiClient.sendPing();
+        AIClient aiClient = aiPool.getClient();
+        boolean success = aiClient != null && aiClient.sendPing();
         System.out.println("心跳结果: " + (success ? "✓ 成功" : "✗ 失败"));
     }
 
@@ -161,6 +174,7 @@ public class Main {
 
         // 开始新会话
         String sessionId = database.startNewSession();
+        features.onSessionStart(System.currentTimeMillis());
         System.out.println("开始新会话: " + sessionId);
 
         // 模拟一些游戏操作
@@ -169,15 +183,20 @@ public class Main {
 
         for (int i = 0; i < directions.length; i++) {
             database.recordAction("MOVE", directions[i], 3 + i, 10 + i, 10 + i);
+            features.onMove(10 + i, 10 + i);
+            features.onDirectionChange(i % 4, System.currentTimeMillis());
 
             // 模拟射击
             if (i % 3 == 0) {
                 database.recordShooting(15 + i, 15 + i, i % 2 == 0, 200 + (i * 50));
+                features.onShot(System.currentTimeMillis());
+                features.onHits(i % 2 == 0 ? 1 : 0);
             }
 
             // 模拟食物收集
             if (i % 4 == 0) {
                 database.recordFoodCollection("NORMAL", 12 + i, 12 + i, 5, 1000 + (i * 200));
+                features.onFoodEaten(System.currentTimeMillis());
             }
 
             // 记录快照
@@ -192,6 +211,7 @@ public class Main {
 
         // 结束会话
         database.endSession(150, 10, false, "Hit obstacle");
+        features.onSessionEnd(System.currentTimeMillis());
         System.out.println("✓ 会话结束，已记录 " + directions.length + " 次操作");
     }
 
@@ -200,18 +220,24 @@ public class Main {
      */
     private static void requestMBTIAnalysis() {
         System.out.println("\n--- 请求MBTI分析 ---");
-        int totalActions = database.getTotalActionCount();
-        System.out.println("当前总操作数: " + totalActions);
+        BehaviorFeatures snapshot = features.snapshot();
+        System.out.println("当前总操作数: " + snapshot.totalActions);
 
-        if (totalActions == 0) {
+        if (snapshot.totalActions == 0) {
             System.out.println("⚠ 没有数据，请先运行测试2模拟游戏会话");
             return;
         }
 
-        CompletableFuture<AIClient.AnalysisResult> future = aiClient.requestAnalysis(totalActions);
+        System.out.println("行为特征: " + snapshot);
+        CompletableFuture<AIClient.AnalysisResult> future = aiPool.getAnalysisCache().requestAnalysis(snapshot);
 
         future.thenAccept(result -> {
             if (result != null) {
+                if (!firstAnalysisDone) {
+                    firstAnalysisDone = true;
+                    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                    System.out.println("首次分析耗时（自Python进程启动）: " + elapsedMs + "ms");
+                }
                 System.out.println("\n=== 分析结果 ===");
                 System.out.println(result);
             } else {
@@ -234,6 +260,11 @@ public class Main {
         gameState.put("position_y", 30);
         gameState.put("health", 85);
 
+        AIClient aiClient = aiPool.getClient();
+        if (aiClient == null) {
+            System.out.println("✗ 没有可用的AI工作进程");
+            return;
+        }
         aiClient.sendGameState(gameState);
         System.out.println("✓ 游戏状态已发送");
     }
@@ -267,16 +298,12 @@ public class Main {
     private static void cleanup() {
         System.out.println("\n正在清理资源...");
 
-        if (aiClient != null) {
-            aiClient.disconnect();
-        }
-
         if (database != null) {
             database.close();
         }
 
-        if (pythonManager != null) {
-            pythonManager.stopPythonService();
+        if (aiPool != null) {
+            aiPool.shutdown();
         }
 
         System.out.println("再见！");
@@ -0,0 +1,193 @@
+package com.xylonet.snake.analysis;
+
+import com.xylonet.snake.network.AIClient;
+import com.xylonet.snake.network.AnalysisService;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 后台 MBTI 分析调度器
+ * - 每记录 N 次玩家操作或关卡完成时触发分析
+ * - 去抖：窗口内的多次触发合并为一次请求；同一时刻最多一个在途请求
+ * - 特征快照和请求都在后台线程执行，结果只通过一次 invokeLater 回到 EDT
+ * - 新会话开始时取消待发送和在途的请求，旧结果不会再显示
+ * onAction / onLevelComplete / onSessionStart 由 {@link BehaviorSubscriber} 在事件线程上串行调用，
+ * 只做计数和一次原子操作
+ */
+public class AnalysisScheduler {
+    public static final int DEFAULT_ACTION_INTERVAL = 20;
+    public static final long DEFAULT_DEBOUNCE_MS = 500;
+
+    private final BehaviorFeatureExtractor extractor;
+    private final Consumer<AIClient.AnalysisResult> resultHandler;
+    private final ScheduledExecutorService executor;
+
+    private volatile AnalysisService service;
+    private volatile int actionInterval = DEFAULT_ACTION_INTERVAL;
+    private volatile long debounceMs = DEFAULT_DEBOUNCE_MS;
+    private int actionsSinceTrigger = 0;  // 只在行为事件线程上访问
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicBoolean rerunRequested = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile ScheduledFuture<?> scheduledTask;
+    private volatile CompletableFuture<AIClient.AnalysisResult> inFlight;
+
+    private final AtomicLong triggered = new AtomicLong();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * @param extractor 行为特征来源
+     * @param resultHandler 结果回调，在 EDT 上执行
+     */
+    public AnalysisScheduler(BehaviorFeatureExtractor extractor, Consumer<AIClient.AnalysisResult> resultHandler) {
+        this.extractor = extractor;
+        this.resultHandler = resultHandler;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mbti-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 设置分析服务，为 null 时不触发分析
+     */
+    public void setService(AnalysisService service) {
+        this.service = service;
+    }
+
+    /**
+     * 记录了一次玩家操作（行为事件线程调用）
+     */
+    public void onAction() {
+        if (++actionsSinceTrigger >= actionInterval) {
+            actionsSinceTrigger = 0;
+            trigger();
+        }
+    }
+
+    /**
+     * 关卡完成（行为事件线程调用）
+     */
+    public void onLevelComplete() {
+        actionsSinceTrigger = 0;
+        trigger();
+    }
+
+    /**
+     * 新会话开始（行为事件线程调用）：取消待发送和在途的请求
+     */
+    public void onSessionStart() {
+        actionsSinceTrigger = 0;
+        cancel();
+    }
+
+    /**
+     * 请求一次分析；去抖窗口内已有待发送请求时直接合并
+     */
+    public void trigger() {
+        if (service == null) {
+            return;
+        }
+        triggered.incrementAndGet();
+        if (pending.compareAndSet(false, true)) {
+            long requestGeneration = generation.get();
+            scheduledTask = executor.schedule(() -> run(requestGeneration), debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void run(long requestGeneration) {
+        pending.set(false);
+        AnalysisService current = service;
+        if (current == null || requestGeneration != generation.get()) {
+            return;
+        }
+        CompletableFuture<AIClient.AnalysisResult> previous = inFlight;
+        if (previous != null && !previous.isDone()) {
+            rerunRequested.set(true);  // 上一次完成后再补一次
+            return;
+        }
+
+        requested.incrementAndGet();
+        CompletableFuture<AIClient.AnalysisResult> future = current.requestAnalysis(extractor.snapshot());
+        inFlight = future;
+        future.whenComplete((result, error) -> {
+            if (requestGeneration != generation.get()) {
+                return;
+            }
+            if (result != null) {
+                SwingUtilities.invokeLater(() -> {
+                    if (requestGeneration == generation.get()) {
+                        delivered.incrementAndGet();
+                        resultHandler.accept(result);
+                    }
+                });
+            }
+            if (rerunRequested.getAndSet(false)) {
+                trigger();
+            }
+        });
+    }
+
+    /**
+     * 取消待发送和在途的请求，之后到达的结果全部丢弃
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        rerunRequested.set(false);
+        ScheduledFuture<?> task = scheduledTask;
+        if (task != null && task.cancel(false)) {
+            cancelled.incrementAndGet();
+        }
+        pending.set(false);
+        CompletableFuture<AIClient.AnalysisResult> future = inFlight;
+        inFlight = null;
+        if (future != null && future.cancel(true)) {
+            cancelled.incrementAndGet();
+        }
+    }
+
+    /**
+     * 停止调度线程
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    // ===== 配置 =====
+
+    /**
+     * 每多少次玩家操作触发一次分析
+     */
+    public void setActionInterval(int actionInterval) {
+        this.actionInterval = Math.max(1, actionInterval);
+    }
+
+    public int getActionInterval() {
+        return actionInterval;
+    }
+
+    /**
+     * 去抖窗口：触发后等待多久再发送，窗口内的触发合并
+     */
+    public void setDebounceMs(long debounceMs) {
+        this.debounceMs = Math.max(0, debounceMs);
+    }
+
+    public long getDebounceMs() {
+        return debounceMs;
+    }
+
+    public String summary() {
+        return String.format("triggered=%d requested=%d delivered=%d cancelled=%d interval=%d debounce=%dms",
+                triggered.get(), requested.get(), delivered.get(), cancelled.get(), actionInterval, debounceMs);
+    }
+}
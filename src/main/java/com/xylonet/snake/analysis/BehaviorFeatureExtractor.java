@@ -0,0 +1,218 @@
+package com.xylonet.snake.analysis;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 在线玩家行为特征提取器
+ * 游戏引擎在事件发生时调用对应的 on* 方法，每个事件 O(1) 更新；
+ * {@link #snapshot()} 的开销与历史长度无关，取代分析器每次请求重新查询数据库
+ *
+ * 特征与 behavior_analyzer.py 使用的输入一一对应：
+ * - 射击率、命中率
+ * - 反应时间的均值 / 方差（Welford）
+ * - 方向改变的熵
+ * - 蛇头到访的不同格子数
+ * - 吃到食物所需时间
+ */
+public class BehaviorFeatureExtractor {
+    private static final int DIRECTION_COUNT = 4;
+
+    private final int width;
+    private final int height;
+    private final BitSet visitedCells;
+    private final long[] directionCounts = new long[DIRECTION_COUNT];
+    private final RunningStats reactionStats = new RunningStats();
+    private final RunningStats timeToFoodStats = new RunningStats();
+    private final RunningStats sessionStats = new RunningStats();
+
+    private long version;
+    private int totalSessions;
+    private long directionChanges;
+    private long moves;
+    private long shots;
+    private long hits;
+    private int uniqueCells;
+
+    private long sessionStartMs = -1;    // 当前会话开始时间，-1 表示不在会话中
+    private long foodSpawnMs = -1;       // 当前食物出现时间
+    private long stimulusMs = -1;        // 等待玩家反应的刺激时间，-1 表示已反应
+
+    /**
+     * @param width 棋盘宽度
+     * @param height 棋盘高度
+     */
+    public BehaviorFeatureExtractor(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.visitedCells = new BitSet(width * height);
+    }
+
+    /**
+     * 会话开始
+     */
+    public synchronized void onSessionStart(long timeMs) {
+        version++;
+        totalSessions++;
+        sessionStartMs = timeMs;
+        onFoodSpawned(timeMs);
+    }
+
+    /**
+     * 会话结束（死亡或超时）
+     */
+    public synchronized void onSessionEnd(long timeMs) {
+        if (sessionStartMs < 0) {
+            return;
+        }
+        version++;
+        sessionStats.add((timeMs - sessionStartMs) / 1000.0);
+        sessionStartMs = -1;
+        foodSpawnMs = -1;
+        stimulusMs = -1;
+    }
+
+    /**
+     * 蛇移动一步
+     */
+    public synchronized void onMove(int headX, int headY) {
+        version++;
+        moves++;
+        if (headX < 0 || headX >= width || headY < 0 || headY >= height) {
+            return;
+        }
+        int index = headY * width + headX;
+        if (!visitedCells.get(index)) {
+            visitedCells.set(index);
+            uniqueCells++;
+        }
+    }
+
+    /**
+     * 玩家改变方向
+     * @param direction 方向序号（0 ~ 3，对应 Snake.Direction）
+     */
+    public synchronized void onDirectionChange(int direction, long timeMs) {
+        version++;
+        directionChanges++;
+        directionCounts[direction & (DIRECTION_COUNT - 1)]++;
+        recordReaction(timeMs);
+    }
+
+    /**
+     * 玩家射击
+     */
+    public synchronized void onShot(long timeMs) {
+        version++;
+        shots++;
+        recordReaction(timeMs);
+    }
+
+    /**
+     * 子弹命中障碍物
+     */
+    public synchronized void onHits(int count) {
+        if (count <= 0) {
+            return;
+        }
+        version++;
+        hits += count;
+    }
+
+    /**
+     * 吃到食物（新食物随即出现）
+     */
+    public synchronized void onFoodEaten(long timeMs) {
+        version++;
+        if (foodSpawnMs >= 0) {
+            timeToFoodStats.add(timeMs - foodSpawnMs);
+        }
+        onFoodSpawned(timeMs);
+    }
+
+    /**
+     * 新食物出现（新会话、新关卡、吃掉上一个食物后）
+     * 同时作为反应时间的刺激起点
+     */
+    public synchronized void onFoodSpawned(long timeMs) {
+        foodSpawnMs = timeMs;
+        stimulusMs = timeMs;
+    }
+
+    private void recordReaction(long timeMs) {
+        if (stimulusMs >= 0) {
+            reactionStats.add(timeMs - stimulusMs);
+            stimulusMs = -1;
+        }
+    }
+
+    /**
+     * 生成当前特征快照
+     */
+    public synchronized BehaviorFeatures snapshot() {
+        BehaviorFeatures features = new BehaviorFeatures();
+        features.version = version;
+        features.totalSessions = totalSessions;
+        features.totalActions = directionChanges;
+        features.moves = moves;
+        features.shots = shots;
+        features.hits = hits;
+        features.shotRate = directionChanges > 0 ? (double) shots / directionChanges : 0.0;
+        features.hitRate = shots > 0 ? Math.min(1.0, (double) hits / shots) : 0.5;
+        features.reactionCount = reactionStats.getCount();
+        features.reactionMeanMs = reactionStats.getMean();
+        features.reactionStdMs = reactionStats.getStdDev();
+        features.directionEntropy = directionEntropy();
+        features.changeRatio = moves > 0 ? (double) directionChanges / moves : 0.0;
+        features.uniqueCells = uniqueCells;
+        features.foodCollected = timeToFoodStats.getCount();
+        features.timeToFoodMeanMs = timeToFoodStats.getMean();
+        features.avgSessionSeconds = sessionStats.getMean();
+        return features;
+    }
+
+    /**
+     * 方向分布的香农熵，按 log(4) 归一化到 0 ~ 1
+     */
+    private double directionEntropy() {
+        if (directionChanges == 0) {
+            return 0.0;
+        }
+        double entropy = 0.0;
+        for (long count : directionCounts) {
+            if (count > 0) {
+                double p = (double) count / directionChanges;
+                entropy -= p * Math.log(p);
+            }
+        }
+        return entropy / Math.log(DIRECTION_COUNT);
+    }
+
+    /**
+     * 已处理的事件数（数据版本），用于判断特征是否变化
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * 清空所有特征
+     */
+    public synchronized void reset() {
+        visitedCells.clear();
+        Arrays.fill(directionCounts, 0);
+        reactionStats.reset();
+        timeToFoodStats.reset();
+        sessionStats.reset();
+        version++;
+        totalSessions = 0;
+        directionChanges = 0;
+        moves = 0;
+        shots = 0;
+        hits = 0;
+        uniqueCells = 0;
+        sessionStartMs = -1;
+        foodSpawnMs = -1;
+        stimulusMs = -1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.xylonet.snake.analysis;
+
+/**
+ * 玩家行为特征快照
+ * 由 {@link BehaviorFeatureExtractor} 生成，随 REQUEST_ANALYSIS 发送给 Python 分析器
+ */
+public class BehaviorFeatures {
+    public long version;             // 生成快照时已处理的事件数，数据未变化时不变
+    public int totalSessions;
+    public long totalActions;        // 方向改变次数（与 player_actions 口径一致）
+    public long moves;               // 蛇移动步数
+    public long shots;
+    public long hits;
+    public double shotRate;          // 每次操作的射击数
+    public double hitRate;           // 命中率，没有射击时为 0.5
+    public long reactionCount;
+    public double reactionMeanMs;    // 新食物出现到玩家首次操作的时间
+    public double reactionStdMs;
+    public double directionEntropy;  // 方向改变分布的归一化熵（0 ~ 1）
+    public double changeRatio;       // 每步移动的方向改变次数
+    public int uniqueCells;          // 蛇头到访过的不同格子数
+    public long foodCollected;
+    public double timeToFoodMeanMs;  // 食物出现到被吃掉的平均时间
+    public double avgSessionSeconds; // 已结束会话的平均时长
+
+    @Override
+    public String toString() {
+        return String.format("会话 %d, 操作 %d, 射击 %d (命中率 %.2f), 反应 %.0f±%.0fms, 熵 %.2f, 覆盖 %d 格, 吃食 %d (平均 %.0fms)",
+                totalSessions, totalActions, shots, hitRate, reactionMeanMs, reactionStdMs,
+                directionEntropy, uniqueCells, foodCollected, timeToFoodMeanMs);
+    }
+}
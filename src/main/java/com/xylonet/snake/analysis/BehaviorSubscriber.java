@@ -0,0 +1,87 @@
+package com.xylonet.snake.analysis;
+
+import com.xylonet.snake.event.EventBus;
+import com.xylonet.snake.event.EventSubscriber;
+import com.xylonet.snake.event.GameEvent;
+import com.xylonet.snake.game.Snake;
+import com.xylonet.snake.network.AnalysisService;
+
+/**
+ * 行为分析订阅方：把游戏事件交给 {@link BehaviorFeatureExtractor}，并按玩家操作驱动 {@link AnalysisScheduler}
+ * 以 THREAD 方式订阅，特征更新和调度计数都在事件线程上串行执行；时间取事件发布时刻，不受投递延迟影响
+ * 分析结果由调度器回到 EDT 后以 {@link GameEvent.AnalysisUpdated} 发布
+ */
+public class BehaviorSubscriber implements EventSubscriber {
+    private final BehaviorFeatureExtractor extractor;
+    private final AnalysisScheduler scheduler;
+    private volatile AnalysisService service;
+
+    /**
+     * @param eventBus 发布分析结果的事件总线（在 EDT 上发布）
+     * @param width 棋盘宽度
+     * @param height 棋盘高度
+     */
+    public BehaviorSubscriber(EventBus eventBus, int width, int height) {
+        this.extractor = new BehaviorFeatureExtractor(width, height);
+        this.scheduler = new AnalysisScheduler(extractor, result -> {
+            if (result.mbti != null) {
+                eventBus.publish(new GameEvent.AnalysisUpdated(result.mbti, result.confidence));
+            }
+        });
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        if (event instanceof GameEvent.SnakeMoved) {
+            GameEvent.SnakeMoved moved = (GameEvent.SnakeMoved) event;
+            extractor.onMove(moved.headX, moved.headY);
+        } else if (event instanceof GameEvent.DirectionChanged) {
+            String direction = ((GameEvent.DirectionChanged) event).direction;
+            extractor.onDirectionChange(Snake.Direction.valueOf(direction).ordinal(), event.timeMillis);
+            scheduler.onAction();
+        } else if (event instanceof GameEvent.ShotFired) {
+            extractor.onShot(event.timeMillis);
+            scheduler.onAction();
+        } else if (event instanceof GameEvent.BulletsHit) {
+            extractor.onHits(((GameEvent.BulletsHit) event).count);
+        } else if (event instanceof GameEvent.FoodEaten) {
+            extractor.onFoodEaten(event.timeMillis);
+        } else if (event instanceof GameEvent.LevelChanged) {
+            extractor.onFoodSpawned(event.timeMillis);  // 新关卡的食物
+        } else if (event instanceof GameEvent.LevelCompleted) {
+            scheduler.onLevelComplete();
+        } else if (event instanceof GameEvent.GameStarted) {
+            extractor.onSessionStart(event.timeMillis);
+            AnalysisService current = service;
+            if (current != null) {
+                current.invalidate();  // 不把上一局的分析结果当作本局的
+            }
+            scheduler.onSessionStart();
+        } else if (event instanceof GameEvent.GameOver || event instanceof GameEvent.GameReset) {
+            extractor.onSessionEnd(event.timeMillis);
+        }
+    }
+
+    /**
+     * 设置分析服务（为 null 时停止分析）
+     */
+    public void setAnalysisService(AnalysisService service) {
+        this.service = service;
+        scheduler.setService(service);
+    }
+
+    public BehaviorFeatureExtractor getFeatureExtractor() {
+        return extractor;
+    }
+
+    public AnalysisScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 停止分析调度
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,49 @@
+package com.xylonet.snake.analysis;
+
+/**
+ * 在线均值 / 方差（Welford 算法）
+ * 每次更新 O(1)，不保存样本，数值稳定
+ */
+public class RunningStats {
+    private long count;
+    private double mean;
+    private double m2;  // 与均值差的平方和
+
+    /**
+     * 加入一个样本
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 均值，没有样本时为 0
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * 总体方差，少于 2 个样本时为 0
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / count : 0.0;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public void reset() {
+        count = 0;
+        mean = 0.0;
+        m2 = 0.0;
+    }
+}
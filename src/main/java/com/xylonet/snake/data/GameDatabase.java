@@ -1,16 +1,25 @@
 package com.xylonet.snake.data;
 
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.metrics.MetricsRegistry;
+
 import java.sql.*;
 import java.util.UUID;
 
 /**
  * 游戏数据库管理类
  * 负责记录玩家操作、游戏状态等数据到SQLite
+ * - 会话开始/结束同步写入
+ * - 操作、射击、食物、快照等高频遥测交给 {@link TelemetryWriter} 后台批量写入
  */
 public class GameDatabase {
     private Connection connection;
     private final String dbPath;
     private String currentSessionId;
+    private TelemetryWriter writer;
+    private final LatencyHistogram writeTime = MetricsRegistry.getDefault().histogram("db.write");
+    private final Counter writeErrors = MetricsRegistry.getDefault().counter("db.write_errors");
 
     public GameDatabase() {
         String projectRoot = System.getProperty("user.dir");
@@ -24,6 +33,7 @@ public class GameDatabase {
         try {
             String url = "jdbc:sqlite:" + dbPath;
             connection = DriverManager.getConnection(url);
+            writer = new TelemetryWriter(connection);
             System.out.println("[DB] 数据库连接成功: " + dbPath);
             return true;
         } catch (SQLException e) {
@@ -44,7 +54,7 @@ public class GameDatabase {
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, currentSessionId);
             pstmt.setLong(2, currentTime);
-            pstmt.executeUpdate();
+            executeWrite(pstmt);
 
             System.out.println("[DB] 新游戏会话开始: " + currentSessionId);
             return currentSessionId;
@@ -60,6 +70,7 @@ public class GameDatabase {
      */
     public void endSession(int finalScore, int snakeLength, boolean victory, String deathReason) {
         if (currentSessionId == null) return;
+        writer.flush();  // 先写完本会话的遥测数据
 
         String sql = "UPDATE game_sessions SET end_time = ?, final_score = ?, " +
                 "snake_length = ?, victory = ?, death_reason = ?, duration_seconds = ? WHERE session_id = ?";
@@ -86,7 +97,7 @@ public class GameDatabase {
             pstmt.setString(5, deathReason);
             pstmt.setInt(6, durationSeconds);
             pstmt.setString(7, currentSessionId);
-            pstmt.executeUpdate();
+            executeWrite(pstmt);
 
             System.out.println("[DB] 游戏会话结束: " + currentSessionId);
 
@@ -104,19 +115,8 @@ public class GameDatabase {
         String sql = "INSERT INTO player_actions (session_id, timestamp, action_type, direction, " +
                 "snake_length, position_x, position_y) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, currentSessionId);
-            pstmt.setLong(2, System.currentTimeMillis());
-            pstmt.setString(3, actionType);
-            pstmt.setString(4, direction);
-            pstmt.setInt(5, snakeLength);
-            pstmt.setInt(6, posX);
-            pstmt.setInt(7, posY);
-            pstmt.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("[DB] 记录操作失败: " + e.getMessage());
-        }
+        writer.enqueue(sql, currentSessionId, System.currentTimeMillis(), actionType, direction,
+                snakeLength, posX, posY);
     }
 
     /**
@@ -128,18 +128,7 @@ public class GameDatabase {
         String sql = "INSERT INTO shooting_events (session_id, timestamp, target_x, target_y, hit, reaction_time_ms) " +
                 "VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, currentSessionId);
-            pstmt.setLong(2, System.currentTimeMillis());
-            pstmt.setInt(3, targetX);
-            pstmt.setInt(4, targetY);
-            pstmt.setBoolean(5, hit);
-            pstmt.setInt(6, reactionTimeMs);
-            pstmt.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("[DB] 记录射击失败: " + e.getMessage());
-        }
+        writer.enqueue(sql, currentSessionId, System.currentTimeMillis(), targetX, targetY, hit, reactionTimeMs);
     }
 
     /**
@@ -151,19 +140,8 @@ public class GameDatabase {
         String sql = "INSERT INTO food_collection (session_id, timestamp, food_type, food_x, food_y, " +
                 "distance_traveled, time_to_collect_ms) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, currentSessionId);
-            pstmt.setLong(2, System.currentTimeMillis());
-            pstmt.setString(3, foodType);
-            pstmt.setInt(4, foodX);
-            pstmt.setInt(5, foodY);
-            pstmt.setInt(6, distanceTraveled);
-            pstmt.setInt(7, timeToCollectMs);
-            pstmt.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("[DB] 记录食物收集失败: " + e.getMessage());
-        }
+        writer.enqueue(sql, currentSessionId, System.currentTimeMillis(), foodType, foodX, foodY,
+                distanceTraveled, timeToCollectMs);
     }
 
     /**
@@ -177,22 +155,24 @@ public class GameDatabase {
                 "snake_length, snake_direction, nearby_obstacles_count, distance_to_food, health, attack_power, defense_power) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, currentSessionId);
-            pstmt.setLong(2, System.currentTimeMillis());
-            pstmt.setInt(3, headX);
-            pstmt.setInt(4, headY);
-            pstmt.setInt(5, length);
-            pstmt.setString(6, direction);
-            pstmt.setInt(7, obstaclesCount);
-            pstmt.setDouble(8, distanceToFood);
-            pstmt.setInt(9, health);
-            pstmt.setInt(10, attack);
-            pstmt.setInt(11, defense);
-            pstmt.executeUpdate();
+        writer.enqueue(sql, currentSessionId, System.currentTimeMillis(), headX, headY, length, direction,
+                obstaclesCount, distanceToFood, health, attack, defense);
+    }
 
+    /**
+     * 同步执行一条写语句并记录耗时（与后台批量写入互斥）
+     */
+    private void executeWrite(PreparedStatement statement) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            synchronized (connection) {
+                statement.executeUpdate();
+            }
         } catch (SQLException e) {
-            System.err.println("[DB] 记录快照失败: " + e.getMessage());
+            writeErrors.increment();
+            throw e;
+        } finally {
+            writeTime.record(System.nanoTime() - start);
         }
     }
 
@@ -200,6 +180,9 @@ public class GameDatabase {
      * 获取总操作数（用于分析）
      */
     public int getTotalActionCount() {
+        if (writer != null) {
+            writer.flush();  // 计入尚在队列中的操作
+        }
         String sql = "SELECT COUNT(*) as count FROM player_actions";
 
         try (Statement stmt = connection.createStatement();
@@ -214,6 +197,13 @@ public class GameDatabase {
         return 0;
     }
 
+    /**
+     * 获取后台遥测写入器（未连接时为 null）
+     */
+    public TelemetryWriter getWriter() {
+        return writer;
+    }
+
     /**
      * 获取当前会话ID
      */
@@ -225,6 +215,9 @@ public class GameDatabase {
      * 关闭数据库连接
      */
     public void close() {
+        if (writer != null) {
+            writer.close();
+        }
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
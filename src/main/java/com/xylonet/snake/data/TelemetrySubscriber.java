@@ -0,0 +1,59 @@
+package com.xylonet.snake.data;
+
+import com.xylonet.snake.event.EventSubscriber;
+import com.xylonet.snake.event.GameEvent;
+
+import java.util.Locale;
+
+/**
+ * 遥测订阅方：把游戏事件写入 {@link GameDatabase}
+ * 以 THREAD 方式订阅，会话开始/结束的同步 SQL 和结束时的 flush 都在事件线程上执行，不占用游戏循环
+ * 订阅 GameStarted、GameOver、DirectionChanged、ShotFired、GameSnapshot
+ */
+public class TelemetrySubscriber implements EventSubscriber {
+
+    private final GameDatabase database;
+    private boolean closed = false;
+
+    /**
+     * @param database 已连接的数据库
+     */
+    public TelemetrySubscriber(GameDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public synchronized void onEvent(GameEvent event) {
+        if (closed) {
+            return;
+        }
+        if (event instanceof GameEvent.GameStarted) {
+            database.startNewSession();
+        } else if (event instanceof GameEvent.GameOver) {
+            GameEvent.GameOver over = (GameEvent.GameOver) event;
+            database.endSession(over.score, over.length, false, over.reason.name().toLowerCase(Locale.ROOT));
+        } else if (event instanceof GameEvent.DirectionChanged) {
+            GameEvent.DirectionChanged changed = (GameEvent.DirectionChanged) event;
+            database.recordAction("direction_change", changed.direction, changed.length, changed.x, changed.y);
+        } else if (event instanceof GameEvent.ShotFired) {
+            GameEvent.ShotFired shot = (GameEvent.ShotFired) event;
+            // 发射时还不知道是否命中，命中数由行为特征单独统计
+            database.recordShooting(shot.x, shot.y, false, 0);
+        } else if (event instanceof GameEvent.GameSnapshot) {
+            GameEvent.GameSnapshot snapshot = (GameEvent.GameSnapshot) event;
+            database.recordSnapshot(snapshot.headX, snapshot.headY, snapshot.length, snapshot.direction,
+                    snapshot.obstacles, snapshot.distanceToFood, 0, 0, 0);
+        }
+    }
+
+    /**
+     * 关闭数据库；之后到达的事件直接丢弃
+     * 与 onEvent 互斥，事件线程不会在连接关闭后继续写入
+     */
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            database.close();
+        }
+    }
+}
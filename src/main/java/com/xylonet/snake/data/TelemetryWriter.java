@@ -0,0 +1,280 @@
+package com.xylonet.snake.data;
+
+import com.xylonet.snake.jfr.DbFlushEvent;
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 遥测数据后台写入器
+ * - 游戏线程只把一行数据放入有界队列，不等待 SQLite
+ * - 写入线程按刷新策略成批提交：攒满 batchSize 行，或第一行等待超过 maxDelayMs
+ * - 每批一个事务，同一 SQL 的行合并为一次 executeBatch
+ * - 队列满时丢弃新行并计数（遥测数据允许丢失，游戏不允许卡顿）
+ */
+public class TelemetryWriter {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 200;
+    public static final long DEFAULT_MAX_DELAY_MS = 1000;
+    private static final long FLUSH_TIMEOUT_MS = 5000;
+
+    private final Connection connection;
+    private final BlockingQueue<Row> queue;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile long maxDelayMs = DEFAULT_MAX_DELAY_MS;
+
+    private final LatencyHistogram flushTime = MetricsRegistry.getDefault().histogram("db.flush");
+    private final Counter rowsWritten = MetricsRegistry.getDefault().counter("db.rows_written");
+    private final Counter flushCount = MetricsRegistry.getDefault().counter("db.flushes");
+    private final Counter errorCount = MetricsRegistry.getDefault().counter("db.flush_errors");
+    private final Counter droppedCount = MetricsRegistry.getDefault().counter("db.dropped");
+
+    /**
+     * @param connection 数据库连接（写入时对其加锁，与同步语句互斥）
+     */
+    public TelemetryWriter(Connection connection) {
+        this(connection, DEFAULT_CAPACITY);
+    }
+
+    public TelemetryWriter(Connection connection, int capacity) {
+        this.connection = connection;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, "db-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        MetricsRegistry.getDefault().gauge("db.queue_depth", queue::size);
+    }
+
+    /**
+     * 放入一行待写数据（不阻塞）
+     * @return 队列已满或已关闭时返回 false
+     */
+    public boolean enqueue(String sql, Object... params) {
+        if (!running || !queue.offer(new Row(sql, params, null))) {
+            droppedCount.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 立即提交队列中已有的数据并等待完成
+     * 排队和等待合计不超过 FLUSH_TIMEOUT_MS：写入线程卡在 SQLite 上、队列已满时也不会一直阻塞调用方
+     * @return 在超时前完成时返回 true
+     */
+    public boolean flush() {
+        if (!running || Thread.currentThread() == thread) {
+            return false;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT_MS);
+        try {
+            if (!queue.offer(new Row(null, null, done), FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            return done.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 提交剩余数据并停止写入线程
+     */
+    public void close() {
+        flush();
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(FLUSH_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Row> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Row first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (first.flushSignal == null && batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    if (batch.get(batch.size() - 1).flushSignal != null || batch.size() >= batchSize) {
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Row next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    if (next.flushSignal != null) {
+                        break;
+                    }
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } finally {
+                for (Row row : batch) {
+                    if (row.flushSignal != null) {
+                        row.flushSignal.countDown();
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在一个事务内写入一批数据
+     */
+    private void writeBatch(List<Row> batch) {
+        Map<String, List<Object[]>> bySql = new LinkedHashMap<>();
+        int rows = 0;
+        for (Row row : batch) {
+            if (row.sql != null) {
+                bySql.computeIfAbsent(row.sql, key -> new ArrayList<>()).add(row.params);
+                rows++;
+            }
+        }
+        if (rows == 0) {
+            return;
+        }
+
+        DbFlushEvent event = new DbFlushEvent();
+        event.begin();
+        boolean success = false;
+        long start = System.nanoTime();
+        synchronized (connection) {
+            try {
+                connection.setAutoCommit(false);
+                for (Map.Entry<String, List<Object[]>> entry : bySql.entrySet()) {
+                    try (PreparedStatement pstmt = connection.prepareStatement(entry.getKey())) {
+                        for (Object[] params : entry.getValue()) {
+                            for (int i = 0; i < params.length; i++) {
+                                pstmt.setObject(i + 1, params[i]);
+                            }
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                }
+                connection.commit();
+                rowsWritten.add(rows);
+                success = true;
+            } catch (SQLException e) {
+                errorCount.increment();
+                System.err.println("[DB] 批量写入失败（" + rows + " 行）: " + e.getMessage());
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+                    // 回滚失败时连接已不可用，下一批会再次报错
+                }
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException ignored) {
+                    // 同上
+                }
+            }
+        }
+        flushTime.record(System.nanoTime() - start);
+        flushCount.increment();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.statements = bySql.size();
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    // ===== 刷新策略 =====
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(long maxDelayMs) {
+        this.maxDelayMs = Math.max(0, maxDelayMs);
+    }
+
+    // ===== 统计 =====
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public LatencyHistogram getFlushTime() {
+        return flushTime;
+    }
+
+    /**
+     * 一行待写数据；flushSignal 非空时表示这是 flush() 放入的标记
+     */
+    private static final class Row {
+        final String sql;
+        final Object[] params;
+        final CountDownLatch flushSignal;
+
+        Row(String sql, Object[] params, CountDownLatch flushSignal) {
+            this.sql = sql;
+            this.params = params;
+            this.flushSignal = flushSignal;
+        }
+    }
+}
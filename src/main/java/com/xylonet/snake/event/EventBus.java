@@ -0,0 +1,267 @@
+package com.xylonet.snake.event;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 类型化事件总线
+ * - 每个订阅一个有界无锁队列：单发布线程用 {@link SpscQueue}，多发布线程用 {@link MpscQueue}
+ * - 发布只做入队（队满丢弃并计数），不执行任何订阅方代码，也不调用 Swing
+ * - 订阅方按投递方式批量处理：
+ *   EDT    —— 每批只 invokeLater 一次，在 EDT 上排空队列
+ *   THREAD —— 专用守护线程排空队列，空闲时休眠
+ *   POLL   —— 由订阅方自己调用 {@link Subscription#drain()}
+ */
+public class EventBus {
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+    private static final int MAX_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    public enum Delivery { EDT, THREAD, POLL }
+
+    private final boolean singleProducer;
+    private final int queueCapacity;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * @param singleProducer 是否只有一个线程发布（决定使用 SPSC 还是 MPSC 队列）
+     */
+    public EventBus(boolean singleProducer) {
+        this(singleProducer, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public EventBus(boolean singleProducer, int queueCapacity) {
+        this.singleProducer = singleProducer;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 订阅事件
+     * @param name 订阅名称（用于统计和线程名）
+     * @param delivery 投递方式
+     * @param subscriber 回调
+     * @param types 只接收这些类型的事件；为空时接收全部
+     */
+    @SafeVarargs
+    public final Subscription subscribe(String name, Delivery delivery, EventSubscriber subscriber,
+                                        Class<? extends GameEvent>... types) {
+        EventQueue<GameEvent> queue = singleProducer
+                ? new SpscQueue<>(queueCapacity)
+                : new MpscQueue<>(queueCapacity);
+        // 逐个复制而不是把泛型数组原样传下去，避免 @SafeVarargs 下的堆污染
+        List<Class<? extends GameEvent>> filter = new ArrayList<>(types.length);
+        for (Class<? extends GameEvent> type : types) {
+            filter.add(type);
+        }
+        Subscription subscription = new Subscription(name, delivery, subscriber, queue, List.copyOf(filter));
+        subscriptions.add(subscription);
+        if (delivery == Delivery.THREAD) {
+            subscription.startThread();
+        }
+        return subscription;
+    }
+
+    /**
+     * 发布事件（永不阻塞）
+     */
+    public void publish(GameEvent event) {
+        published.incrementAndGet();
+        for (Subscription subscription : subscriptions) {
+            subscription.enqueue(event);
+        }
+    }
+
+    /**
+     * 取消订阅；THREAD 订阅的线程会在排空后退出
+     */
+    public void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.close();
+    }
+
+    /**
+     * 取消所有订阅
+     */
+    public void shutdown() {
+        for (Subscription subscription : subscriptions) {
+            unsubscribe(subscription);
+        }
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * 单个订阅：队列 + 投递方式 + 统计
+     */
+    public static class Subscription {
+        private final String name;
+        private final Delivery delivery;
+        private final EventSubscriber subscriber;
+        private final EventQueue<GameEvent> queue;
+        private final List<Class<? extends GameEvent>> types;  // 不可变
+
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private volatile Thread thread;
+        private volatile boolean closed = false;
+
+        Subscription(String name, Delivery delivery, EventSubscriber subscriber,
+                     EventQueue<GameEvent> queue, List<Class<? extends GameEvent>> types) {
+            this.name = name;
+            this.delivery = delivery;
+            this.subscriber = subscriber;
+            this.queue = queue;
+            this.types = types;
+        }
+
+        private boolean accepts(GameEvent event) {
+            if (types.isEmpty()) {
+                return true;
+            }
+            for (int i = 0; i < types.size(); i++) {  // 每次发布都会调用，不创建迭代器
+                if (types.get(i).isInstance(event)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void enqueue(GameEvent event) {
+            if (closed || !accepts(event)) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                dropped.incrementAndGet();
+                return;
+            }
+            switch (delivery) {
+                case EDT:
+                    if (drainScheduled.compareAndSet(false, true)) {
+                        SwingUtilities.invokeLater(this::drainOnEdt);
+                    }
+                    break;
+                case THREAD:
+                    Thread consumer = thread;
+                    if (consumer != null && drainScheduled.compareAndSet(true, false)) {
+                        LockSupport.unpark(consumer);  // 消费线程正在休眠
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void drainOnEdt() {
+            // 先清除标记再排空：排空期间新发布的事件会再安排一次
+            drainScheduled.set(false);
+            if (drain() == MAX_BATCH && !queue.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(this::drainOnEdt);  // 剩余的下一批处理，不长时间占用 EDT
+            }
+        }
+
+        /**
+         * 排空一批事件（最多 MAX_BATCH 个）并回调
+         * POLL 订阅由订阅方线程调用
+         * @return 处理的事件数
+         */
+        public int drain() {
+            int count = 0;
+            GameEvent event;
+            while (count < MAX_BATCH && (event = queue.poll()) != null) {
+                try {
+                    subscriber.onEvent(event);
+                } catch (RuntimeException e) {
+                    System.err.println("[EventBus] 订阅 " + name + " 处理事件失败: " + e);
+                }
+                count++;
+            }
+            if (count > 0) {
+                delivered.addAndGet(count);
+                batches.incrementAndGet();
+                try {
+                    subscriber.onBatchComplete();
+                } catch (RuntimeException e) {
+                    System.err.println("[EventBus] 订阅 " + name + " 批处理失败: " + e);
+                }
+            }
+            return count;
+        }
+
+        void startThread() {
+            Thread consumer = new Thread(() -> {
+                while (!closed || !queue.isEmpty()) {
+                    if (drain() > 0) {
+                        continue;
+                    }
+                    drainScheduled.set(true);  // 告诉发布方需要唤醒
+                    if (queue.isEmpty() && !closed) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    drainScheduled.set(false);
+                }
+            }, "event-" + name);
+            consumer.setDaemon(true);
+            thread = consumer;
+            consumer.start();
+        }
+
+        void close() {
+            closed = true;
+            Thread consumer = thread;
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Delivery getDelivery() {
+            return delivery;
+        }
+
+        public long getDeliveredCount() {
+            return delivered.get();
+        }
+
+        /**
+         * 队满被丢弃的事件数
+         */
+        public long getDroppedCount() {
+            return dropped.get();
+        }
+
+        /**
+         * 平均每批处理的事件数
+         */
+        public double getAverageBatchSize() {
+            long count = batches.get();
+            return count == 0 ? 0.0 : (double) delivered.get() / count;
+        }
+
+        public int getQueueSize() {
+            return queue.size();
+        }
+
+        public String summary() {
+            return String.format("%s[%s] delivered=%d dropped=%d batch=%.1f queued=%d",
+                    name, delivery, getDeliveredCount(), getDroppedCount(), getAverageBatchSize(), getQueueSize());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.xylonet.snake.event;
+
+/**
+ * 有界无锁队列（单消费者）
+ * 队满时 offer 直接返回 false，发布方永不阻塞
+ */
+public interface EventQueue<E> {
+
+    /**
+     * 入队
+     * @return 队列已满时返回 false
+     */
+    boolean offer(E element);
+
+    /**
+     * 出队（只能由唯一的消费者线程调用）
+     * @return 队列为空时返回 null
+     */
+    E poll();
+
+    /**
+     * 当前元素数量（并发下为近似值）
+     */
+    int size();
+
+    int capacity();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.xylonet.snake.event;
+
+/**
+ * 事件订阅方
+ * 同一订阅的回调总在同一线程上串行执行（EDT、专用线程或主动拉取的线程）
+ */
+public interface EventSubscriber {
+
+    /**
+     * 处理一个事件
+     */
+    void onEvent(GameEvent event);
+
+    /**
+     * 一批事件处理完毕（适合合并刷新，如每批只重绘一次）
+     */
+    default void onBatchComplete() {
+    }
+}
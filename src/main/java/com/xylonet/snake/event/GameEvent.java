@@ -0,0 +1,234 @@
+package com.xylonet.snake.event;
+
+import com.xylonet.snake.game.BoardChangeSet;
+import com.xylonet.snake.game.GameBoard;
+
+import java.awt.Point;
+
+/**
+ * 游戏领域事件
+ * 由 GameEngine 发布到 {@link EventBus}，UI、遥测、AI 等订阅方在各自线程上批量处理
+ * 事件创建后不可变
+ */
+public abstract class GameEvent {
+    public final long timeNanos = System.nanoTime();  // 发布时刻，用于统计投递延迟
+    public final long timeMillis = System.currentTimeMillis();  // 发布时刻（墙钟），订阅方按它计时而不是按处理时刻
+
+    // ===== 会话与状态 =====
+
+    /**
+     * 新会话开始（会话 ID 由遥测订阅方分配）
+     */
+    public static final class GameStarted extends GameEvent {
+    }
+
+    public static final class GamePaused extends GameEvent {
+    }
+
+    public static final class GameResumed extends GameEvent {
+    }
+
+    /**
+     * 游戏被重置（R 键）
+     */
+    public static final class GameReset extends GameEvent {
+    }
+
+    /**
+     * 关卡完成，等待玩家继续
+     */
+    public static final class LevelCompleted extends GameEvent {
+        public final int completedLevel;
+        public final int nextLevel;
+
+        public LevelCompleted(int completedLevel, int nextLevel) {
+            this.completedLevel = completedLevel;
+            this.nextLevel = nextLevel;
+        }
+    }
+
+    /**
+     * 关卡完成后继续游戏
+     */
+    public static final class LevelStarted extends GameEvent {
+        public final int level;
+
+        public LevelStarted(int level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * 游戏结束
+     */
+    public static final class GameOver extends GameEvent {
+        public enum Reason { DIED, TIMEOUT }
+
+        public final Reason reason;
+        public final int score;
+        public final int level;
+        public final int length;
+
+        public GameOver(Reason reason, int score, int level, int length) {
+            this.reason = reason;
+            this.score = score;
+            this.level = level;
+            this.length = length;
+        }
+    }
+
+    // ===== 数值变化（只在变化时发布） =====
+
+    public static final class ScoreChanged extends GameEvent {
+        public final int score;
+
+        public ScoreChanged(int score) {
+            this.score = score;
+        }
+    }
+
+    public static final class LengthChanged extends GameEvent {
+        public final int length;
+
+        public LengthChanged(int length) {
+            this.length = length;
+        }
+    }
+
+    public static final class LevelChanged extends GameEvent {
+        public final int level;
+
+        public LevelChanged(int level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * 关卡剩余时间（秒）
+     */
+    public static final class TimeChanged extends GameEvent {
+        public final int remainingSeconds;
+
+        public TimeChanged(int remainingSeconds) {
+            this.remainingSeconds = remainingSeconds;
+        }
+    }
+
+    // ===== 玩家操作与游戏内事件 =====
+
+    /**
+     * 玩家改变方向，x/y/length 为改变时的蛇头位置和蛇长
+     */
+    public static final class DirectionChanged extends GameEvent {
+        public final String direction;
+        public final int x;
+        public final int y;
+        public final int length;
+
+        public DirectionChanged(String direction, int x, int y, int length) {
+            this.direction = direction;
+            this.x = x;
+            this.y = y;
+            this.length = length;
+        }
+    }
+
+    public static final class ShotFired extends GameEvent {
+        public final String direction;
+        public final int x;
+        public final int y;
+
+        public ShotFired(String direction, int x, int y) {
+            this.direction = direction;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public static final class FoodEaten extends GameEvent {
+        public final int totalEaten;
+
+        public FoodEaten(int totalEaten) {
+            this.totalEaten = totalEaten;
+        }
+    }
+
+    /**
+     * 本帧子弹命中障碍物
+     */
+    public static final class BulletsHit extends GameEvent {
+        public final int count;
+
+        public BulletsHit(int count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * 蛇移动一步（逻辑帧前进）
+     */
+    public static final class SnakeMoved extends GameEvent {
+        public final long tick;
+        public final int headX;
+        public final int headY;
+
+        public SnakeMoved(long tick, int headX, int headY) {
+            this.tick = tick;
+            this.headX = headX;
+            this.headY = headY;
+        }
+    }
+
+    /**
+     * 定期的游戏状态快照（间隔由 GameEngine 控制），distanceToFood 为 -1 表示没有食物
+     */
+    public static final class GameSnapshot extends GameEvent {
+        public final int headX;
+        public final int headY;
+        public final int length;
+        public final String direction;
+        public final int obstacles;
+        public final double distanceToFood;
+
+        public GameSnapshot(int headX, int headY, int length, String direction, int obstacles, double distanceToFood) {
+            this.headX = headX;
+            this.headY = headY;
+            this.length = length;
+            this.direction = direction;
+            this.obstacles = obstacles;
+            this.distanceToFood = distanceToFood;
+        }
+    }
+
+    /**
+     * 一帧逻辑更新完成，需要重绘
+     * board 只能在 EDT 上读取（游戏循环也运行在 EDT）
+     * changes 为本帧外观变化的格子，订阅方跳过中间帧时需要合并各帧的 changes
+     */
+    public static final class FrameUpdated extends GameEvent {
+        public final GameBoard board;
+        public final long tick;
+        public final Point hintCell;  // AI 建议的下一格，null 表示无建议
+        public final BoardChangeSet changes;
+
+        public FrameUpdated(GameBoard board, long tick, Point hintCell, BoardChangeSet changes) {
+            this.board = board;
+            this.tick = tick;
+            this.hintCell = hintCell;
+            this.changes = changes;
+        }
+    }
+
+    /**
+     * 后台 MBTI 分析得到新结果
+     */
+    public static final class AnalysisUpdated extends GameEvent {
+        public final String mbti;
+        public final double confidence;
+
+        public AnalysisUpdated(String mbti, double confidence) {
+            this.mbti = mbti;
+            this.confidence = confidence;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.xylonet.snake.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 多生产者 / 单消费者有界环形队列（每个槽位带序号，Vyukov 算法）
+ * - 生产者用一次 CAS 抢占 tail 位置，写入元素后发布槽位序号
+ * - 消费者看到槽位序号就绪才读取，不需要 CAS
+ * 槽位 i 的序号：等于位置 p 时可写入，等于 p + 1 时可读取
+ */
+public class MpscQueue<E> implements EventQueue<E> {
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new SpscQueue.PaddedAtomicLong();
+    private final AtomicLong head = new SpscQueue.PaddedAtomicLong();  // 只由消费者写
+
+    /**
+     * @param capacity 容量，向上取整到 2 的幂
+     */
+    public MpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(E element) {
+        while (true) {
+            long t = tail.get();
+            int index = (int) (t & mask);
+            long diff = sequences.get(index) - t;
+            if (diff == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    buffer[index] = element;
+                    sequences.lazySet(index, t + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;  // 队满
+            }
+            // diff > 0：其他生产者已占用该位置，重试
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        int index = (int) (h & mask);
+        if (sequences.get(index) != h + 1) {
+            return null;  // 空，或生产者尚未写完
+        }
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        sequences.lazySet(index, h + buffer.length);
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.length;
+    }
+}
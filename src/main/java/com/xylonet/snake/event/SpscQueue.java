@@ -0,0 +1,77 @@
+package com.xylonet.snake.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者 / 单消费者有界环形队列
+ * - 生产者只写 tail，消费者只写 head，没有 CAS
+ * - 元素先写入槽位，再以 release 语义推进下标（lazySet），对方以 volatile 读取下标
+ * - 双方各缓存一份对方的下标，只有看起来满 / 空时才重新读取，减少缓存行往返
+ */
+public class SpscQueue<E> implements EventQueue<E> {
+    private final Object[] buffer;
+    private final int mask;
+
+    private final AtomicLong tail = new PaddedAtomicLong();  // 生产者写
+    private final AtomicLong head = new PaddedAtomicLong();  // 消费者写
+    private long cachedHead;  // 生产者私有
+    private long cachedTail;  // 消费者私有
+
+    /**
+     * @param capacity 容量，向上取整到 2 的幂
+     */
+    public SpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        long t = tail.get();
+        if (t - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) (t & mask)] = element;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        if (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        int index = (int) (h & mask);
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * 填充到独占缓存行，避免 head / tail 伪共享
+     */
+    @SuppressWarnings("unused")
+    static class PaddedAtomicLong extends AtomicLong {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
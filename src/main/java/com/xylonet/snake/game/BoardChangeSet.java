@@ -0,0 +1,120 @@
+package com.xylonet.snake.game;
+
+import java.util.Arrays;
+
+/**
+ * 棋盘变化集合：一段时间内外观发生变化的格子
+ * - 位图去重，同一格子多次标记只记一次
+ * - 整盘变化（换关、蛇死亡等）只记一个标志，不逐格记录
+ * 格子编号为 y * width + x
+ */
+public class BoardChangeSet {
+    private final int width;
+    private final int height;
+    private final long[] bits;
+    private int[] cells;
+    private int count;
+    private boolean full;
+
+    public BoardChangeSet(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) >>> 6];
+        this.cells = new int[32];
+    }
+
+    /**
+     * 标记一个格子（越界的坐标忽略）
+     */
+    public void mark(int x, int y) {
+        if (full || x < 0 || x >= width || y < 0 || y >= height) {
+            return;
+        }
+        int cell = y * width + x;
+        long bit = 1L << cell;
+        if ((bits[cell >>> 6] & bit) != 0) {
+            return;
+        }
+        bits[cell >>> 6] |= bit;
+        if (count == cells.length) {
+            cells = Arrays.copyOf(cells, count * 2);
+        }
+        cells[count++] = cell;
+    }
+
+    /**
+     * 标记整盘变化
+     */
+    public void markAll() {
+        if (!full) {
+            full = true;
+            clearCells();
+        }
+    }
+
+    /**
+     * 合并另一个变化集合
+     */
+    public void addAll(BoardChangeSet other) {
+        if (other.full) {
+            markAll();
+            return;
+        }
+        for (int i = 0; i < other.count; i++) {
+            int cell = other.cells[i];
+            mark(cell % other.width, cell / other.width);
+        }
+    }
+
+    public void clear() {
+        full = false;
+        clearCells();
+    }
+
+    private void clearCells() {
+        for (int i = 0; i < count; i++) {
+            bits[cells[i] >>> 6] = 0L;
+        }
+        count = 0;
+    }
+
+    /**
+     * 复制当前内容
+     */
+    public BoardChangeSet copy() {
+        BoardChangeSet copy = new BoardChangeSet(width, height);
+        copy.addAll(this);
+        return copy;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public boolean isEmpty() {
+        return !full && count == 0;
+    }
+
+    /**
+     * 逐格记录的格子数（整盘变化时为 0）
+     */
+    public int size() {
+        return count;
+    }
+
+    public int getX(int index) {
+        return cells[index] % width;
+    }
+
+    public int getY(int index) {
+        return cells[index] / width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
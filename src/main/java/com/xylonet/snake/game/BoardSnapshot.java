@@ -0,0 +1,71 @@
+package com.xylonet.snake.game;
+
+/**
+ * 棋盘快照：某一帧全部格子的编码副本（GameBoard.CELL_*）
+ * 由游戏循环线程在两次 update 之间填充，之后交给其他线程（渲染线程、导出任务）只读使用，
+ * 其他线程从不直接读取 GameBoard。可以反复 capture 复用同一数组
+ */
+public class BoardSnapshot {
+    public final int width;
+    public final int height;
+    public final byte[] cells;  // 行优先，下标 y * width + x
+
+    private int boardId;         // 来源棋盘编号
+    private int layoutVersion;   // 来源棋盘的障碍物布局版本
+    private int destroyedCount;  // 该布局内已被摧毁的障碍物数
+    private long tick;
+
+    public BoardSnapshot() {
+        this(GameBoard.GRID_SIZE, GameBoard.GRID_SIZE);
+    }
+
+    public BoardSnapshot(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = new byte[width * height];
+    }
+
+    /**
+     * 从棋盘复制当前状态（必须在游戏循环线程上调用）
+     */
+    public void capture(GameBoard board, long tick) {
+        board.writeCells(cells);
+        this.boardId = board.getId();
+        this.layoutVersion = board.getLayoutVersion();
+        this.destroyedCount = board.getDestroyedObstacleCount();
+        this.tick = tick;
+    }
+
+    /**
+     * 从另一个快照复制
+     */
+    public void copyFrom(BoardSnapshot other) {
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        this.boardId = other.boardId;
+        this.layoutVersion = other.layoutVersion;
+        this.destroyedCount = other.destroyedCount;
+        this.tick = other.tick;
+    }
+
+    public byte get(int x, int y) {
+        return cells[y * width + x];
+    }
+
+    /**
+     * 墙和障碍物是否与另一个快照完全相同（可复用静态层缓存）
+     */
+    public boolean sameStaticLayout(BoardSnapshot other) {
+        return other != null
+                && boardId == other.boardId
+                && layoutVersion == other.layoutVersion
+                && destroyedCount == other.destroyedCount;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getBoardId() {
+        return boardId;
+    }
+}
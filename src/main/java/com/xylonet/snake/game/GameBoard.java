@@ -1,9 +1,15 @@
 package com.xylonet.snake.game;
 
+import com.xylonet.snake.jfr.BulletUpdateEvent;
+import com.xylonet.snake.jfr.LevelGenerationEvent;
+import com.xylonet.snake.jfr.SnakeMoveEvent;
+
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 游戏板 - 64x64 网格
@@ -13,6 +19,19 @@ import java.util.Random;
 public class GameBoard {
     public static final int GRID_SIZE = 64;
 
+    // 网格单元编码（用于共享内存帧、离屏渲染等按格输出的场景）
+    public static final byte CELL_EMPTY = 0;
+    public static final byte CELL_WALL = 1;
+    public static final byte CELL_BLOCK = 2;
+    public static final byte CELL_SNAKE_BODY = 3;
+    public static final byte CELL_SNAKE_HEAD = 4;
+    public static final byte CELL_FOOD = 5;
+    public static final byte CELL_BULLET = 6;
+    public static final byte CELL_DOOR = 7;
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private final int id = NEXT_ID.incrementAndGet();  // 棋盘编号（区分重新开始后的新棋盘）
+
     private Snake snake;
     private Food food;
     private Door door;
@@ -24,8 +43,25 @@ public class GameBoard {
     private int score;           // 分数
     private long levelStartTime; // 关卡开始时间
     private boolean levelCompleted; // 是否刚刚完成关卡
+    private int foodEatenCount;  // 累计吃到的食物数
+    private int bulletHitCount;  // 累计命中障碍物的子弹数
     private static final int TIME_LIMIT = 180 * 1000; // 3 分钟 (毫秒)
 
+    // 障碍物布局变化记录（供渲染缓存等按格增量更新）
+    private int layoutVersion;   // 每次重新生成障碍物时加一
+    private int[] destroyedCells = new int[64];  // 本布局内被摧毁的障碍物格子（y * GRID_SIZE + x）
+    private int destroyedCount;
+
+    // 自上次 drainChanges 以来外观变化的格子（供增量渲染）
+    private final BoardChangeSet changes = new BoardChangeSet(GRID_SIZE, GRID_SIZE);
+
+    // 格子索引：每格当前显示的实体（CELL_*），供按格子范围查询（视口裁剪）而不遍历实体列表
+    // 与变化记录一起标记，查询时只重算标记过的格子；整盘变化时整张重建
+    private final byte[] cellIndex = new byte[GRID_SIZE * GRID_SIZE];
+    private final BoardChangeSet indexChanges = new BoardChangeSet(GRID_SIZE, GRID_SIZE);
+    private final byte[] obstacleCells = new byte[GRID_SIZE * GRID_SIZE];  // 未摧毁的墙 / 障碍物
+    private final short[] snakeCells = new short[GRID_SIZE * GRID_SIZE];   // 每格的蛇身节数
+
     /**
      * 创建游戏板
      */
@@ -46,8 +82,11 @@ public class GameBoard {
      * @param levelNumber 关卡编号
      */
     public void initializeLevel(int levelNumber) {
+        LevelGenerationEvent event = new LevelGenerationEvent();
+        event.begin();
         this.level = levelNumber;
         this.levelStartTime = System.currentTimeMillis();
+        markAll();
 
         // 创建蛇（从中心位置开始，向右）
         this.snake = new Snake(GRID_SIZE / 2, GRID_SIZE / 2, Snake.Direction.RIGHT);
@@ -73,6 +112,12 @@ public class GameBoard {
 
         // 生成边界墙和障碍物
         generateObstacles(levelNumber);
+
+        if (event.shouldCommit()) {
+            event.level = levelNumber;
+            event.obstacles = obstacles.size();
+            event.commit();
+        }
     }
 
     /**
@@ -80,6 +125,9 @@ public class GameBoard {
      */
     private void generateObstacles(int levelNumber) {
         obstacles.clear();
+        layoutVersion++;
+        destroyedCount = 0;
+        Arrays.fill(obstacleCells, CELL_EMPTY);
 
         // 生成边界墙 (9999 血)
         for (int i = 0; i < GRID_SIZE; i++) {
@@ -99,6 +147,10 @@ public class GameBoard {
                 obstacles.add(new Obstacle(pos.x, pos.y, Obstacle.Type.BLOCK));
             }
         }
+        for (Obstacle obs : obstacles) {
+            Point p = obs.getPosition();
+            obstacleCells[p.y * GRID_SIZE + p.x] = obs.getType() == Obstacle.Type.WALL ? CELL_WALL : CELL_BLOCK;
+        }
     }
 
     /**
@@ -146,12 +198,103 @@ public class GameBoard {
         return false;
     }
 
+    /**
+     * 计算以 (cx, cy) 为中心的占用位图（蛇身、障碍物、越界均视为占用）
+     * 第 (dy+radius)*(2*radius+1)+(dx+radius) 位对应 (cx+dx, cy+dy)
+     * 只遍历一次障碍物和蛇身，不逐格调用 isOccupied
+     * @param radius 窗口半径，(2*radius+1)^2 不能超过 64
+     */
+    public long getOccupancyWindow(int cx, int cy, int radius) {
+        int size = radius * 2 + 1;
+        long mask = 0L;
+
+        for (int dy = -radius; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                int x = cx + dx;
+                int y = cy + dy;
+                if (x < 0 || x >= GRID_SIZE || y < 0 || y >= GRID_SIZE) {
+                    mask |= 1L << ((dy + radius) * size + (dx + radius));
+                }
+            }
+        }
+
+        for (Obstacle obs : obstacles) {
+            if (obs.isDestroyed()) continue;
+            Point p = obs.getPosition();
+            int dx = p.x - cx;
+            int dy = p.y - cy;
+            if (Math.abs(dx) <= radius && Math.abs(dy) <= radius) {
+                mask |= 1L << ((dy + radius) * size + (dx + radius));
+            }
+        }
+
+        for (Point p : snake.getBody()) {
+            int dx = p.x - cx;
+            int dy = p.y - cy;
+            if (Math.abs(dx) <= radius && Math.abs(dy) <= radius) {
+                mask |= 1L << ((dy + radius) * size + (dx + radius));
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * 把整个棋盘按格写入数组（行优先，下标 y * GRID_SIZE + x）
+     * 覆盖顺序与 GamePanel 绘制顺序一致：障碍物、食物、子弹、门、蛇
+     * @param cells 长度至少为 GRID_SIZE * GRID_SIZE
+     */
+    public void writeCells(byte[] cells) {
+        Arrays.fill(cells, 0, GRID_SIZE * GRID_SIZE, CELL_EMPTY);
+
+        for (Obstacle obs : obstacles) {
+            if (obs.isDestroyed()) continue;
+            Point p = obs.getPosition();
+            cells[p.y * GRID_SIZE + p.x] = obs.getType() == Obstacle.Type.WALL ? CELL_WALL : CELL_BLOCK;
+        }
+
+        if (food != null && food.exists()) {
+            Point p = food.getPosition();
+            cells[p.y * GRID_SIZE + p.x] = CELL_FOOD;
+        }
+
+        for (Bullet bullet : bullets) {
+            if (!bullet.isActive() || bullet.isOutOfBounds(GRID_SIZE, GRID_SIZE)) continue;
+            Point p = bullet.getPosition();
+            cells[p.y * GRID_SIZE + p.x] = CELL_BULLET;
+        }
+
+        if (door != null && door.isVisible()) {
+            Point p = door.getPosition();
+            cells[p.y * GRID_SIZE + p.x] = CELL_DOOR;
+        }
+
+        if (snake != null && snake.isAlive()) {
+            boolean head = true;
+            for (Point p : snake.getBody()) {
+                if (p.x >= 0 && p.x < GRID_SIZE && p.y >= 0 && p.y < GRID_SIZE) {
+                    cells[p.y * GRID_SIZE + p.x] = head ? CELL_SNAKE_HEAD : CELL_SNAKE_BODY;
+                }
+                head = false;
+            }
+        }
+    }
+
     /**
      * 生成食物
      */
     public void spawnFood() {
         if (food != null) {
+            markFood();
             food.spawn(GRID_SIZE, GRID_SIZE, this::isOccupied);
+            markFood();
+        }
+    }
+
+    private void markFood() {
+        if (food.exists()) {
+            Point p = food.getPosition();
+            mark(p.x, p.y);
         }
     }
 
@@ -164,11 +307,25 @@ public class GameBoard {
         }
 
         // 移动蛇
+        SnakeMoveEvent moveEvent = new SnakeMoveEvent();
+        moveEvent.begin();
         boolean ateFood = food.exists() && food.getPosition().equals(snake.getHead());
+        Point oldHead = snake.getBody().getFirst();
+        Point oldTail = snake.getBody().getLast();
         snake.move(ateFood);
+        Point newHead = snake.getBody().getFirst();
+        mark(newHead.x, newHead.y);
+        mark(oldHead.x, oldHead.y);  // 蛇头变成蛇身
+        addSnakeCell(newHead, 1);
+        if (!ateFood) {
+            mark(oldTail.x, oldTail.y);
+            addSnakeCell(oldTail, -1);
+        }
 
         // 如果吃到食物
         if (ateFood) {
+            foodEatenCount++;
+            markFood();
             food.consume();
             score += 10;
             spawnFood();
@@ -178,9 +335,15 @@ public class GameBoard {
                 Point doorPos = findEmptyPosition();
                 if (doorPos != null) {
                     door.activate(doorPos.x, doorPos.y);
+                    mark(doorPos.x, doorPos.y);
                 }
             }
         }
+        if (moveEvent.shouldCommit()) {
+            moveEvent.snakeLength = snake.getLength();
+            moveEvent.ateFood = ateFood;
+            moveEvent.commit();
+        }
 
         // 更新子弹
         updateBullets();
@@ -200,9 +363,14 @@ public class GameBoard {
      * 更新所有子弹
      */
     private void updateBullets() {
+        BulletUpdateEvent event = new BulletUpdateEvent();
+        event.begin();
+        int bulletsBefore = bullets.size();
         List<Bullet> toRemove = new ArrayList<>();
 
         for (Bullet bullet : bullets) {
+            Point oldPos = bullet.getPosition();
+            mark(oldPos.x, oldPos.y);
             bullet.move();
 
             // 检查是否飞出边界
@@ -213,9 +381,13 @@ public class GameBoard {
 
             // 检查是否击中障碍物
             Point bulletPos = bullet.getPosition();
+            mark(bulletPos.x, bulletPos.y);
             for (Obstacle obs : obstacles) {
                 if (obs.isAt(bulletPos.x, bulletPos.y)) {
-                    obs.takeDamage(bullet.getDamage());
+                    bulletHitCount++;
+                    if (obs.takeDamage(bullet.getDamage())) {
+                        recordDestroyed(bulletPos.x, bulletPos.y);
+                    }
                     toRemove.add(bullet);
                     break;
                 }
@@ -225,6 +397,21 @@ public class GameBoard {
         // 移除失效的子弹和障碍物
         bullets.removeAll(toRemove);
         obstacles.removeIf(Obstacle::isDestroyed);
+
+        if (event.shouldCommit()) {
+            event.bulletsAlive = bulletsBefore;
+            event.bulletsRemoved = bulletsBefore - bullets.size();
+            event.obstacles = obstacles.size();
+            event.commit();
+        }
+    }
+
+    private void recordDestroyed(int x, int y) {
+        if (destroyedCount == destroyedCells.length) {
+            destroyedCells = Arrays.copyOf(destroyedCells, destroyedCount * 2);
+        }
+        destroyedCells[destroyedCount++] = y * GRID_SIZE + x;
+        obstacleCells[y * GRID_SIZE + x] = CELL_EMPTY;
     }
 
     /**
@@ -237,6 +424,7 @@ public class GameBoard {
         for (Obstacle obs : obstacles) {
             if (obs.isAt(head.x, head.y)) {
                 snake.kill();
+                markAll();  // 死亡后整条蛇不再绘制
                 return;
             }
         }
@@ -244,6 +432,7 @@ public class GameBoard {
         // 检查是否撞到自己
         if (snake.checkSelfCollision()) {
             snake.kill();
+            markAll();
             return;
         }
 
@@ -284,6 +473,7 @@ public class GameBoard {
         // 创建子弹
         Bullet bullet = new Bullet(bulletX, bulletY, direction);
         bullets.add(bullet);
+        mark(bulletX, bulletY);
         return true;
     }
 
@@ -310,8 +500,138 @@ public class GameBoard {
     public Door getDoor() { return door; }
     public List<Obstacle> getObstacles() { return obstacles; }
     public List<Bullet> getBullets() { return bullets; }
+    public int getId() { return id; }
     public int getLevel() { return level; }
     public int getScore() { return score; }
+    public int getFoodEatenCount() { return foodEatenCount; }
+    public int getBulletHitCount() { return bulletHitCount; }
+
+    /**
+     * 取出自上次调用以来外观变化的格子，并开始记录下一段
+     * 只应有一个调用方（游戏循环每帧一次）；其余外部改动（如直接修改蛇或子弹列表）不会被记录
+     */
+    public BoardChangeSet drainChanges() {
+        BoardChangeSet drained = changes.copy();
+        changes.clear();
+        return drained;
+    }
+
+    /**
+     * 标记整盘需要重绘（外部直接修改了实体时使用）
+     */
+    public void markAllChanged() {
+        markAll();
+    }
+
+    private void mark(int x, int y) {
+        changes.mark(x, y);
+        indexChanges.mark(x, y);
+    }
+
+    private void markAll() {
+        changes.markAll();
+        indexChanges.markAll();
+    }
+
+    /**
+     * 某格当前显示的实体（与 {@link #writeCells} 的结果一致）
+     * @return CELL_*；越界返回 CELL_EMPTY
+     */
+    public byte getCell(int x, int y) {
+        if (x < 0 || x >= GRID_SIZE || y < 0 || y >= GRID_SIZE) {
+            return CELL_EMPTY;
+        }
+        syncIndex();
+        return cellIndex[y * GRID_SIZE + x];
+    }
+
+    /**
+     * 把矩形范围 [minX, maxX] x [minY, maxY] 内的格子写入 dst（行优先，每行 maxX - minX + 1 个）
+     * 代价与范围面积成正比，与实体数量无关；范围必须在棋盘内
+     */
+    public void copyCells(int minX, int minY, int maxX, int maxY, byte[] dst) {
+        syncIndex();
+        int span = maxX - minX + 1;
+        for (int y = minY, offset = 0; y <= maxY; y++, offset += span) {
+            System.arraycopy(cellIndex, y * GRID_SIZE + minX, dst, offset, span);
+        }
+    }
+
+    /**
+     * 整盘格子索引（行优先，y * GRID_SIZE + x），返回前先同步变化的格子
+     * 返回的是内部数组本身，调用方只能读取，且只在下一次修改棋盘之前有效；
+     * 用于把整盘一次拷贝到别处（如共享内存帧），省去 {@link #writeCells} 的整盘重建
+     */
+    public byte[] getCellIndex() {
+        syncIndex();
+        return cellIndex;
+    }
+
+    /**
+     * 让格子索引与实体一致：只重算被标记的格子，整盘变化时整张重建
+     */
+    private void syncIndex() {
+        if (indexChanges.isFull()) {
+            writeCells(cellIndex);
+            Arrays.fill(snakeCells, (short) 0);
+            for (Point p : snake.getBody()) {
+                addSnakeCell(p, 1);
+            }
+        } else {
+            for (int i = 0; i < indexChanges.size(); i++) {
+                int x = indexChanges.getX(i);
+                int y = indexChanges.getY(i);
+                cellIndex[y * GRID_SIZE + x] = computeCell(x, y);
+            }
+        }
+        indexChanges.clear();
+    }
+
+    /**
+     * 按 writeCells 的覆盖顺序从上往下找第一个占据该格的实体：蛇、门、子弹、食物、障碍物
+     */
+    private byte computeCell(int x, int y) {
+        int cell = y * GRID_SIZE + x;
+        if (snake.isAlive() && snakeCells[cell] > 0) {
+            Point head = snake.getBody().getFirst();
+            return head.x == x && head.y == y ? CELL_SNAKE_HEAD : CELL_SNAKE_BODY;
+        }
+        if (door != null && door.isAt(x, y)) {
+            return CELL_DOOR;
+        }
+        for (Bullet bullet : bullets) {
+            if (bullet.isAt(x, y)) {
+                return CELL_BULLET;
+            }
+        }
+        if (food != null && food.isAt(x, y)) {
+            return CELL_FOOD;
+        }
+        return obstacleCells[cell];
+    }
+
+    private void addSnakeCell(Point p, int delta) {
+        if (p.x >= 0 && p.x < GRID_SIZE && p.y >= 0 && p.y < GRID_SIZE) {
+            snakeCells[p.y * GRID_SIZE + p.x] += delta;
+        }
+    }
+
+    /**
+     * 障碍物布局版本：每次生成关卡时加一，版本不变时布局只会因障碍物被摧毁而变化
+     */
+    public int getLayoutVersion() { return layoutVersion; }
+
+    /**
+     * 当前布局内已被摧毁的障碍物数
+     * 调用方记住上次读到的数量，只处理新增的部分
+     */
+    public int getDestroyedObstacleCount() { return destroyedCount; }
+
+    /**
+     * 第 index 个被摧毁的障碍物所在格子
+     * @return y * GRID_SIZE + x
+     */
+    public int getDestroyedObstacleCell(int index) { return destroyedCells[index]; }
 
     /**
      * 获取门激活进度（0.0 到 1.0）
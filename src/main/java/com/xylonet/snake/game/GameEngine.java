@@ -1,20 +1,29 @@
 package com.xylonet.snake.game;
 
-import com.xylonet.snake.ui.GamePanel;
-import com.xylonet.snake.ui.InfoPanel;
-import com.xylonet.snake.data.GameDatabase;
-
+import com.xylonet.snake.event.EventBus;
+import com.xylonet.snake.event.GameEvent;
+import com.xylonet.snake.jfr.GameTickEvent;
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.metrics.MetricsRegistry;
+import com.xylonet.snake.network.AIClient;
+import com.xylonet.snake.network.AIHint;
+import com.xylonet.snake.network.TickState;
+
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
-import java.awt.Color;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.function.Supplier;
 
 /**
  * 游戏引擎 - 30 FPS 游戏循环
  * - 定时器驱动的游戏循环
  * - 逻辑更新和渲染分离
  * - 处理游戏状态（运行、暂停、结束）
+ * - 不直接操作 UI、数据库和行为分析：状态变化和玩家操作以 {@link GameEvent} 发布到 {@link EventBus}，
+ *   由 UI、遥测、行为分析等订阅方在各自线程上批量处理
  */
 public class GameEngine {
 
@@ -30,10 +39,7 @@ public class GameEngine {
     private static final int DEFAULT_FRAME_DELAY = 1000 / DEFAULT_FPS;  // 约 33ms
 
     private GameBoard board;
-    private GamePanel gamePanel;
-    private InfoPanel infoPanel;
-    private com.xylonet.snake.ui.ProgressBarPanel progressBarPanel;
-    private com.xylonet.snake.ui.ConsolePanel consolePanel;
+    private final EventBus eventBus;
     private Timer gameTimer;
     private GameState state;
 
@@ -49,38 +55,49 @@ public class GameEngine {
     private int lastScore = -1;  // 上次显示的分数
     private int lastLength = -1;  // 上次显示的长度
     private int lastLevel = -1;  // 上次显示的关卡
+    private int lastRemainingTime = -1;  // 上次显示的剩余时间
 
-    // 数据记录
-    private GameDatabase database;
-    private int currentSessionId;  // 当前会话 ID
+    // 快照与玩家操作（只发布事件，由遥测订阅方写库）
     private long lastSnapshotTime;  // 上次快照时间
-    private static final long SNAPSHOT_INTERVAL = 5000;  // 快照间隔 5 秒
+    private static final long DEFAULT_SNAPSHOT_INTERVAL = 5000;  // 默认快照间隔 5 秒
+    private volatile long snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;  // 可在运行时通过 JMX 调整
     private Snake.Direction lastDirection;  // 上次移动方向
 
+    private int lastFoodEatenCount;  // 上一帧看到的累计吃食数
+    private int lastBulletHitCount;  // 上一帧看到的累计命中数
+
+    // AI 实时建议（不等待，过期即丢弃）
+    private Supplier<AIClient> aiClientSupplier = () -> null;
+    private long logicTick = 0;  // 逻辑帧编号（蛇每移动一次 +1）
+    private Point hintCell;  // 当前 AI 建议的下一格（只对当前逻辑帧有效，蛇移动后清除）
+    private TickState lastTickState;  // 最近发给 AI 的状态，建议以其中的蛇头为基准
+    private AIClient hintSource;  // 已设置建议监听器的客户端
+
+    // 性能指标（实例缓存在字段中，每帧只多两次 nanoTime）
+    private final LatencyHistogram tickTime = MetricsRegistry.getDefault().histogram("engine.tick");
+    private final LatencyHistogram updateTime = MetricsRegistry.getDefault().histogram("engine.update");
+    private final LatencyHistogram bulletsTime = MetricsRegistry.getDefault().histogram("engine.bullets");
+    private final LatencyHistogram aiExchangeTime = MetricsRegistry.getDefault().histogram("engine.ai_exchange");
+    private final Counter tickCount = MetricsRegistry.getDefault().counter("engine.ticks");
+
     /**
      * 创建游戏引擎
-     * @param gamePanel 游戏渲染面板
-     * @param infoPanel 信息面板
-     * @param progressBarPanel 进度条面板
-     * @param consolePanel 控制台面板
+     * @param eventBus 游戏事件总线（UI 等订阅方从这里接收状态变化）
      */
-    public GameEngine(GamePanel gamePanel, InfoPanel infoPanel, com.xylonet.snake.ui.ProgressBarPanel progressBarPanel, com.xylonet.snake.ui.ConsolePanel consolePanel) {
+    public GameEngine(EventBus eventBus) {
         this.board = new GameBoard();
-        this.gamePanel = gamePanel;
-        this.infoPanel = infoPanel;
-        this.progressBarPanel = progressBarPanel;
-        this.consolePanel = consolePanel;
+        this.eventBus = eventBus;
         this.state = GameState.READY;
         this.lastShootTime = 0;
         this.lastSnapshotTime = 0;
         this.lastDirection = null;
 
-        // 初始化数据库
-        this.database = new GameDatabase();
-
         // 初始化为速度等级 1
         setSpeedLevel(1);
 
+        MetricsRegistry.getDefault().gauge("engine.logic_tick", () -> logicTick);
+        MetricsRegistry.getDefault().gauge("engine.snake_speed_ms", () -> snakeSpeed);
+
         // 创建定时器（30 FPS，但蛇移动速度可调）
         this.gameTimer = new Timer(DEFAULT_FRAME_DELAY, new ActionListener() {
             @Override
@@ -91,35 +108,64 @@ public class GameEngine {
     }
 
     /**
-     * 游戏循环（每 33ms 调用一次）
+     * 游戏循环（每 33ms 调用一次），记录每帧耗时
      */
     private void gameLoop() {
         if (state != GameState.RUNNING) {
             return;
         }
+        GameTickEvent event = new GameTickEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long tickBefore = logicTick;
+        tick();
+        tickTime.record(System.nanoTime() - start);
+        tickCount.increment();
+        if (event.shouldCommit()) {
+            event.logicTick = logicTick;
+            event.moved = logicTick != tickBefore;
+            event.snakeLength = board.getSnake().getLength();
+            event.bulletsAlive = board.getBullets().size();
+            event.obstacles = board.getObstacles().size();
+            event.commit();
+        }
+    }
 
+    /**
+     * 一帧逻辑
+     */
+    private void tick() {
         frameCounter += DEFAULT_FRAME_DELAY;
 
         // 根据设定的速度更新蛇的位置（冲刺时使用冲刺速度）
         int currentSpeed = isSprinting ? SPRINT_SPEED : snakeSpeed;
+        long start = System.nanoTime();
         if (frameCounter >= currentSpeed) {
             frameCounter = 0;
             // 更新游戏逻辑
             board.update();
+            long updated = System.nanoTime();
+            updateTime.record(updated - start);
+            logicTick++;
+            Point head = board.getSnake().getHead();
+            eventBus.publish(new GameEvent.SnakeMoved(logicTick, head.x, head.y));
+            exchangeAIHint();
+            aiExchangeTime.record(System.nanoTime() - updated);
         } else {
             // 只更新子弹，不更新蛇
             board.updateBulletsOnly();
+            bulletsTime.record(System.nanoTime() - start);
         }
+        publishBoardEvents();
 
         // 检查关卡完成
         if (board.isLevelCompleted()) {
             state = GameState.LEVEL_COMPLETE;
             gameTimer.stop();
-            gamePanel.setOverlay("LEVEL " + (board.getLevel() - 1) + " COMPLETE!", new Color(0, 255, 100));
+            hintCell = null;
+            lastTickState = null;  // 新关卡蛇头位置变了，迟到的建议不再有效
             board.acknowledgeLevelComplete();
-            if (consolePanel != null) {
-                consolePanel.addMessage("关卡 " + (board.getLevel() - 1) + " 完成！按 SPACE 继续", com.xylonet.snake.ui.ConsolePanel.MessageType.SYSTEM);
-            }
+            eventBus.publish(new GameEvent.LevelCompleted(board.getLevel() - 1, board.getLevel()));
             System.out.println("[GameEngine] 关卡完成！进入关卡 " + board.getLevel());
             return;
         }
@@ -128,14 +174,9 @@ public class GameEngine {
         if (!board.getSnake().isAlive()) {
             state = GameState.GAME_OVER;
             gameTimer.stop();
-            gamePanel.setOverlay("GAME OVER", new Color(255, 80, 80));
-
-            // 更新会话信息
-            database.endSession(currentSessionId, board.getScore(), board.getLevel(), "died");
 
-            if (consolePanel != null) {
-                consolePanel.addMessage("游戏结束！按 R 重新开始", com.xylonet.snake.ui.ConsolePanel.MessageType.ERROR);
-            }
+            eventBus.publish(new GameEvent.GameOver(GameEvent.GameOver.Reason.DIED, board.getScore(), board.getLevel(),
+                    board.getSnake().getLength()));
             System.out.println("[GameEngine] 游戏结束！");
             return;
         }
@@ -144,60 +185,180 @@ public class GameEngine {
         if (board.isTimeUp()) {
             state = GameState.GAME_OVER;
             board.getSnake().kill();
+            board.markAllChanged();
             gameTimer.stop();
-            gamePanel.setOverlay("TIME'S UP", new Color(255, 80, 80));
 
-            // 更新会话信息
-            database.endSession(currentSessionId, board.getScore(), board.getLevel(), "timeout");
-
-            if (consolePanel != null) {
-                consolePanel.addMessage("时间到！游戏结束", com.xylonet.snake.ui.ConsolePanel.MessageType.ERROR);
-            }
+            eventBus.publish(new GameEvent.GameOver(GameEvent.GameOver.Reason.TIMEOUT, board.getScore(), board.getLevel(),
+                    board.getSnake().getLength()));
             System.out.println("[GameEngine] 时间到！游戏结束！");
             return;
         }
 
         // 定期记录游戏快照（每 5 秒）
         long currentTime = System.currentTimeMillis();
-        if (currentTime - lastSnapshotTime >= SNAPSHOT_INTERVAL) {
-            recordSnapshot();
+        if (currentTime - lastSnapshotTime >= snapshotInterval) {
+            publishSnapshot();
             lastSnapshotTime = currentTime;
         }
 
-        // 更新 UI
-        updateUI();
+        // 发布数值变化和重绘事件
+        publishChanges();
+        eventBus.publish(new GameEvent.FrameUpdated(board, logicTick, hintCell, board.drainChanges()));
+    }
+
+    /**
+     * 发布本帧的吃食、命中事件（只比较累计计数，O(1)）
+     */
+    private void publishBoardEvents() {
+        int foodEaten = board.getFoodEatenCount();
+        if (foodEaten != lastFoodEatenCount) {
+            lastFoodEatenCount = foodEaten;
+            eventBus.publish(new GameEvent.FoodEaten(foodEaten));
+        }
+        int bulletHits = board.getBulletHitCount();
+        if (bulletHits > lastBulletHitCount) {
+            eventBus.publish(new GameEvent.BulletsHit(bulletHits - lastBulletHitCount));
+        }
+        lastBulletHitCount = bulletHits;
+    }
+
+    /**
+     * 与 AI 交换实时建议：清除上一帧的建议，发布本帧状态（非阻塞，AI 不可用时直接跳过）
+     * 本帧的建议到达后由 {@link #applyHint} 立即显示
+     */
+    private void exchangeAIHint() {
+        hintCell = null;
+        lastTickState = null;
+        AIClient aiClient = aiClientSupplier.get();
+        if (aiClient != hintSource) {
+            if (hintSource != null) {
+                hintSource.setHintListener(null);
+            }
+            if (aiClient != null) {
+                aiClient.setHintListener(hint -> SwingUtilities.invokeLater(() -> applyHint(hint)));
+            }
+            hintSource = aiClient;
+        }
+        if (aiClient == null) {
+            return;
+        }
 
-        // 重绘游戏面板
-        gamePanel.render(board);
+        Snake snake = board.getSnake();
+        Point head = snake.getHead();
+        Food food = board.getFood();
+        boolean hasFood = food != null && food.exists();
+        TickState tickState = new TickState(
+                logicTick,
+                head.x,
+                head.y,
+                snake.getCurrentDirection().name(),
+                hasFood ? food.getPosition().x : -1,
+                hasFood ? food.getPosition().y : -1,
+                board.getOccupancyWindow(head.x, head.y, TickState.WINDOW_RADIUS));
+        lastTickState = tickState;
+
+        if (aiClient.isFrameRingEnabled()) {
+            // 增量维护的格子索引直接拷入共享内存槽位，每帧一次批量拷贝
+            aiClient.publishTickState(tickState, board.getCellIndex());
+        } else {
+            aiClient.publishTickState(tickState);
+        }
     }
 
     /**
-     * 更新信息面板
+     * 建议到达（EDT）：只接受应答当前逻辑帧的建议，以该帧发出的蛇头位置计算建议格并立即重绘
      */
-    private void updateUI() {
+    private void applyHint(AIHint hint) {
+        TickState answered = lastTickState;
+        if (state != GameState.RUNNING || answered == null || hint.tick != answered.tick
+                || hint.tick != logicTick || hint.direction == null) {
+            return;  // 蛇已经移动，建议过期
+        }
+        Point next = new Point(answered.headX, answered.headY);
+        switch (Snake.Direction.valueOf(hint.direction)) {
+            case UP: next.y -= 1; break;
+            case DOWN: next.y += 1; break;
+            case LEFT: next.x -= 1; break;
+            case RIGHT: next.x += 1; break;
+        }
+        if (next.equals(hintCell)) {
+            return;
+        }
+        hintCell = next;
+        eventBus.publish(new GameEvent.FrameUpdated(board, logicTick, hintCell, board.drainChanges()));
+    }
+
+    /**
+     * 设置 AI 客户端来源（每帧取一次，AI 工作进程重启后自动切换）
+     */
+    public void setAIClientSupplier(Supplier<AIClient> supplier) {
+        this.aiClientSupplier = supplier != null ? supplier : () -> null;
+    }
+
+    /**
+     * 获取当前逻辑帧编号
+     */
+    public long getLogicTick() {
+        return logicTick;
+    }
+
+    /**
+     * 发布分数、长度、关卡、剩余时间的变化（只在变化时发布）
+     */
+    private void publishChanges() {
         int currentScore = board.getScore();
+        if (currentScore != lastScore) {
+            lastScore = currentScore;
+            eventBus.publish(new GameEvent.ScoreChanged(currentScore));
+        }
         int currentLength = board.getSnake().getLength();
+        if (currentLength != lastLength) {
+            lastLength = currentLength;
+            eventBus.publish(new GameEvent.LengthChanged(currentLength));
+        }
         int currentLevel = board.getLevel();
+        if (currentLevel != lastLevel) {
+            lastLevel = currentLevel;
+            eventBus.publish(new GameEvent.LevelChanged(currentLevel));
+        }
+        int remainingTime = board.getRemainingTime();
+        if (remainingTime != lastRemainingTime) {
+            lastRemainingTime = remainingTime;
+            eventBus.publish(new GameEvent.TimeChanged(remainingTime));
+        }
+    }
 
-        // 更新 InfoPanel（保留用于兼容）
-        infoPanel.setScore(currentScore);
-        infoPanel.setLength(currentLength);
-        infoPanel.setLevel(currentLevel);
-        infoPanel.setTime(board.getRemainingTime());
-        infoPanel.setBulletCount("\u221E");  // 无限子弹
+    /**
+     * 设置快照间隔（毫秒），小于等于 0 时恢复默认值
+     */
+    public void setSnapshotInterval(long intervalMs) {
+        this.snapshotInterval = intervalMs > 0 ? intervalMs : DEFAULT_SNAPSHOT_INTERVAL;
+        System.out.println("[GameEngine] 快照间隔已设置为: " + snapshotInterval + "ms");
+    }
 
-        // 更新进度条
-        if (progressBarPanel != null) {
-            progressBarPanel.setGameBoard(board);
-        }
+    public long getSnapshotInterval() {
+        return snapshotInterval;
+    }
 
-        // 更新 Console 显示系统级别信息（只显示关卡变化）
-        if (consolePanel != null) {
-            if (currentLevel != lastLevel) {
-                consolePanel.addMessage("=== Level " + currentLevel + " ===", com.xylonet.snake.ui.ConsolePanel.MessageType.SYSTEM);
-                lastLevel = currentLevel;
-            }
-        }
+    /**
+     * 已执行的游戏循环帧数（只计 RUNNING 状态）
+     */
+    public long getTickCount() {
+        return tickCount.get();
+    }
+
+    /**
+     * 每帧耗时分布
+     */
+    public LatencyHistogram getTickTime() {
+        return tickTime;
+    }
+
+    /**
+     * 获取游戏事件总线
+     */
+    public EventBus getEventBus() {
+        return eventBus;
     }
 
     /**
@@ -207,24 +368,28 @@ public class GameEngine {
         if (state == GameState.READY || state == GameState.GAME_OVER) {
             board = new GameBoard();  // 重新初始化
             state = GameState.RUNNING;
-            gamePanel.clearOverlay();  // 清除覆盖层
-
-            // 创建新的游戏会话
-            currentSessionId = database.createSession();
+            hintCell = null;
+            lastTickState = null;  // 上一局的建议不再有效
+            lastScore = -1;  // 新会话重新发布全部数值
+            lastLength = -1;
+            lastLevel = -1;
+            lastRemainingTime = -1;
+
+            // 新会话：遥测订阅方创建数据库会话，行为订阅方重置会话特征并取消上一局的分析
             lastSnapshotTime = System.currentTimeMillis();
             lastDirection = null;
+            lastFoodEatenCount = 0;
+            lastBulletHitCount = 0;
 
             gameTimer.start();
-            if (consolePanel != null) {
-                consolePanel.addMessage("游戏开始！", com.xylonet.snake.ui.ConsolePanel.MessageType.SYSTEM);
-            }
-            System.out.println("[GameEngine] 游戏开始！会话 ID: " + currentSessionId);
+            eventBus.publish(new GameEvent.GameStarted());
+            System.out.println("[GameEngine] 游戏开始！");
         } else if (state == GameState.PAUSED) {
             resume();
         } else if (state == GameState.LEVEL_COMPLETE) {
             state = GameState.RUNNING;
-            gamePanel.clearOverlay();
             gameTimer.start();
+            eventBus.publish(new GameEvent.LevelStarted(board.getLevel()));
         }
     }
 
@@ -235,9 +400,7 @@ public class GameEngine {
         if (state == GameState.RUNNING) {
             state = GameState.PAUSED;
             gameTimer.stop();
-            if (consolePanel != null) {
-                consolePanel.addMessage("游戏暂停", com.xylonet.snake.ui.ConsolePanel.MessageType.WARNING);
-            }
+            eventBus.publish(new GameEvent.GamePaused());
             System.out.println("[GameEngine] 游戏暂停");
         }
     }
@@ -249,9 +412,7 @@ public class GameEngine {
         if (state == GameState.PAUSED) {
             state = GameState.RUNNING;
             gameTimer.start();
-            if (consolePanel != null) {
-                consolePanel.addMessage("游戏继续", com.xylonet.snake.ui.ConsolePanel.MessageType.SYSTEM);
-            }
+            eventBus.publish(new GameEvent.GameResumed());
             System.out.println("[GameEngine] 游戏恢复");
         }
     }
@@ -274,9 +435,7 @@ public class GameEngine {
         gameTimer.stop();
         board = new GameBoard();
         state = GameState.READY;
-        if (consolePanel != null) {
-            consolePanel.addMessage("游戏重置", com.xylonet.snake.ui.ConsolePanel.MessageType.SYSTEM);
-        }
+        eventBus.publish(new GameEvent.GameReset());
         System.out.println("[GameEngine] 游戏重置");
         start();
     }
@@ -288,11 +447,12 @@ public class GameEngine {
         if (state == GameState.RUNNING) {
             board.getSnake().setDirection(direction);
 
-            // 记录方向改变
+            // 发布方向改变
             if (direction != lastDirection) {
                 Point headPos = board.getSnake().getHead();
-                database.recordAction(currentSessionId, "direction_change", headPos.x, headPos.y, direction.name());
                 lastDirection = direction;
+                eventBus.publish(new GameEvent.DirectionChanged(direction.name(), headPos.x, headPos.y,
+                        board.getSnake().getLength()));
             }
         }
     }
@@ -315,9 +475,9 @@ public class GameEngine {
         if (board.shootBullet(direction)) {
             lastShootTime = currentTime;
 
-            // 记录射击事件
+            // 发布射击事件
             Point headPos = board.getSnake().getHead();
-            database.recordShooting(currentSessionId, headPos.x, headPos.y, direction.name());
+            eventBus.publish(new GameEvent.ShotFired(direction.name(), headPos.x, headPos.y));
         }
     }
 
@@ -433,24 +593,24 @@ public class GameEngine {
     }
 
     /**
-     * 记录游戏快照
+     * 发布游戏快照
      */
-    private void recordSnapshot() {
-        Point headPos = board.getSnake().getHead();
-        int snakeLength = board.getSnake().getLength();
+    private void publishSnapshot() {
+        Snake snake = board.getSnake();
+        Point headPos = snake.getHead();
         int obstacleCount = (int) board.getObstacles().stream()
                 .filter(o -> !o.isDestroyed())
                 .count();
+        Food food = board.getFood();
+        double distanceToFood = food != null && food.exists() ? headPos.distance(food.getPosition()) : -1;
 
-        database.recordSnapshot(
-                currentSessionId,
+        eventBus.publish(new GameEvent.GameSnapshot(
                 headPos.x,
                 headPos.y,
-                snakeLength,
-                board.getScore(),
-                board.getLevel(),
-                board.getRemainingTime(),
-                obstacleCount
-        );
+                snake.getLength(),
+                snake.getCurrentDirection().name(),
+                obstacleCount,
+                distanceToFood
+        ));
     }
 }
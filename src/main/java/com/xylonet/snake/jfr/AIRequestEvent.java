@@ -0,0 +1,21 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次等待应答的 AI 请求
+ */
+@Name("xylonet.AIRequest")
+@Label("AI Request")
+@Category({"Xylonet Snake", "AI"})
+@Description("AIClient 发送请求到收到应答（或超时）的耗时")
+public class AIRequestEvent extends jdk.jfr.Event {
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,28 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次子弹更新（移动、越界、命中障碍物）
+ */
+@Name("xylonet.BulletUpdate")
+@Label("Bullet Update")
+@Category({"Xylonet Snake", "Engine"})
+@Description("更新所有子弹的耗时")
+@StackTrace(false)
+public class BulletUpdateEvent extends jdk.jfr.Event {
+    @Label("Bullets Alive")
+    @Description("更新前的子弹数")
+    public int bulletsAlive;
+
+    @Label("Bullets Removed")
+    public int bulletsRemoved;
+
+    @Label("Obstacles")
+    @Description("更新后的障碍物数（含边界墙）")
+    public int obstacles;
+}
@@ -0,0 +1,25 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 遥测写入器提交一批数据（一个事务）
+ */
+@Name("xylonet.DbFlush")
+@Label("DB Batch Flush")
+@Category({"Xylonet Snake", "Database"})
+@Description("TelemetryWriter 提交一批数据的耗时")
+public class DbFlushEvent extends jdk.jfr.Event {
+    @Label("Rows Written")
+    public int rows;
+
+    @Label("Statements")
+    @Description("本批不同 SQL 的数量（每种一次 executeBatch）")
+    public int statements;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,138 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 飞行记录控制
+ * - 配置 = JDK 自带的 default 配置 + 随项目提供的 xylonet.jfc（游戏事件阈值、GC/IO/锁等卡顿相关事件）
+ * - 可通过控制台 /jfr start|stop 或启动参数 -Dxylonet.jfr=文件路径 开始记录
+ * - 未记录时游戏事件的开销只有一次 shouldCommit() 判断
+ */
+public final class FlightRecorderControl {
+    public static final String STARTUP_PROPERTY = "xylonet.jfr";
+    private static final String PROFILE_RESOURCE = "/jfr/xylonet.jfc";
+    private static final String PROFILE_FILE = "src/main/resources/jfr/xylonet.jfc";
+
+    private static Recording recording;
+    private static Path destination;
+
+    private FlightRecorderControl() {
+    }
+
+    /**
+     * 开始记录，停止时写入 output
+     * 已在记录时先停止并写出之前的记录
+     */
+    public static synchronized void start(Path output) throws IOException {
+        if (recording != null) {
+            stop();
+        }
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Recording newRecording = new Recording(loadSettings());
+        newRecording.setName("xylonet");
+        newRecording.setToDisk(true);
+        newRecording.setDestination(output);
+        newRecording.start();
+        recording = newRecording;
+        destination = output;
+        System.out.println("[JFR] 开始记录: " + output);
+    }
+
+    /**
+     * 停止记录并写出文件
+     * @return 写出的文件；未在记录时返回 null
+     */
+    public static synchronized Path stop() {
+        if (recording == null) {
+            return null;
+        }
+        Path written = destination;
+        recording.stop();  // 设置了 destination，stop 时自动写出
+        recording.close();
+        recording = null;
+        destination = null;
+        System.out.println("[JFR] 记录已写出: " + written);
+        return written;
+    }
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    public static synchronized String status() {
+        if (recording == null) {
+            return "未在记录";
+        }
+        long seconds = Duration.between(recording.getStartTime(), Instant.now()).getSeconds();
+        return "记录中: " + destination + "，已 " + seconds + " 秒";
+    }
+
+    /**
+     * 启动时检查 -Dxylonet.jfr，设置了则开始记录，并在退出时写出
+     */
+    public static void startFromSystemProperty() {
+        String file = System.getProperty(STARTUP_PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return;
+        }
+        try {
+            start(Paths.get(file));
+            Runtime.getRuntime().addShutdownHook(new Thread(FlightRecorderControl::stop, "jfr-dump"));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[JFR] 无法开始记录: " + e.getMessage());
+        }
+    }
+
+    /**
+     * default 配置叠加项目配置
+     * 项目配置优先从 classpath 读取，找不到时读取源码目录中的文件（直接用 javac 编译时资源不在 classpath 上）
+     */
+    static Map<String, String> loadSettings() throws IOException {
+        Map<String, String> settings = new HashMap<>();
+        try {
+            settings.putAll(Configuration.getConfiguration("default").getSettings());
+        } catch (ParseException e) {
+            System.err.println("[JFR] 读取 default 配置失败: " + e.getMessage());
+        }
+        try (Reader reader = openProfile()) {
+            if (reader != null) {
+                settings.putAll(Configuration.create(reader).getSettings());
+            } else {
+                System.err.println("[JFR] 未找到 xylonet.jfc，只使用 default 配置");
+            }
+        } catch (ParseException e) {
+            throw new IOException("xylonet.jfc 格式错误: " + e.getMessage(), e);
+        }
+        return settings;
+    }
+
+    private static Reader openProfile() throws IOException {
+        InputStream in = FlightRecorderControl.class.getResourceAsStream(PROFILE_RESOURCE);
+        if (in != null) {
+            return new InputStreamReader(in, StandardCharsets.UTF_8);
+        }
+        Path file = Paths.get(System.getProperty("user.dir"), PROFILE_FILE);
+        if (Files.isRegularFile(file)) {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+}
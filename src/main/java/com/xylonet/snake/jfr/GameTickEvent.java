@@ -0,0 +1,33 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一帧游戏循环（含逻辑更新、AI 交换、事件发布）
+ */
+@Name("xylonet.GameTick")
+@Label("Game Tick")
+@Category({"Xylonet Snake", "Engine"})
+@Description("一帧游戏循环的耗时")
+@StackTrace(false)
+public class GameTickEvent extends jdk.jfr.Event {
+    @Label("Logic Tick")
+    public long logicTick;
+
+    @Label("Snake Moved")
+    @Description("本帧蛇是否移动（否则只更新子弹）")
+    public boolean moved;
+
+    @Label("Snake Length")
+    public int snakeLength;
+
+    @Label("Bullets Alive")
+    public int bulletsAlive;
+
+    @Label("Obstacles")
+    public int obstacles;
+}
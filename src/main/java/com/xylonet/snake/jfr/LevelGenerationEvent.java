@@ -0,0 +1,21 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 生成一个关卡（蛇、食物、门、障碍物）
+ */
+@Name("xylonet.LevelGeneration")
+@Label("Level Generation")
+@Category({"Xylonet Snake", "Engine"})
+@Description("初始化关卡的耗时")
+public class LevelGenerationEvent extends jdk.jfr.Event {
+    @Label("Level")
+    public int level;
+
+    @Label("Obstacles")
+    public int obstacles;
+}
@@ -0,0 +1,29 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次游戏面板绘制（EDT）
+ */
+@Name("xylonet.RenderPass")
+@Label("Render Pass")
+@Category({"Xylonet Snake", "Render"})
+@Description("GamePanel 一次绘制的耗时")
+@StackTrace(false)
+public class RenderPassEvent extends jdk.jfr.Event {
+    @Label("Snake Length")
+    public int snakeLength;
+
+    @Label("Bullets")
+    public int bullets;
+
+    @Label("Obstacles")
+    public int obstacles;
+
+    @Label("Overlay")
+    public boolean overlay;
+}
@@ -0,0 +1,23 @@
+package com.xylonet.snake.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 蛇移动一步（含吃食、重新生成食物、激活门）
+ */
+@Name("xylonet.SnakeMove")
+@Label("Snake Move")
+@Category({"Xylonet Snake", "Engine"})
+@Description("蛇移动一步及吃食处理的耗时")
+@StackTrace(false)
+public class SnakeMoveEvent extends jdk.jfr.Event {
+    @Label("Snake Length")
+    public int snakeLength;
+
+    @Label("Ate Food")
+    public boolean ateFood;
+}
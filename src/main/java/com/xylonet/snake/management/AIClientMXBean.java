@@ -0,0 +1,44 @@
+package com.xylonet.snake.management;
+
+/**
+ * AI 客户端管理接口
+ */
+public interface AIClientMXBean {
+
+    String getConnectionState();
+
+    /**
+     * 等待应答的请求数
+     */
+    int getPendingRequests();
+
+    long getHintDeadlineMs();
+
+    void setHintDeadlineMs(long deadlineMs);
+
+    long getHintsPublished();
+
+    long getHintsCoalesced();
+
+    double getHintMissRate();
+
+    double getHintP99Millis();
+
+    long getRequestTimeouts();
+
+    boolean isFrameRingEnabled();
+
+    boolean isCapturing();
+
+    /**
+     * 开始抓包
+     * @return 失败时返回错误信息，成功返回 null
+     */
+    String startCapture(String path);
+
+    /**
+     * 结束抓包
+     * @return 记录的消息数，未在抓包时返回 -1
+     */
+    long stopCapture();
+}
@@ -0,0 +1,87 @@
+package com.xylonet.snake.management;
+
+import com.xylonet.snake.network.AIClient;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * AIClient 的 JMX 适配
+ */
+public class AIClientMonitor implements AIClientMXBean {
+    private final AIClient client;
+
+    public AIClientMonitor(AIClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public String getConnectionState() {
+        return client.getConnectionState().name();
+    }
+
+    @Override
+    public int getPendingRequests() {
+        return client.getPendingRequestCount();
+    }
+
+    @Override
+    public long getHintDeadlineMs() {
+        return client.getHintChannel().getDeadlineMs();
+    }
+
+    @Override
+    public void setHintDeadlineMs(long deadlineMs) {
+        client.getHintChannel().setDeadlineMs(deadlineMs);
+    }
+
+    @Override
+    public long getHintsPublished() {
+        return client.getHintChannel().getPublishedCount();
+    }
+
+    @Override
+    public long getHintsCoalesced() {
+        return client.getHintChannel().getCoalescedCount();
+    }
+
+    @Override
+    public double getHintMissRate() {
+        return client.getHintChannel().getMissRate();
+    }
+
+    @Override
+    public double getHintP99Millis() {
+        return client.getHintChannel().getLatencyHistogram().getValueAtPercentile(99) / 1e6;
+    }
+
+    @Override
+    public long getRequestTimeouts() {
+        return client.getTimeoutCount();
+    }
+
+    @Override
+    public boolean isFrameRingEnabled() {
+        return client.isFrameRingEnabled();
+    }
+
+    @Override
+    public boolean isCapturing() {
+        return client.isCapturing();
+    }
+
+    @Override
+    public String startCapture(String path) {
+        try {
+            client.startCapture(Paths.get(path));
+            return null;
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Override
+    public long stopCapture() {
+        return client.stopCapture();
+    }
+}
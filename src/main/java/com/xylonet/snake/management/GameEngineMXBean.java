@@ -0,0 +1,53 @@
+package com.xylonet.snake.management;
+
+/**
+ * 游戏引擎管理接口
+ */
+public interface GameEngineMXBean {
+
+    String getState();
+
+    long getLogicTick();
+
+    /**
+     * 最近一个采样窗口（约 1 秒）内的帧率
+     */
+    double getTicksPerSecond();
+
+    double getTickP50Micros();
+
+    double getTickP99Micros();
+
+    double getTickMaxMicros();
+
+    int getSpeedLevel();
+
+    void setSpeedLevel(int level);
+
+    /**
+     * 蛇移动间隔（毫秒），即逻辑 tick 周期
+     */
+    int getSnakeSpeedMs();
+
+    void setSnakeSpeedMs(int speedMs);
+
+    long getSnapshotIntervalMs();
+
+    void setSnapshotIntervalMs(long intervalMs);
+
+    /**
+     * 所有事件订阅队列中尚未处理的事件数
+     */
+    int getEventQueueDepth();
+
+    long getDroppedEventCount();
+
+    void pause();
+
+    void resume();
+
+    /**
+     * 清空全部计数器和直方图（不只 engine.*）
+     */
+    void resetMetrics();
+}
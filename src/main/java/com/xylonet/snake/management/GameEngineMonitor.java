@@ -0,0 +1,125 @@
+package com.xylonet.snake.management;
+
+import com.xylonet.snake.event.EventBus;
+import com.xylonet.snake.game.GameEngine;
+import com.xylonet.snake.metrics.MetricsRegistry;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * GameEngine 的 JMX 适配
+ * 引擎状态属于 EDT：读取直接进行（仅用于观察），修改一律转到 EDT 执行
+ */
+public class GameEngineMonitor implements GameEngineMXBean {
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    private final GameEngine engine;
+    private long sampleTicks;
+    private long sampleNanos = System.nanoTime();
+    private double ticksPerSecond;
+
+    public GameEngineMonitor(GameEngine engine) {
+        this.engine = engine;
+        this.sampleTicks = engine.getTickCount();
+    }
+
+    @Override
+    public String getState() {
+        return engine.getState().name();
+    }
+
+    @Override
+    public long getLogicTick() {
+        return engine.getLogicTick();
+    }
+
+    @Override
+    public synchronized double getTicksPerSecond() {
+        long now = System.nanoTime();
+        if (now - sampleNanos >= RATE_WINDOW_NANOS) {
+            long ticks = engine.getTickCount();
+            ticksPerSecond = (ticks - sampleTicks) * 1e9 / (now - sampleNanos);
+            sampleTicks = ticks;
+            sampleNanos = now;
+        }
+        return ticksPerSecond;
+    }
+
+    @Override
+    public double getTickP50Micros() {
+        return engine.getTickTime().getValueAtPercentile(50) / 1e3;
+    }
+
+    @Override
+    public double getTickP99Micros() {
+        return engine.getTickTime().getValueAtPercentile(99) / 1e3;
+    }
+
+    @Override
+    public double getTickMaxMicros() {
+        return engine.getTickTime().getMax() / 1e3;
+    }
+
+    @Override
+    public int getSpeedLevel() {
+        return engine.getSpeedLevel();
+    }
+
+    @Override
+    public void setSpeedLevel(int level) {
+        SwingUtilities.invokeLater(() -> engine.setSpeedLevel(level));
+    }
+
+    @Override
+    public int getSnakeSpeedMs() {
+        return engine.getSnakeSpeed();
+    }
+
+    @Override
+    public void setSnakeSpeedMs(int speedMs) {
+        SwingUtilities.invokeLater(() -> engine.setSnakeSpeed(speedMs));
+    }
+
+    @Override
+    public long getSnapshotIntervalMs() {
+        return engine.getSnapshotInterval();
+    }
+
+    @Override
+    public void setSnapshotIntervalMs(long intervalMs) {
+        engine.setSnapshotInterval(intervalMs);
+    }
+
+    @Override
+    public int getEventQueueDepth() {
+        int depth = 0;
+        for (EventBus.Subscription subscription : engine.getEventBus().getSubscriptions()) {
+            depth += subscription.getQueueSize();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getDroppedEventCount() {
+        long dropped = 0;
+        for (EventBus.Subscription subscription : engine.getEventBus().getSubscriptions()) {
+            dropped += subscription.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    @Override
+    public void pause() {
+        SwingUtilities.invokeLater(engine::pause);
+    }
+
+    @Override
+    public void resume() {
+        SwingUtilities.invokeLater(engine::resume);
+    }
+
+    @Override
+    public void resetMetrics() {
+        MetricsRegistry.getDefault().reset();
+    }
+}
@@ -0,0 +1,56 @@
+package com.xylonet.snake.management;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * JMX 注册工具
+ * 所有 MBean 注册在平台 MBeanServer 的 com.xylonet.snake 域下，可用 jconsole / VisualVM 查看和调用
+ */
+public final class ManagementSupport {
+    public static final String DOMAIN = "com.xylonet.snake";
+
+    private ManagementSupport() {
+    }
+
+    /**
+     * 注册 MBean，同名已存在时替换（例如 AI 工作进程重启后）
+     * @param type ObjectName 的 type 键，例如 GameEngine
+     * @param name ObjectName 的 name 键，为 null 时省略
+     * @return 注册成功时返回 true；失败只打印日志，不影响游戏
+     */
+    public static boolean register(String type, String name, Object mbean) {
+        try {
+            ObjectName objectName = objectName(type, name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+            return true;
+        } catch (JMException e) {
+            System.err.println("[JMX] 注册 " + type + " 失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 注销 MBean（不存在时忽略）
+     */
+    public static void unregister(String type, String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(type, name));
+        } catch (InstanceNotFoundException ignored) {
+            // 已注销
+        } catch (JMException e) {
+            System.err.println("[JMX] 注销 " + type + " 失败: " + e.getMessage());
+        }
+    }
+
+    public static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + (name != null ? ",name=" + ObjectName.quote(name) : ""));
+    }
+}
@@ -0,0 +1,41 @@
+package com.xylonet.snake.management;
+
+/**
+ * 遥测写入器管理接口
+ */
+public interface TelemetryWriterMXBean {
+
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    /**
+     * 刷新策略：攒满多少行提交一次
+     */
+    int getBatchSize();
+
+    void setBatchSize(int batchSize);
+
+    /**
+     * 刷新策略：第一行最多等待多久提交（毫秒）
+     */
+    long getMaxDelayMs();
+
+    void setMaxDelayMs(long maxDelayMs);
+
+    long getRowsWritten();
+
+    long getFlushCount();
+
+    long getErrorCount();
+
+    long getDroppedCount();
+
+    double getFlushP99Millis();
+
+    /**
+     * 立即提交队列中的数据
+     * @return 在超时前完成时返回 true
+     */
+    boolean flush();
+}
@@ -0,0 +1,74 @@
+package com.xylonet.snake.management;
+
+import com.xylonet.snake.data.TelemetryWriter;
+
+/**
+ * TelemetryWriter 的 JMX 适配（写入器本身线程安全，直接转发）
+ */
+public class TelemetryWriterMonitor implements TelemetryWriterMXBean {
+    private final TelemetryWriter writer;
+
+    public TelemetryWriterMonitor(TelemetryWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return writer.getQueueDepth();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return writer.getQueueCapacity();
+    }
+
+    @Override
+    public int getBatchSize() {
+        return writer.getBatchSize();
+    }
+
+    @Override
+    public void setBatchSize(int batchSize) {
+        writer.setBatchSize(batchSize);
+    }
+
+    @Override
+    public long getMaxDelayMs() {
+        return writer.getMaxDelayMs();
+    }
+
+    @Override
+    public void setMaxDelayMs(long maxDelayMs) {
+        writer.setMaxDelayMs(maxDelayMs);
+    }
+
+    @Override
+    public long getRowsWritten() {
+        return writer.getRowsWritten();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return writer.getFlushCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return writer.getErrorCount();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return writer.getDroppedCount();
+    }
+
+    @Override
+    public double getFlushP99Millis() {
+        return writer.getFlushTime().getValueAtPercentile(99) / 1e6;
+    }
+
+    @Override
+    public boolean flush() {
+        return writer.flush();
+    }
+}
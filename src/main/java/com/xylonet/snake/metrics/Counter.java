@@ -0,0 +1,31 @@
+package com.xylonet.snake.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单调递增计数器（LongAdder，多线程自增无竞争）
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long delta) {
+        value.add(delta);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    public void reset() {
+        value.reset();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
@@ -0,0 +1,28 @@
+package com.xylonet.snake.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 瞬时值指标
+ * 读取时才调用 supplier 取值，被测代码不需要做任何额外工作
+ */
+public class Gauge {
+    private final LongSupplier supplier;
+
+    public Gauge(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    public long get() {
+        try {
+            return supplier.getAsLong();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
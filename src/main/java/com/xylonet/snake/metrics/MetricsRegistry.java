@@ -0,0 +1,96 @@
+package com.xylonet.snake.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内指标注册表
+ * - 计数器、瞬时值、延迟直方图按名称注册，同名返回同一个实例
+ * - 热路径上应在字段中缓存指标实例，只在初始化时按名称查找
+ * - 记录操作全部无锁，读取（/perf）时才汇总
+ *
+ * 命名约定：模块.指标，例如 engine.tick、render.paint、db.write、ai.rtt
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * 全局注册表
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * 注册瞬时值（同名时替换为新的 supplier，例如引擎重建后）
+     */
+    public Gauge gauge(String name, LongSupplier supplier) {
+        Gauge gauge = new Gauge(supplier);
+        gauges.put(name, gauge);
+        return gauge;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public Map<String, Counter> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    public Map<String, Gauge> getGauges() {
+        return new TreeMap<>(gauges);
+    }
+
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * 清空计数器和直方图（瞬时值不受影响）
+     */
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * 生成报告，每个指标一行
+     * @param prefix 只包含以此开头的指标，null 或空串表示全部
+     */
+    public List<String> report(String prefix) {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            if (matches(entry.getKey(), prefix) && entry.getValue().getCount() > 0) {
+                lines.add(entry.getKey() + ": " + entry.getValue().summary());
+            }
+        }
+        for (Map.Entry<String, Counter> entry : getCounters().entrySet()) {
+            if (matches(entry.getKey(), prefix)) {
+                lines.add(entry.getKey() + " = " + entry.getValue().get());
+            }
+        }
+        for (Map.Entry<String, Gauge> entry : getGauges().entrySet()) {
+            if (matches(entry.getKey(), prefix)) {
+                lines.add(entry.getKey() + " = " + entry.getValue().get());
+            }
+        }
+        return lines;
+    }
+
+    private static boolean matches(String name, String prefix) {
+        return prefix == null || prefix.isEmpty() || name.startsWith(prefix);
+    }
+}
@@ -2,50 +2,67 @@ package com.xylonet.snake.network;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.xylonet.snake.analysis.BehaviorFeatures;
+import com.xylonet.snake.jfr.AIRequestEvent;
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.metrics.MetricsRegistry;
 
 import java.io.*;
-import java.net.Socket;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 /**
  * AI服务Socket客户端
  * 负责与Python AI服务进行双向通信
+ * - 连接生命周期（断线检测、退避重连、熔断）由 {@link AIConnectionManager} 负责
+ * - 服务端按请求顺序逐条应答，响应按 FIFO 匹配到等待中的请求
+ * - 可选共享内存帧通道：整盘数据走 {@link BoardFrameRing}，Socket 只传控制消息
  */
-public class AIClient {
-    private Socket socket;
-    private BufferedReader reader;
-    private PrintWriter writer;
+public class AIClient implements AnalysisService {
     private final Gson gson;
     private final ExecutorService executorService;
-    private boolean connected = false;
+    private final AIConnectionManager connectionManager;
+    private final Queue<CompletableFuture<String>> pendingResponses = new ConcurrentLinkedQueue<>();
+    private final RealtimeHintChannel hintChannel = new RealtimeHintChannel();
+    private final ExecutorService hintExecutor;
+    private volatile BoardFrameRing frameRing;
+    private volatile TrafficCapture capture;
+    private final LatencyHistogram roundTripTime = MetricsRegistry.getDefault().histogram("ai.rtt");  // 所有客户端共享
+    private final Counter timeoutCount = MetricsRegistry.getDefault().counter("ai.timeouts");
 
     public AIClient() {
         this.gson = new Gson();
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.executorService = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ai-client");
+            t.setDaemon(true);
+            return t;
+        });
+        // 实时建议单独一个发送线程，不会被耗时的分析请求拖住
+        this.hintExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ai-hint");
+            t.setDaemon(true);
+            return t;
+        });
+        this.connectionManager = new AIConnectionManager(this::onMessage, this::onDisconnected);
     }
 
     /**
      * 连接到AI服务
+     * 首次连接失败时会在后台继续退避重连
      */
     public boolean connect(String host, int port) {
-        try {
-            System.out.println("[AIClient] 连接到 " + host + ":" + port);
-
-            socket = new Socket(host, port);
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
-
-            connected = true;
-            System.out.println("[AIClient] 连接成功");
+        System.out.println("[AIClient] 连接到 " + host + ":" + port);
 
-            // 发送初始心跳
-            return sendPing();
-
-        } catch (IOException e) {
-            System.err.println("[AIClient] 连接失败: " + e.getMessage());
+        if (!connectionManager.connect(host, port)) {
             return false;
         }
+
+        // 发送初始心跳
+        return sendPing();
     }
 
     /**
@@ -83,15 +100,18 @@ public class AIClient {
 
     /**
      * 请求玩家行为分析
-     * @param dataPoints 已收集的数据点数量
+     * 特征随请求一起发送，分析耗时与历史数据量无关
+     * @param features 在线提取的行为特征
      * @return 分析结果（包含MBTI等信息）
      */
-    public CompletableFuture<AnalysisResult> requestAnalysis(int dataPoints) {
+    @Override
+    public CompletableFuture<AnalysisResult> requestAnalysis(BehaviorFeatures features) {
         return CompletableFuture.supplyAsync(() -> {
             JsonObject message = new JsonObject();
             message.addProperty("type", "REQUEST_ANALYSIS");
             message.addProperty("timestamp", System.currentTimeMillis());
-            message.addProperty("data_points", dataPoints);
+            message.addProperty("data_points", features.totalActions);
+            message.add("features", toJson(features));
 
             try {
                 String response = sendAndReceive(message, 5000);
@@ -107,53 +127,311 @@ public class AIClient {
     }
 
     /**
-     * 发送消息并等待响应
+     * 发布当前逻辑帧的紧凑状态（游戏循环调用，绝不阻塞）
+     * 发送线程只发送最新状态；AI 返回的建议交给 {@link #setHintListener} 设置的监听器
      */
-    private String sendAndReceive(JsonObject message, long timeoutMs) throws IOException, TimeoutException {
-        if (!connected) {
-            throw new IOException("未连接到AI服务");
+    public void publishTickState(TickState state) {
+        if (connectionManager.getState() != ConnectionState.CONNECTED) {
+            return;
+        }
+        if (hintChannel.publish(state)) {
+            hintExecutor.execute(this::flushTickState);
+        }
+    }
+
+    /**
+     * 发布当前逻辑帧，并把整盘单元格写入共享内存帧（游戏循环调用）
+     * 未启用共享内存帧时等同于 {@link #publishTickState(TickState)}
+     * @param cells 行优先的单元格数组，写入开销为一次批量拷贝
+     */
+    public void publishTickState(TickState state, byte[] cells) {
+        BoardFrameRing ring = frameRing;
+        if (ring == null || cells == null) {
+            publishTickState(state);
+            return;
+        }
+        if (connectionManager.getState() != ConnectionState.CONNECTED) {
+            return;
         }
+        long frame = ring.write(state.tick, cells);
+        if (hintChannel.publish(state.withFrame(frame))) {
+            hintExecutor.execute(this::flushTickState);
+        }
+    }
 
-        // 发送消息
-        String jsonMessage = gson.toJson(message);
-        writer.println(jsonMessage);
+    /**
+     * 创建共享内存帧文件并通知 AI 服务挂载
+     * 服务端确认后，{@link #publishTickState(TickState, byte[])} 改为写共享内存
+     * @return 服务端确认挂载时返回 true；失败时保持 Socket 传输
+     */
+    public boolean enableFrameRing(Path path, int width, int height) {
+        BoardFrameRing ring;
+        try {
+            ring = new BoardFrameRing(path, width, height);
+        } catch (IOException e) {
+            System.err.println("[AIClient] 创建共享内存帧失败: " + e.getMessage());
+            return false;
+        }
+
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "RING_ATTACH");
+        message.addProperty("path", path.toAbsolutePath().toString());
+        message.addProperty("width", width);
+        message.addProperty("height", height);
 
-        // 等待响应
-        Future<String> future = executorService.submit(() -> {
+        try {
+            String response = sendAndReceive(message, 2000);
+            JsonObject responseObj = response != null ? gson.fromJson(response, JsonObject.class) : null;
+            if (responseObj != null && "RING_ATTACHED".equals(responseObj.get("type").getAsString())
+                    && responseObj.has("ok") && responseObj.get("ok").getAsBoolean()) {
+                closeFrameRing();
+                frameRing = ring;
+                System.out.println("[AIClient] 共享内存帧已启用: " + path);
+                return true;
+            }
+            System.err.println("[AIClient] AI服务拒绝挂载共享内存帧");
+        } catch (Exception e) {
+            System.err.println("[AIClient] 挂载共享内存帧失败: " + e.getMessage());
+        }
+
+        try {
+            ring.close();
+        } catch (IOException e) {
+            // 忽略关闭错误
+        }
+        return false;
+    }
+
+    /**
+     * 是否已启用共享内存帧
+     */
+    public boolean isFrameRingEnabled() {
+        return frameRing != null;
+    }
+
+    private void closeFrameRing() {
+        BoardFrameRing ring = frameRing;
+        frameRing = null;
+        if (ring != null) {
             try {
-                return reader.readLine();
+                ring.close();
             } catch (IOException e) {
-                throw new RuntimeException(e);
+                // 忽略关闭错误
             }
-        });
+        }
+    }
+
+    private void flushTickState() {
+        JsonObject message = hintChannel.takeMessage();
+        if (message == null) {
+            return;
+        }
+        try {
+            send(connectionManager.acquire(), gson.toJson(message));
+        } catch (IOException e) {
+            // 断线期间丢弃，连接管理器负责重连
+        }
+    }
+
+    /**
+     * 设置建议监听器：在截止时间内到达的建议立即交给它（在读线程上调用），null 表示移除
+     */
+    public void setHintListener(Consumer<AIHint> listener) {
+        hintChannel.setHintListener(listener);
+    }
+
+    /**
+     * 实时建议通道（截止时间配置、延迟直方图、未命中率）
+     */
+    public RealtimeHintChannel getHintChannel() {
+        return hintChannel;
+    }
+
+    /**
+     * 等待应答的请求数（含异步消息的占位）
+     */
+    public int getPendingRequestCount() {
+        return pendingResponses.size();
+    }
+
+    /**
+     * 请求等待应答超时的次数（所有客户端合计）
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
 
+    /**
+     * 发送消息并等待响应
+     * 未连接或熔断打开时立即失败，不等待超时
+     */
+    private String sendAndReceive(JsonObject message, long timeoutMs) throws IOException, TimeoutException {
+        AIConnectionManager.Connection connection = connectionManager.acquire();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        AIRequestEvent event = new AIRequestEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        // 入队与写入必须原子，保证 FIFO 顺序与服务端应答顺序一致
+        synchronized (pendingResponses) {
+            pendingResponses.add(future);
+            send(connection, gson.toJson(message));
+        }
+
+        boolean success = false;
         try {
-            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            future.cancel(true);
+            String response = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            roundTripTime.record(System.nanoTime() - start);
+            connectionManager.reportSuccess();
+            success = true;
+            return response;
+        } catch (TimeoutException e) {
+            // 迟到的响应仍会被该 future 吸收，不会错位到后续请求
+            timeoutCount.increment();
+            connectionManager.reportFailure(connection);
             throw new TimeoutException("等待响应超时");
+        } catch (ExecutionException e) {
+            throw new IOException("连接已断开", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待响应被中断", e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.messageType = message.has("type") ? message.get("type").getAsString() : null;
+                event.success = success;
+                event.commit();
+            }
         }
     }
 
     /**
      * 异步发送消息（不等待响应）
+     * 服务端仍会应答，占位的 future 用于吸收该应答
      */
     private void sendAsync(JsonObject message) {
-        if (!connected) {
-            System.err.println("[AIClient] 未连接到AI服务，无法发送消息");
-            return;
+        if (connectionManager.getState() != ConnectionState.CONNECTED) {
+            return;  // 断线期间直接丢弃，避免堆积
         }
 
         executorService.submit(() -> {
             try {
-                String jsonMessage = gson.toJson(message);
-                writer.println(jsonMessage);
+                AIConnectionManager.Connection connection = connectionManager.acquire();
+                synchronized (pendingResponses) {
+                    pendingResponses.add(new CompletableFuture<>());
+                    send(connection, gson.toJson(message));
+                }
             } catch (Exception e) {
                 System.err.println("[AIClient] 发送消息失败: " + e.getMessage());
             }
         });
     }
 
+    /**
+     * 发送一行消息（抓包开启时先记录）
+     */
+    private void send(AIConnectionManager.Connection connection, String line) throws IOException {
+        TrafficCapture current = capture;
+        if (current != null) {
+            current.record(TrafficCapture.OUTBOUND, line);
+        }
+        connection.send(line);
+    }
+
+    /**
+     * 开始抓包：记录之后所有收发的消息及纳秒时间戳，供 AITrafficReplay 回放
+     * 已在抓包时先结束之前的文件
+     */
+    public void startCapture(Path path) throws IOException {
+        TrafficCapture previous = capture;
+        capture = TrafficCapture.create(path);
+        if (previous != null) {
+            previous.close();
+        }
+        System.out.println("[AIClient] 开始抓包: " + path);
+    }
+
+    /**
+     * 结束抓包
+     * @return 已记录的消息数；未在抓包时返回 -1
+     */
+    public long stopCapture() {
+        TrafficCapture current = capture;
+        capture = null;
+        if (current == null) {
+            return -1;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            System.err.println("[AIClient] 关闭抓包文件失败: " + e.getMessage());
+        }
+        System.out.println("[AIClient] 抓包结束: " + current.getPath() + "，共 " + current.getRecordCount() + " 条");
+        return current.getRecordCount();
+    }
+
+    public boolean isCapturing() {
+        return capture != null;
+    }
+
+    /**
+     * 读线程回调：HINT 交给实时建议通道，其余按顺序完成等待中的请求
+     */
+    private void onMessage(String line) {
+        TrafficCapture current = capture;
+        if (current != null) {
+            current.record(TrafficCapture.INBOUND, line);
+        }
+        if (line.contains("\"HINT\"")) {
+            JsonObject message = gson.fromJson(line, JsonObject.class);
+            if ("HINT".equals(message.get("type").getAsString())) {
+                hintChannel.onHint(message);
+                return;
+            }
+        }
+        CompletableFuture<String> future = pendingResponses.poll();
+        if (future != null) {
+            future.complete(line);
+        }
+    }
+
+    /**
+     * 连接断开：所有等待中的请求立即失败（抓包时记录断开标记）
+     */
+    private void onDisconnected(IOException cause) {
+        TrafficCapture current = capture;
+        if (current != null) {
+            current.record(TrafficCapture.DISCONNECT, String.valueOf(cause.getMessage()));
+        }
+        CompletableFuture<String> future;
+        while ((future = pendingResponses.poll()) != null) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 行为特征 -> JSON（字段名与 behavior_analyzer.analyze_from_features 一致）
+     */
+    private static JsonObject toJson(BehaviorFeatures features) {
+        JsonObject json = new JsonObject();
+        json.addProperty("total_sessions", features.totalSessions);
+        json.addProperty("total_actions", features.totalActions);
+        json.addProperty("moves", features.moves);
+        json.addProperty("shots", features.shots);
+        json.addProperty("hits", features.hits);
+        json.addProperty("shot_rate", features.shotRate);
+        json.addProperty("hit_rate", features.hitRate);
+        json.addProperty("reaction_count", features.reactionCount);
+        json.addProperty("reaction_mean_ms", features.reactionMeanMs);
+        json.addProperty("reaction_std_ms", features.reactionStdMs);
+        json.addProperty("direction_entropy", features.directionEntropy);
+        json.addProperty("change_ratio", features.changeRatio);
+        json.addProperty("unique_cells", features.uniqueCells);
+        json.addProperty("food_collected", features.foodCollected);
+        json.addProperty("time_to_food_mean_ms", features.timeToFoodMeanMs);
+        json.addProperty("avg_session_seconds", features.avgSessionSeconds);
+        return json;
+    }
+
     /**
      * 解析分析结果
      */
@@ -183,24 +461,37 @@ public class AIClient {
      * 断开连接
      */
     public void disconnect() {
-        connected = false;
-
-        try {
-            if (writer != null) writer.close();
-            if (reader != null) reader.close();
-            if (socket != null && !socket.isClosed()) socket.close();
-            executorService.shutdown();
-            System.out.println("[AIClient] 已断开连接");
-        } catch (IOException e) {
-            System.err.println("[AIClient] 断开连接时出错: " + e.getMessage());
-        }
+        connectionManager.close();
+        executorService.shutdown();
+        hintExecutor.shutdown();
+        closeFrameRing();
+        stopCapture();
+        System.out.println("[AIClient] 已断开连接");
     }
 
     /**
      * 检查连接状态
      */
     public boolean isConnected() {
-        return connected && socket != null && socket.isConnected() && !socket.isClosed();
+        return connectionManager.getState() == ConnectionState.CONNECTED;
+    }
+
+    /**
+     * 获取当前连接状态
+     */
+    public ConnectionState getConnectionState() {
+        return connectionManager.getState();
+    }
+
+    /**
+     * 添加连接状态监听器（如 UI 显示 AI 可用性）
+     */
+    public void addConnectionStateListener(ConnectionStateListener listener) {
+        connectionManager.addStateListener(listener);
+    }
+
+    public void removeConnectionStateListener(ConnectionStateListener listener) {
+        connectionManager.removeStateListener(listener);
     }
 
     /**
@@ -0,0 +1,307 @@
+package com.xylonet.snake.network;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * AI服务连接管理器
+ * - 独立读线程：读到 EOF / IOException 即判定断线（管道断开）
+ * - 断线后指数退避 + 抖动自动重连
+ * - 熔断器：连续失败后快速失败，不再让调用方等满超时
+ * - 状态变化通知监听器
+ * 所有阻塞操作都在后台线程进行，不会阻塞游戏循环
+ */
+public class AIConnectionManager {
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+    private static final long BACKOFF_BASE_MS = 200;
+    private static final long BACKOFF_MAX_MS = 10_000;
+    private static final int BREAKER_FAILURE_THRESHOLD = 3;
+    private static final long BREAKER_OPEN_MS = 5_000;
+
+    private volatile InetSocketAddress address;
+    private final Consumer<String> messageHandler;
+    private final Consumer<IOException> disconnectHandler;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledExecutorService scheduler;
+    private final List<ConnectionStateListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile ConnectionState state = ConnectionState.DISCONNECTED;
+    private volatile Connection connection;
+    private volatile boolean closed = false;
+    private ScheduledFuture<?> reconnectTask;
+    private int reconnectAttempt = 0;
+
+    /**
+     * @param messageHandler 每收到一行消息时回调（在读线程上执行）
+     * @param disconnectHandler 连接断开时回调，用于让等待中的请求失败
+     */
+    public AIConnectionManager(Consumer<String> messageHandler, Consumer<IOException> disconnectHandler) {
+        this.messageHandler = messageHandler;
+        this.disconnectHandler = disconnectHandler;
+        this.circuitBreaker = new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MS);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-reconnect");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 同步建立首次连接；失败时转入后台退避重连
+     * @return 首次连接是否成功
+     */
+    public boolean connect(String host, int port) {
+        this.address = new InetSocketAddress(host, port);
+        this.closed = false;
+        synchronized (this) {
+            reconnectAttempt = 0;
+        }
+        circuitBreaker.reset();  // 调用方主动发起的首次连接，不沿用之前的熔断状态
+        setState(ConnectionState.CONNECTING);
+        try {
+            openConnection();
+            return true;
+        } catch (IOException e) {
+            System.err.println("[AIClient] 连接失败: " + e.getMessage());
+            onFailure();
+            scheduleReconnect();
+            return false;
+        }
+    }
+
+    /**
+     * 获取当前可用连接；未连接或熔断打开时立即抛出异常
+     */
+    public Connection acquire() throws IOException {
+        Connection current = connection;
+        if (closed || current == null) {
+            throw new IOException("未连接到AI服务 (" + state + ")");
+        }
+        if (!circuitBreaker.allowRequest()) {
+            throw new IOException("AI服务熔断中，快速失败");
+        }
+        return current;
+    }
+
+    /**
+     * 记录一次成功的请求
+     */
+    public void reportSuccess() {
+        circuitBreaker.recordSuccess();
+        synchronized (this) {
+            reconnectAttempt = 0;  // 请求真正成功才算恢复，只连上 TCP 不算
+        }
+        if (state == ConnectionState.CIRCUIT_OPEN && connection != null) {
+            setState(ConnectionState.CONNECTED);
+        }
+    }
+
+    /**
+     * 记录一次失败的请求（如响应超时）
+     * 熔断打开时主动丢弃连接，避免后续响应错位
+     */
+    public void reportFailure(Connection failed) {
+        if (circuitBreaker.recordFailure()) {
+            setState(ConnectionState.CIRCUIT_OPEN);
+            connectionLost(failed, new IOException("连续请求失败，熔断打开"));
+        }
+    }
+
+    /**
+     * 写入失败或读到 EOF 时调用
+     */
+    void connectionLost(Connection lost, IOException cause) {
+        synchronized (this) {
+            if (lost == null || connection != lost) {
+                return;  // 已处理过
+            }
+            connection = null;
+        }
+        lost.close();
+        System.err.println("[AIClient] 连接断开: " + cause.getMessage());
+        disconnectHandler.accept(cause);
+
+        if (!closed) {
+            if (state != ConnectionState.CIRCUIT_OPEN) {
+                setState(ConnectionState.RECONNECTING);
+            }
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * 打开 Socket 并启动读线程
+     */
+    private void openConnection() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(address, CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+
+        Connection newConnection = new Connection(socket);
+        synchronized (this) {
+            connection = newConnection;
+        }
+        newConnection.startReader();
+        // 服务挂起时 TCP 仍能连上：连上不重置熔断器和退避次数，熔断打开时保持 CIRCUIT_OPEN，
+        // 冷却期后由一次试探请求决定是否恢复（见 reportSuccess）
+        setState(circuitBreaker.getState() == CircuitBreaker.State.CLOSED
+                ? ConnectionState.CONNECTED : ConnectionState.CIRCUIT_OPEN);
+        System.out.println("[AIClient] 连接成功 " + address.getHostString() + ":" + address.getPort());
+    }
+
+    /**
+     * 安排下一次重连：指数退避 + 抖动
+     */
+    private synchronized void scheduleReconnect() {
+        if (closed || (reconnectTask != null && !reconnectTask.isDone())) {
+            return;
+        }
+        long delay = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(reconnectAttempt, 16));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        reconnectAttempt++;
+
+        reconnectTask = scheduler.schedule(() -> {
+            if (closed || connection != null) {
+                return;
+            }
+            try {
+                openConnection();
+            } catch (IOException e) {
+                onFailure();
+                synchronized (this) {
+                    reconnectTask = null;
+                }
+                scheduleReconnect();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 连接失败计入熔断器
+     */
+    private void onFailure() {
+        if (circuitBreaker.recordFailure()) {
+            setState(ConnectionState.CIRCUIT_OPEN);
+        } else if (state == ConnectionState.CONNECTING) {
+            setState(ConnectionState.RECONNECTING);
+        }
+    }
+
+    /**
+     * 主动断开，停止重连
+     */
+    public void close() {
+        closed = true;
+        Connection current;
+        synchronized (this) {
+            current = connection;
+            connection = null;
+            if (reconnectTask != null) {
+                reconnectTask.cancel(false);
+            }
+        }
+        if (current != null) {
+            current.close();
+        }
+        scheduler.shutdownNow();
+        setState(ConnectionState.DISCONNECTED);
+    }
+
+    private void setState(ConnectionState newState) {
+        ConnectionState oldState = state;
+        if (oldState == newState) {
+            return;
+        }
+        state = newState;
+        for (ConnectionStateListener listener : listeners) {
+            try {
+                listener.onStateChanged(oldState, newState);
+            } catch (Exception e) {
+                System.err.println("[AIClient] 状态监听器异常: " + e.getMessage());
+            }
+        }
+    }
+
+    public void addStateListener(ConnectionStateListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeStateListener(ConnectionStateListener listener) {
+        listeners.remove(listener);
+    }
+
+    public ConnectionState getState() {
+        return state;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 单个 Socket 连接（含读线程）
+     */
+    public class Connection {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final PrintWriter writer;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        }
+
+        /**
+         * 写入一行消息；写失败（如管道断开）时判定断线
+         */
+        public void send(String line) throws IOException {
+            synchronized (writer) {
+                writer.println(line);
+                if (writer.checkError()) {
+                    IOException e = new IOException("写入失败（管道已断开）");
+                    connectionLost(this, e);
+                    throw e;
+                }
+            }
+        }
+
+        private void startReader() {
+            Thread readerThread = new Thread(() -> {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        try {
+                            messageHandler.accept(line);
+                        } catch (RuntimeException e) {
+                            System.err.println("[AIClient] 处理消息失败: " + e.getMessage());
+                        }
+                    }
+                    connectionLost(this, new EOFException("AI服务关闭了连接"));
+                } catch (IOException e) {
+                    connectionLost(this, e);
+                }
+            }, "ai-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // 忽略关闭错误
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.xylonet.snake.network;
+
+/**
+ * AI 实时建议
+ * 带有它所应答的逻辑帧编号，超过截止时间到达的建议会被丢弃
+ */
+public class AIHint {
+    public static final int DANGER_UP = 1;
+    public static final int DANGER_DOWN = 2;
+    public static final int DANGER_LEFT = 4;
+    public static final int DANGER_RIGHT = 8;
+
+    public final long tick;
+    public final String direction;   // 建议方向，可能为 null
+    public final int dangerMask;     // 四个方向的危险位
+    public final long latencyNanos;  // 发送到收到的耗时
+
+    public AIHint(long tick, String direction, int dangerMask, long latencyNanos) {
+        this.tick = tick;
+        this.direction = direction;
+        this.dangerMask = dangerMask;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * 指定方向是否危险
+     * @param direction UP/DOWN/LEFT/RIGHT
+     */
+    public boolean isDangerous(String direction) {
+        switch (direction) {
+            case "UP": return (dangerMask & DANGER_UP) != 0;
+            case "DOWN": return (dangerMask & DANGER_DOWN) != 0;
+            case "LEFT": return (dangerMask & DANGER_LEFT) != 0;
+            case "RIGHT": return (dangerMask & DANGER_RIGHT) != 0;
+            default: return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hint[tick=%d, dir=%s, danger=%s, %.2fms]",
+                tick, direction, Integer.toBinaryString(dangerMask), latencyNanos / 1e6);
+    }
+}
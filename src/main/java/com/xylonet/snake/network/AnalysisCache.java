@@ -0,0 +1,172 @@
+package com.xylonet.snake.network;
+
+import com.xylonet.snake.analysis.BehaviorFeatures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分析结果缓存（按数据版本失效）
+ * - 数据版本（{@link BehaviorFeatures#version}）未变且未超过 TTL：直接返回缓存，不访问服务
+ * - 版本已变或已过期：立即返回旧结果，同时在后台重新分析（stale-while-revalidate）
+ * - 同一时刻最多一个在途分析，并发请求共享同一结果（single-flight）
+ * UI 可以随意轮询，服务端负载受刷新间隔限制
+ */
+public class AnalysisCache implements AnalysisService {
+    public static final long DEFAULT_TTL_MS = 30_000;
+    public static final long DEFAULT_REFRESH_INTERVAL_MS = 1_000;
+
+    private final AnalysisService delegate;
+    private volatile long ttlMs = DEFAULT_TTL_MS;
+    private volatile long refreshIntervalMs = DEFAULT_REFRESH_INTERVAL_MS;
+
+    // 以下字段由 this 保护
+    private Entry entry;
+    private CompletableFuture<AIClient.AnalysisResult> inFlight;
+    private long generation;  // invalidate 后递增，丢弃之前发出的请求结果
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * @param delegate 实际执行分析的服务（单个客户端或工作进程池）
+     */
+    public AnalysisCache(AnalysisService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<AIClient.AnalysisResult> requestAnalysis(BehaviorFeatures features) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry current = entry;
+            if (current != null) {
+                long age = now - current.createdAt;
+                if (current.version == features.version && age < ttlMs) {
+                    hits.increment();
+                    return CompletableFuture.completedFuture(current.result);
+                }
+                staleServed.increment();
+                if (inFlight == null && age >= refreshIntervalMs) {
+                    revalidate(features);
+                }
+                return CompletableFuture.completedFuture(current.result);
+            }
+
+            if (inFlight != null) {
+                coalesced.increment();
+                return inFlight.copy();
+            }
+            misses.increment();
+            return revalidate(features).copy();
+        }
+    }
+
+    /**
+     * 发起一次分析，完成后写入缓存（调用方持有 this 锁）
+     */
+    private CompletableFuture<AIClient.AnalysisResult> revalidate(BehaviorFeatures features) {
+        long requestGeneration = generation;
+        CompletableFuture<AIClient.AnalysisResult> future = delegate.requestAnalysis(features);
+        inFlight = future;
+        refreshes.increment();
+        future.whenComplete((result, error) -> {
+            synchronized (this) {
+                if (requestGeneration != generation) {
+                    return;  // 已失效（如开始了新会话）
+                }
+                inFlight = null;
+                if (result != null) {
+                    entry = new Entry(features.version, result, System.currentTimeMillis());
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 最近一次成功的分析结果，不触发请求
+     * @return 没有结果时返回 null
+     */
+    public synchronized AIClient.AnalysisResult getLatest() {
+        return entry != null ? entry.result : null;
+    }
+
+    /**
+     * 清空缓存，并丢弃在途请求的结果
+     */
+    @Override
+    public synchronized void invalidate() {
+        generation++;
+        entry = null;
+        inFlight = null;
+    }
+
+    /**
+     * 设置缓存有效期：数据版本未变时结果最长复用多久
+     */
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * 设置最小刷新间隔：数据已变化时，旧结果至少复用多久才重新分析
+     */
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    // ===== 统计 =====
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getStaleServedCount() {
+        return staleServed.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 实际发给服务的分析请求数
+     */
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public String summary() {
+        return String.format("hit=%d stale=%d miss=%d coalesced=%d refresh=%d ttl=%dms interval=%dms",
+                getHitCount(), getStaleServedCount(), getMissCount(), getCoalescedCount(),
+                getRefreshCount(), ttlMs, refreshIntervalMs);
+    }
+
+    private static class Entry {
+        final long version;
+        final AIClient.AnalysisResult result;
+        final long createdAt;
+
+        Entry(long version, AIClient.AnalysisResult result, long createdAt) {
+            this.version = version;
+            this.result = result;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.xylonet.snake.network;
+
+import com.xylonet.snake.analysis.BehaviorFeatures;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 玩家行为分析服务
+ * 由单个 {@link AIClient} 或 {@link PythonWorkerPool} 实现
+ */
+public interface AnalysisService {
+
+    /**
+     * 请求玩家行为分析
+     * @param features 在线提取的行为特征，分析器不再查询数据库
+     * @return 分析结果；失败时结果为 null
+     */
+    CompletableFuture<AIClient.AnalysisResult> requestAnalysis(BehaviorFeatures features);
+
+    /**
+     * 开始新会话：丢弃之前会话的结果（带缓存的实现需要覆盖，默认无缓存）
+     */
+    default void invalidate() {
+    }
+}
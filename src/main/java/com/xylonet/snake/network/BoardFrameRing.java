@@ -0,0 +1,124 @@
+package com.xylonet.snake.network;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 共享内存棋盘帧环形缓冲区（单生产者 / 单消费者）
+ * Java 端写入，Python 端通过 mmap 读取（python_ai/scripts/board_ring.py）
+ *
+ * 文件布局（小端）:
+ *   文件头 64 字节
+ *     0  int   magic = 'XSBR'
+ *     4  int   version
+ *     8  int   slotCount
+ *     12 int   slotSize（帧头 + 单元格）
+ *     16 int   width
+ *     20 int   height
+ *     32 long  最新已发布的帧号（从 1 开始，0 表示尚无帧）
+ *   槽位 i 位于 64 + i * slotSize
+ *     0  long  seqlock：写入中为奇数 2n-1，写完为偶数 2n（n 为帧号）
+ *     8  long  tick
+ *     16 long  写入时刻（System.nanoTime）
+ *     32 ...   width * height 个单元格字节（GameBoard.CELL_*）
+ *
+ * 帧 n 写入槽位 n % slotCount；读者读取前后两次 seqlock 相同且为偶数才算一致
+ */
+public class BoardFrameRing implements AutoCloseable {
+    public static final int MAGIC = 0x52425358;  // "XSBR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int FRAME_HEADER_SIZE = 32;
+    public static final int DEFAULT_SLOT_COUNT = 64;
+
+    private static final int OFFSET_LATEST = 32;
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int slotSize;
+    private final int cellCount;
+    private long frameNumber = 0;
+
+    /**
+     * 创建（或覆盖）环形缓冲区文件
+     */
+    public BoardFrameRing(Path path, int width, int height) throws IOException {
+        this(path, width, height, DEFAULT_SLOT_COUNT);
+    }
+
+    public BoardFrameRing(Path path, int width, int height, int slotCount) throws IOException {
+        this.path = path;
+        this.slotCount = slotCount;
+        this.cellCount = width * height;
+        this.slotSize = FRAME_HEADER_SIZE + cellCount;
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        long fileSize = HEADER_SIZE + (long) slotCount * slotSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        // 先写其他字段，最后写 magic，读者据此判断文件已初始化
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, slotCount);
+        buffer.putInt(12, slotSize);
+        buffer.putInt(16, width);
+        buffer.putInt(20, height);
+        LONG_VIEW.setRelease(buffer, OFFSET_LATEST, 0L);
+        VarHandle.storeStoreFence();
+        buffer.putInt(0, MAGIC);
+    }
+
+    /**
+     * 写入一帧（只由单个生产者线程调用）
+     * 开销为一次单元格数组的批量拷贝加几次有序写
+     * @param tick 该帧对应的逻辑帧编号
+     * @param cells 长度至少为 width * height 的单元格数组
+     * @return 帧号
+     */
+    public long write(long tick, byte[] cells) {
+        long frame = ++frameNumber;
+        int offset = HEADER_SIZE + (int) (frame % slotCount) * slotSize;
+
+        LONG_VIEW.setOpaque(buffer, offset, frame * 2 - 1);  // 标记写入中
+        VarHandle.storeStoreFence();
+
+        buffer.putLong(offset + 8, tick);
+        buffer.putLong(offset + 16, System.nanoTime());
+        buffer.put(offset + FRAME_HEADER_SIZE, cells, 0, cellCount);
+
+        LONG_VIEW.setRelease(buffer, offset, frame * 2);      // 写入完成
+        LONG_VIEW.setRelease(buffer, OFFSET_LATEST, frame);   // 发布
+        return frame;
+    }
+
+    /**
+     * 最近写入的帧号
+     */
+    public long getFrameNumber() {
+        return frameNumber;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.xylonet.snake.network;
+
+/**
+ * 熔断器
+ * - CLOSED: 正常放行
+ * - OPEN: 连续失败达到阈值后打开，冷却期内直接拒绝
+ * - HALF_OPEN: 冷却期结束后放行一次试探，成功则关闭，失败则重新打开
+ *   试探结果出来之前其余请求仍直接拒绝；试探超过冷却时间仍无结果（调用方没有上报）时另放行一次
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+    private long probeStartedAt = 0;
+
+    /**
+     * @param failureThreshold 连续失败多少次后打开熔断
+     * @param openDurationMs 熔断打开后的冷却时间（毫秒）
+     */
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+    }
+
+    /**
+     * 是否允许本次请求通过
+     */
+    public synchronized boolean allowRequest() {
+        long now = System.currentTimeMillis();
+        if (state == State.OPEN) {
+            if (now - openedAt < openDurationMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        } else if (state == State.HALF_OPEN) {
+            if (probeInFlight && now - probeStartedAt < openDurationMs) {
+                return false;
+            }
+        } else {
+            return true;
+        }
+        probeInFlight = true;
+        probeStartedAt = now;
+        return true;
+    }
+
+    /**
+     * 记录一次成功调用
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * 记录一次失败调用
+     * @return 本次失败是否导致熔断打开
+     */
+    public synchronized boolean recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            boolean newlyOpened = state != State.OPEN;
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            return newlyOpened;
+        }
+        return false;
+    }
+
+    /**
+     * 重置为关闭状态
+     */
+    public synchronized void reset() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+}
@@ -0,0 +1,12 @@
+package com.xylonet.snake.network;
+
+/**
+ * AI服务连接状态
+ */
+public enum ConnectionState {
+    DISCONNECTED,   // 未连接（或已主动断开）
+    CONNECTING,     // 首次连接中
+    CONNECTED,      // 已连接，可正常收发
+    RECONNECTING,   // 连接断开，正在退避重连
+    CIRCUIT_OPEN    // 熔断打开，所有调用立即失败
+}
@@ -0,0 +1,10 @@
+package com.xylonet.snake.network;
+
+/**
+ * 连接状态变化监听器
+ * 回调在连接管理器的后台线程上执行，UI 需要自行切换到 EDT
+ */
+public interface ConnectionStateListener {
+
+    void onStateChanged(ConnectionState oldState, ConnectionState newState);
+}
@@ -0,0 +1,27 @@
+package com.xylonet.snake.network;
+
+/**
+ * AI服务监听地址（由启动握手中的就绪行解析得到）
+ */
+public class Endpoint {
+    private final String host;
+    private final int port;
+
+    public Endpoint(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+}
@@ -1,70 +1,107 @@
 package com.xylonet.snake.network;
 
 import java.io.*;
-import java.nio.file.*;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * Python AI进程管理器
  * 负责启动、监控和关闭Python AI服务
+ * 启动握手：服务就绪后在 stdout 输出一行 "AI_READY host=... port=..."，
+ * 由输出读取线程解析并完成 {@link #getReadyFuture()}，无需轮询端口文件
  */
 public class PythonProcessManager {
+    public static final String READY_PREFIX = "AI_READY";
+    private static final long DEFAULT_STARTUP_TIMEOUT_MS = 5000;
+
     private Process pythonProcess;
     private final String pythonScriptPath;
-    private final String portFilePath;
-    private Integer aiServicePort = null;
+    private final String[] serviceArgs;
+    private volatile CompletableFuture<Endpoint> readyFuture = new CompletableFuture<>();
+    private volatile Endpoint endpoint = null;
+    private volatile long launchNanos = 0;
+    private volatile long readyNanos = 0;
 
     public PythonProcessManager() {
+        this(new String[0]);
+    }
+
+    /**
+     * @param serviceArgs 传给 ai_service.py 的额外参数（如 "--port", "0"）
+     */
+    public PythonProcessManager(String... serviceArgs) {
         // 获取项目根目录
         String projectRoot = System.getProperty("user.dir");
         this.pythonScriptPath = projectRoot + "/python_ai/ai_service.py";
-        this.portFilePath = projectRoot + "/data/ai_port.txt";
+        this.serviceArgs = serviceArgs;
     }
 
     /**
-     * 启动Python AI服务进程
-     * @return 如果启动成功返回true
+     * 异步启动Python AI服务进程，立即返回
+     * @return 服务就绪时完成的 future（进程提前退出时异常完成）
      */
-    public boolean startPythonService() {
+    public CompletableFuture<Endpoint> startPythonServiceAsync() {
+        readyFuture = new CompletableFuture<>();
+        endpoint = null;
         try {
             System.out.println("[Java] 正在启动Python AI服务...");
 
-            // 删除旧的端口文件
-            File portFile = new File(portFilePath);
-            if (portFile.exists()) {
-                portFile.delete();
-            }
-
             // 检测操作系统
             String os = System.getProperty("os.name").toLowerCase();
             String pythonCommand = getPythonCommand(os);
 
-            // 启动Python进程
-            ProcessBuilder processBuilder = new ProcessBuilder(pythonCommand, pythonScriptPath);
+            // 启动Python进程（-u: 无缓冲输出，就绪行立即可见）
+            List<String> command = new ArrayList<>(List.of(pythonCommand, "-u", pythonScriptPath));
+            command.addAll(Arrays.asList(serviceArgs));
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
             processBuilder.redirectErrorStream(false);
 
+            launchNanos = System.nanoTime();
             pythonProcess = processBuilder.start();
 
-            // 在后台线程中打印Python输出
-            startOutputReader(pythonProcess.getInputStream(), "PYTHON-OUT");
-            startOutputReader(pythonProcess.getErrorStream(), "PYTHON-ERR");
-
-            // 等待端口文件生成（最多等待5秒）
-            if (waitForPortFile(5000)) {
-                aiServicePort = readPortFromFile();
-                System.out.println("[Java] Python AI服务启动成功，端口: " + aiServicePort);
-                return true;
-            } else {
-                System.err.println("[Java] 等待Python服务启动超时");
-                stopPythonService();
-                return false;
-            }
+            // 在后台线程中打印Python输出，并解析就绪行
+            startOutputReader(pythonProcess.getInputStream(), "PYTHON-OUT", readyFuture);
+            startOutputReader(pythonProcess.getErrorStream(), "PYTHON-ERR", null);
+
+            // 进程在就绪前退出则握手失败
+            CompletableFuture<Endpoint> future = readyFuture;
+            pythonProcess.onExit().thenAccept(p -> future.completeExceptionally(
+                    new IOException("Python进程已退出，退出码: " + p.exitValue())));
+
+            future.thenAccept(ep -> {
+                endpoint = ep;
+                readyNanos = System.nanoTime();
+                System.out.println("[Java] Python AI服务启动成功，地址: " + ep
+                        + "，耗时 " + getStartupLatencyMs() + "ms");
+            });
 
         } catch (IOException e) {
             System.err.println("[Java] 启动Python服务失败: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            readyFuture.completeExceptionally(e);
+        }
+        return readyFuture;
+    }
+
+    /**
+     * 启动Python AI服务进程并等待就绪
+     * @return 如果启动成功返回true
+     */
+    public boolean startPythonService() {
+        try {
+            startPythonServiceAsync().get(DEFAULT_STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            System.err.println("[Java] 等待Python服务启动超时");
+        } catch (ExecutionException e) {
+            System.err.println("[Java] Python服务启动失败: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        stopPythonService();
+        return false;
     }
 
     /**
@@ -79,53 +116,59 @@ public class PythonProcessManager {
     }
 
     /**
-     * 等待端口文件生成
+     * 解析就绪行: "AI_READY host=localhost port=50705"
+     * @return 解析失败返回 null
      */
-    private boolean waitForPortFile(long timeoutMs) {
-        long startTime = System.currentTimeMillis();
-        File portFile = new File(portFilePath);
-
-        while (System.currentTimeMillis() - startTime < timeoutMs) {
-            if (portFile.exists() && portFile.length() > 0) {
-                return true;
+    static Endpoint parseReadyLine(String line) {
+        if (!line.startsWith(READY_PREFIX)) {
+            return null;
+        }
+        String host = "localhost";
+        Integer port = null;
+        for (String token : line.substring(READY_PREFIX.length()).trim().split("\\s+")) {
+            int eq = token.indexOf('=');
+            if (eq <= 0) {
+                continue;
             }
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return false;
+            String key = token.substring(0, eq);
+            String value = token.substring(eq + 1);
+            if (key.equals("host")) {
+                host = value;
+            } else if (key.equals("port")) {
+                try {
+                    port = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
             }
         }
-        return false;
-    }
-
-    /**
-     * 从文件读取端口号
-     */
-    private Integer readPortFromFile() {
-        try {
-            String content = new String(Files.readAllBytes(Paths.get(portFilePath))).trim();
-            return Integer.parseInt(content);
-        } catch (IOException | NumberFormatException e) {
-            System.err.println("[Java] 读取端口文件失败: " + e.getMessage());
-            return null;
-        }
+        return port != null ? new Endpoint(host, port) : null;
     }
 
     /**
      * 启动输出读取线程
+     * @param readySignal 非空时，解析到就绪行后完成该 future
      */
-    private void startOutputReader(InputStream inputStream, String prefix) {
-        new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+    private void startOutputReader(InputStream inputStream, String prefix, CompletableFuture<Endpoint> readySignal) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
+                    if (readySignal != null && !readySignal.isDone()) {
+                        Endpoint ep = parseReadyLine(line);
+                        if (ep != null) {
+                            readySignal.complete(ep);
+                            continue;
+                        }
+                    }
                     System.out.println("[" + prefix + "] " + line);
                 }
             } catch (IOException e) {
                 // 进程结束时会抛出异常，这是正常的
             }
-        }).start();
+        }, "python-" + prefix.toLowerCase());
+        thread.setDaemon(true);
+        thread.start();
     }
 
     /**
@@ -150,23 +193,51 @@ public class PythonProcessManager {
 
             System.out.println("[Java] Python AI服务已关闭");
         }
+    }
 
-        // 清理端口文件
-        try {
-            File portFile = new File(portFilePath);
-            if (portFile.exists()) {
-                portFile.delete();
-            }
-        } catch (Exception e) {
-            // 忽略清理错误
-        }
+    /**
+     * 获取启动握手 future
+     */
+    public CompletableFuture<Endpoint> getReadyFuture() {
+        return readyFuture;
+    }
+
+    /**
+     * 获取AI服务地址（未就绪时为 null）
+     */
+    public Endpoint getEndpoint() {
+        return endpoint;
     }
 
     /**
      * 获取AI服务端口号
      */
     public Integer getAiServicePort() {
-        return aiServicePort;
+        return endpoint != null ? endpoint.getPort() : null;
+    }
+
+    /**
+     * 从进程启动到就绪行到达的耗时（毫秒），未就绪返回 -1
+     */
+    public long getStartupLatencyMs() {
+        if (readyNanos == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(readyNanos - launchNanos);
+    }
+
+    /**
+     * 进程启动时刻（System.nanoTime），用于度量首次分析耗时
+     */
+    public long getLaunchNanos() {
+        return launchNanos;
+    }
+
+    /**
+     * 进程退出时完成的 future（未启动时返回 null）
+     */
+    public CompletableFuture<Process> onExit() {
+        return pythonProcess != null ? pythonProcess.onExit() : null;
     }
 
     /**
@@ -0,0 +1,305 @@
+package com.xylonet.snake.network;
+
+import com.xylonet.snake.analysis.BehaviorFeatures;
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.management.AIClientMonitor;
+import com.xylonet.snake.management.ManagementSupport;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Python AI工作进程池
+ * - 启动可配置数量的 ai_service.py 进程，每个进程一个 {@link AIClient}
+ * - 定期 PING 健康检查（各工作进程并发 PING，单次有时限），进程崩溃或连续无响应时自动重启
+ * - 启动与重启在单独的线程池上进行，一个工作进程连接缓慢不会拖住其他进程的健康检查
+ * - 分析请求按在途请求数路由到最空闲的工作进程
+ * - 每个工作进程连接后挂载各自的共享内存帧文件 data/board_frames_<id>.ring
+ * 工作进程数量可通过系统属性 xylonet.ai.workers 配置
+ */
+public class PythonWorkerPool implements AnalysisService {
+    public static final String WORKERS_PROPERTY = "xylonet.ai.workers";
+    private static final int DEFAULT_WORKERS = 2;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 2000;
+    private static final int MAX_MISSED_PINGS = 2;
+    private static final long STARTUP_TIMEOUT_MS = 5000;
+    private static final long PING_TIMEOUT_MS = 2500;  // 略长于 AIClient 自身的 PING 超时
+
+
+    private final List<Worker> workers;
+    private final ScheduledExecutorService healthExecutor;
+    private final ExecutorService pingExecutor;
+    private final ExecutorService launchExecutor;
+    private final AnalysisCache analysisCache = new AnalysisCache(this);
+    private volatile boolean running = false;
+
+    public PythonWorkerPool() {
+        this(Integer.getInteger(WORKERS_PROPERTY, DEFAULT_WORKERS));
+    }
+
+    /**
+     * @param size 工作进程数量（至少 1）
+     */
+    public PythonWorkerPool(int size) {
+        int workerCount = Math.max(1, size);
+        List<Worker> list = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            list.add(new Worker(i));
+        }
+        this.workers = Collections.unmodifiableList(list);
+        this.healthExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-pool-health");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger pingThreads = new AtomicInteger();
+        this.pingExecutor = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "ai-pool-ping-" + pingThreads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger launchThreads = new AtomicInteger();
+        this.launchExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ai-pool-launch-" + launchThreads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 并行启动所有工作进程，立即返回
+     * @return 第一个工作进程可用时完成的 future；全部启动失败时异常完成
+     */
+    public CompletableFuture<Void> start() {
+        running = true;
+        System.out.println("[AIPool] 启动 " + workers.size() + " 个Python工作进程");
+
+        CompletableFuture<Void> firstReady = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (Worker worker : workers) {
+            worker.launch().whenComplete((ok, error) -> {
+                if (ok != null && ok) {
+                    firstReady.complete(null);
+                } else if (failures.incrementAndGet() == workers.size()) {
+                    firstReady.completeExceptionally(new IllegalStateException("所有Python工作进程启动失败"));
+                }
+            });
+        }
+
+        healthExecutor.scheduleWithFixedDelay(this::checkHealth,
+                HEALTH_CHECK_INTERVAL_MS, HEALTH_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return firstReady;
+    }
+
+    /**
+     * 路由分析请求到在途请求最少的健康工作进程
+     * 没有可用工作进程时立即返回 null 结果，不阻塞调用方
+     */
+    @Override
+    public CompletableFuture<AIClient.AnalysisResult> requestAnalysis(BehaviorFeatures features) {
+        Worker worker = leastLoaded();
+        if (worker == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        AIClient client = worker.client;
+        worker.inFlight.incrementAndGet();
+        return client.requestAnalysis(features)
+                .whenComplete((result, error) -> worker.inFlight.decrementAndGet());
+    }
+
+    /**
+     * 带缓存的分析服务（按数据版本失效、single-flight、stale-while-revalidate）
+     * 跨工作进程重启保持结果
+     */
+    public AnalysisCache getAnalysisCache() {
+        return analysisCache;
+    }
+
+    /**
+     * 获取一个可用客户端（用于心跳、状态推送等非分析消息）
+     * @return 没有可用工作进程时返回 null
+     */
+    public AIClient getClient() {
+        Worker worker = leastLoaded();
+        return worker != null ? worker.client : null;
+    }
+
+    /**
+     * 获取实时建议使用的客户端
+     * 固定优先第一个可用工作进程，保证建议来自同一连接
+     * @return 没有可用工作进程时返回 null
+     */
+    public AIClient getRealtimeClient() {
+        for (Worker worker : workers) {
+            if (worker.isAvailable()) {
+                return worker.client;
+            }
+        }
+        return null;
+    }
+
+    private Worker leastLoaded() {
+        Worker best = null;
+        for (Worker worker : workers) {
+            if (!worker.isAvailable()) {
+                continue;
+            }
+            if (best == null || worker.inFlight.get() < best.inFlight.get()) {
+                best = worker;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 健康检查：进程退出或连续 PING 失败则重启
+     * 所有工作进程的 PING 并发发出，最多等待 PING_TIMEOUT_MS，超时按未响应计
+     */
+    private void checkHealth() {
+        if (!running) {
+            return;
+        }
+        List<Worker> pinged = new ArrayList<>(workers.size());
+        List<AIClient> pingedClients = new ArrayList<>(workers.size());
+        List<CompletableFuture<Boolean>> pings = new ArrayList<>(workers.size());
+        for (Worker worker : workers) {
+            if (worker.launching) {
+                continue;
+            }
+            AIClient client = worker.client;
+            if (!worker.manager.isPythonServiceRunning() || client == null) {
+                System.err.println("[AIPool] 工作进程 #" + worker.id + " 不可用，重启中");
+                worker.restart();
+                continue;
+            }
+            // 正在处理长分析的工作进程暂不判定为挂起
+            if (worker.inFlight.get() > 0) {
+                continue;
+            }
+            pinged.add(worker);
+            pingedClients.add(client);
+            pings.add(CompletableFuture.supplyAsync(client::sendPing, pingExecutor)
+                    .completeOnTimeout(false, PING_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .exceptionally(error -> false));
+        }
+
+        for (int i = 0; i < pings.size(); i++) {
+            Worker worker = pinged.get(i);
+            boolean ok = pings.get(i).join();
+            if (worker.client != pingedClients.get(i) || worker.launching) {
+                continue;  // 等待期间已被重启
+            }
+            if (ok) {
+                worker.missedPings = 0;
+            } else if (++worker.missedPings >= MAX_MISSED_PINGS) {
+                System.err.println("[AIPool] 工作进程 #" + worker.id + " 无响应，重启中");
+                worker.restart();
+            }
+        }
+    }
+
+    /**
+     * 关闭所有工作进程
+     */
+    public void shutdown() {
+        running = false;
+        healthExecutor.shutdownNow();
+        pingExecutor.shutdownNow();
+        launchExecutor.shutdownNow();
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * 当前可用的工作进程数量
+     */
+    public int getAvailableWorkerCount() {
+        int count = 0;
+        for (Worker worker : workers) {
+            if (worker.isAvailable()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * 单个工作进程：Python 进程 + 客户端 + 负载计数
+     */
+    private class Worker {
+        private final int id;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile PythonProcessManager manager;
+        private volatile AIClient client;
+        private volatile boolean launching = false;
+        private volatile int missedPings = 0;  // 健康检查线程更新，启动时清零
+
+        Worker(int id) {
+            this.id = id;
+            // 端口 0：由操作系统分配，避免多个进程争抢同一端口
+            this.manager = new PythonProcessManager("--port", "0");
+        }
+
+        boolean isAvailable() {
+            AIClient current = client;
+            return !launching && current != null && current.isConnected();
+        }
+
+        /**
+         * 启动进程并在握手完成后连接
+         * @return 连接成功时完成为 true
+         */
+        CompletableFuture<Boolean> launch() {
+            launching = true;
+            return manager.startPythonServiceAsync()
+                    .orTimeout(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .thenApplyAsync(endpoint -> {
+                        AIClient newClient = new AIClient();
+                        boolean connected = newClient.connect(endpoint.getHost(), endpoint.getPort());
+                        if (connected) {
+                            newClient.enableFrameRing(frameRingPath(), GameBoard.GRID_SIZE, GameBoard.GRID_SIZE);
+                            ManagementSupport.register("AIClient", "worker-" + id, new AIClientMonitor(newClient));
+                        }
+                        client = newClient;
+                        missedPings = 0;
+                        return connected;
+                    }, launchExecutor)
+                    .exceptionally(error -> {
+                        System.err.println("[AIPool] 工作进程 #" + id + " 启动失败: " + error.getMessage());
+                        return false;
+                    })
+                    .whenComplete((ok, error) -> launching = false);
+        }
+
+        Path frameRingPath() {
+            return Paths.get(System.getProperty("user.dir"), "data", "board_frames_" + id + ".ring");
+        }
+
+        void restart() {
+            stop();
+            manager = new PythonProcessManager("--port", "0");
+            launch();
+        }
+
+        void stop() {
+            AIClient current = client;
+            client = null;
+            if (current != null) {
+                ManagementSupport.unregister("AIClient", "worker-" + id);
+                current.disconnect();
+            }
+            manager.stopPythonService();
+        }
+    }
+}
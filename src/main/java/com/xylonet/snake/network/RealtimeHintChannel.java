@@ -0,0 +1,168 @@
+package com.xylonet.snake.network;
+
+import com.google.gson.JsonObject;
+import com.xylonet.snake.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 实时建议通道（按截止时间约束）
+ * - 游戏循环每帧调用 {@link #publish}：只做一次原子交换，绝不阻塞
+ * - 发送线程只发送最新状态（来不及发送的旧帧直接合并丢弃）
+ * - 建议到达时若超过截止时间则记为过期并丢弃，按时到达的立即交给监听器（在读线程上调用）
+ * - 记录往返延迟直方图与未命中率
+ */
+public class RealtimeHintChannel {
+    public static final long DEFAULT_DEADLINE_MS = 20;
+    private static final int SEND_TIME_SLOTS = 256;
+
+    private final AtomicReference<TickState> pendingState = new AtomicReference<>();
+    private final AtomicReferenceArray<long[]> sendTimes = new AtomicReferenceArray<>(SEND_TIME_SLOTS);
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong onTime = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+
+    private volatile long deadlineNanos = DEFAULT_DEADLINE_MS * 1_000_000L;
+    private volatile Consumer<AIHint> hintListener;
+
+    /**
+     * 游戏循环调用：放入最新状态
+     * @return 需要安排一次发送时返回 true（之前没有待发送状态）
+     */
+    boolean publish(TickState state) {
+        published.incrementAndGet();
+        TickState previous = pendingState.getAndSet(state);
+        if (previous != null) {
+            coalesced.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 发送线程调用：取出最新状态并构造消息
+     * @return 没有待发送状态时返回 null
+     */
+    JsonObject takeMessage() {
+        TickState state = pendingState.getAndSet(null);
+        if (state == null) {
+            return null;
+        }
+        sendTimes.set((int) (state.tick & (SEND_TIME_SLOTS - 1)), new long[]{state.tick, System.nanoTime()});
+        sent.incrementAndGet();
+
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "TICK_STATE");
+        message.addProperty("tick", state.tick);
+        message.addProperty("dir", state.direction);
+        if (state.hasFrame()) {
+            // 棋盘已写入共享内存，Socket 只传帧号
+            message.addProperty("frame", state.frame);
+            return message;
+        }
+        message.addProperty("hx", state.headX);
+        message.addProperty("hy", state.headY);
+        message.addProperty("fx", state.foodX);
+        message.addProperty("fy", state.foodY);
+        message.addProperty("nb", state.neighborhood);
+        return message;
+    }
+
+    /**
+     * 读线程调用：处理收到的 HINT 消息
+     */
+    void onHint(JsonObject message) {
+        long receivedAt = System.nanoTime();
+        long tick = message.get("tick").getAsLong();
+        long[] sendTime = sendTimes.get((int) (tick & (SEND_TIME_SLOTS - 1)));
+        if (sendTime == null || sendTime[0] != tick) {
+            stale.incrementAndGet();  // 太旧，发送记录已被覆盖
+            return;
+        }
+
+        long latency = receivedAt - sendTime[1];
+        latencyHistogram.record(latency);
+        if (latency > deadlineNanos) {
+            stale.incrementAndGet();
+            return;
+        }
+
+        String direction = message.has("direction") && !message.get("direction").isJsonNull()
+                ? message.get("direction").getAsString() : null;
+        int danger = message.has("danger") ? message.get("danger").getAsInt() : 0;
+        onTime.incrementAndGet();
+        Consumer<AIHint> listener = hintListener;
+        if (listener != null) {
+            listener.accept(new AIHint(tick, direction, danger, latency));
+        }
+    }
+
+    /**
+     * 设置按时到达的建议的监听器（在读线程上调用，不能阻塞），null 表示移除
+     * 建议只对它所应答的那一帧有效，监听方需要自己比较帧号
+     */
+    public void setHintListener(Consumer<AIHint> listener) {
+        this.hintListener = listener;
+    }
+
+    /**
+     * 设置每帧截止时间
+     */
+    public void setDeadlineMs(long deadlineMs) {
+        this.deadlineNanos = deadlineMs * 1_000_000L;
+    }
+
+    public long getDeadlineMs() {
+        return deadlineNanos / 1_000_000L;
+    }
+
+    // ===== 统计 =====
+
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * 发送前被更新状态覆盖的帧数
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getOnTimeCount() {
+        return onTime.get();
+    }
+
+    public long getStaleCount() {
+        return stale.get();
+    }
+
+    /**
+     * 未命中率：已发送的帧中没有按时拿到建议的比例
+     */
+    public double getMissRate() {
+        long total = sent.get();
+        return total == 0 ? 0.0 : 1.0 - (double) onTime.get() / total;
+    }
+
+    public String summary() {
+        return String.format("sent=%d onTime=%d stale=%d coalesced=%d miss=%.1f%% | %s",
+                getSentCount(), getOnTimeCount(), getStaleCount(), getCoalescedCount(),
+                getMissRate() * 100, latencyHistogram.summary());
+    }
+}
@@ -0,0 +1,216 @@
+package com.xylonet.snake.network;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JVM 内的 AI 服务桩
+ * 实现与 ai_service.py 相同的行协议（PING / GAME_STATE / TICK_STATE / REQUEST_ANALYSIS / RING_ATTACH），
+ * 用于在不启动 Python 的情况下测试和压测 {@link AIClient}
+ * - 可配置固定延迟 + 随机抖动
+ * - 故障注入：按概率丢弃响应或直接断开连接
+ * 与 Python 服务一样，每个连接上的消息按顺序逐条处理
+ */
+public class StubAIServer {
+    private final Gson gson = new Gson();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private ServerSocket serverSocket;
+    private volatile boolean running = false;
+
+    private volatile long latencyMicros = 0;
+    private volatile long jitterMicros = 0;
+    private volatile double dropRate = 0.0;
+    private volatile double disconnectRate = 0.0;
+
+    /**
+     * 启动服务，监听操作系统分配的本地端口
+     * @return 监听地址
+     */
+    public Endpoint start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        running = true;
+
+        Thread acceptThread = new Thread(this::acceptLoop, "stub-ai-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        System.out.println("[StubAI] 启动成功，监听端口: " + serverSocket.getLocalPort());
+        return new Endpoint("localhost", serverSocket.getLocalPort());
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                Thread handler = new Thread(() -> handleClient(socket), "stub-ai-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("[StubAI] 连接错误: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleClient(Socket socket) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (running && (line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (disconnectRate > 0 && random.nextDouble() < disconnectRate) {
+                    break;  // 模拟服务崩溃
+                }
+
+                JsonObject response = process(line);
+                if (response == null || (dropRate > 0 && random.nextDouble() < dropRate)) {
+                    continue;  // 模拟挂起 / 丢失响应
+                }
+
+                simulateLatency(random);
+                writer.write(gson.toJson(response));
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // 客户端断开
+        } finally {
+            clients.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * 按消息类型构造响应，与 ai_service.py 保持一致
+     */
+    private JsonObject process(String line) {
+        JsonObject request;
+        try {
+            request = gson.fromJson(line, JsonObject.class);
+        } catch (JsonSyntaxException e) {
+            return null;
+        }
+        if (request == null || !request.has("type")) {
+            return null;
+        }
+
+        JsonObject response = new JsonObject();
+        response.addProperty("timestamp", System.currentTimeMillis() / 1000.0);
+        switch (request.get("type").getAsString()) {
+            case "PING":
+                response.addProperty("type", "PONG");
+                return response;
+            case "TICK_STATE":
+                response.addProperty("type", "HINT");
+                response.addProperty("tick", request.has("tick") ? request.get("tick").getAsLong() : 0);
+                response.addProperty("direction", request.has("dir") ? request.get("dir").getAsString() : "RIGHT");
+                response.addProperty("danger", 0);
+                return response;
+            case "RING_ATTACH":
+                // 桩服务不读取共享内存，只确认挂载
+                response.addProperty("type", "RING_ATTACHED");
+                response.addProperty("ok", true);
+                return response;
+            case "GAME_STATE":
+                response.addProperty("type", "GAME_STATE_ACK");
+                response.addProperty("message", "State received");
+                return response;
+            case "REQUEST_ANALYSIS":
+                int dataPoints = request.has("data_points") ? request.get("data_points").getAsInt() : 0;
+                response.addProperty("type", "ANALYSIS_RESULT");
+                response.addProperty("mbti", "INTJ");
+                response.addProperty("confidence", 0.5);
+                response.addProperty("sample_size", dataPoints);
+                JsonObject traits = new JsonObject();
+                traits.addProperty("aggression", 0.5);
+                traits.addProperty("caution", 0.5);
+                traits.addProperty("exploration", 0.5);
+                traits.addProperty("planning", 0.5);
+                response.add("traits", traits);
+                return response;
+            default:
+                return null;
+        }
+    }
+
+    private void simulateLatency(ThreadLocalRandom random) {
+        long delay = latencyMicros + (jitterMicros > 0 ? random.nextLong(jitterMicros + 1) : 0);
+        if (delay > 0) {
+            // parkNanos 精度远高于 Thread.sleep(ms, ns)（后者会向上取整到毫秒）
+            LockSupport.parkNanos(delay * 1000);
+        }
+    }
+
+    /**
+     * 停止服务并断开所有客户端
+     */
+    public void stop() {
+        running = false;
+        closeQuietly(serverSocket);
+        for (Socket socket : clients) {
+            closeQuietly(socket);
+        }
+        clients.clear();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            // 忽略关闭错误
+        }
+    }
+
+    // ===== 配置 =====
+
+    /**
+     * 设置每条响应的处理延迟
+     * @param latencyMicros 固定延迟（微秒）
+     * @param jitterMicros 额外随机抖动上限（微秒）
+     */
+    public void setLatency(long latencyMicros, long jitterMicros) {
+        this.latencyMicros = Math.max(0, latencyMicros);
+        this.jitterMicros = Math.max(0, jitterMicros);
+    }
+
+    /**
+     * 设置丢弃响应的概率（0 ~ 1），用于模拟服务挂起
+     */
+    public void setDropRate(double dropRate) {
+        this.dropRate = dropRate;
+    }
+
+    /**
+     * 设置每条消息触发断开连接的概率（0 ~ 1），用于模拟服务崩溃
+     */
+    public void setDisconnectRate(double disconnectRate) {
+        this.disconnectRate = disconnectRate;
+    }
+
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+}
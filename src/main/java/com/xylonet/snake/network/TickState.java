@@ -0,0 +1,63 @@
+package com.xylonet.snake.network;
+
+/**
+ * 每个逻辑帧发送给 AI 的紧凑状态
+ * 周围环境用以蛇头为中心的 7x7 占用位图表示（49 位，装入一个 long）
+ * 启用共享内存帧后，整盘数据写入 {@link BoardFrameRing}，消息只携带帧号
+ */
+public class TickState {
+    public static final int WINDOW_RADIUS = 3;
+    public static final int WINDOW_SIZE = WINDOW_RADIUS * 2 + 1;
+
+    public final long tick;
+    public final int headX;
+    public final int headY;
+    public final String direction;
+    public final int foodX;
+    public final int foodY;
+    public final long neighborhood;
+    public final long frame;
+
+    /**
+     * @param tick 逻辑帧编号
+     * @param direction 当前移动方向（UP/DOWN/LEFT/RIGHT）
+     * @param foodX 食物 X 坐标，不存在时为 -1
+     * @param neighborhood 7x7 占用位图，第 (dy+3)*7+(dx+3) 位表示 (head.x+dx, head.y+dy) 被占据
+     */
+    public TickState(long tick, int headX, int headY, String direction, int foodX, int foodY, long neighborhood) {
+        this(tick, headX, headY, direction, foodX, foodY, neighborhood, 0);
+    }
+
+    private TickState(long tick, int headX, int headY, String direction, int foodX, int foodY,
+                      long neighborhood, long frame) {
+        this.tick = tick;
+        this.headX = headX;
+        this.headY = headY;
+        this.direction = direction;
+        this.foodX = foodX;
+        this.foodY = foodY;
+        this.neighborhood = neighborhood;
+        this.frame = frame;
+    }
+
+    /**
+     * 返回关联了共享内存帧号的副本
+     */
+    public TickState withFrame(long frame) {
+        return new TickState(tick, headX, headY, direction, foodX, foodY, neighborhood, frame);
+    }
+
+    /**
+     * 是否关联了共享内存帧（帧号从 1 开始）
+     */
+    public boolean hasFrame() {
+        return frame > 0;
+    }
+
+    /**
+     * 计算 7x7 窗口内 (dx, dy) 对应的位下标
+     */
+    public static int bitIndex(int dx, int dy) {
+        return (dy + WINDOW_RADIUS) * WINDOW_SIZE + (dx + WINDOW_RADIUS);
+    }
+}
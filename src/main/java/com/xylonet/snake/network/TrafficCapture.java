@@ -0,0 +1,177 @@
+package com.xylonet.snake.network;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AI 通信抓包文件（二进制，紧凑格式）
+ *
+ * 文件头:
+ *   int   magic = 'XSCP'
+ *   int   version
+ *   long  开始抓包时的墙钟时间（毫秒）
+ * 每条记录:
+ *   byte    方向（0 = 发出，1 = 收到，2 = 连接断开标记，消息为断开原因；版本 2 起）
+ *   varlong 距上一条记录的纳秒数
+ *   varint  消息字节数
+ *   bytes   UTF-8 消息（不含换行）
+ *
+ * 断开标记之前发出而未收到应答的请求不会再有应答，回放工具据此清空待匹配的请求
+ * 写入由内部锁串行化（发送线程与读线程都会记录），写满缓冲区时才落盘
+ */
+public class TrafficCapture implements AutoCloseable {
+    public static final int MAGIC = 0x58534350;  // "XSCP"
+    public static final int VERSION = 2;
+    public static final byte OUTBOUND = 0;
+    public static final byte INBOUND = 1;
+    public static final byte DISCONNECT = 2;
+
+    private final Path path;
+    private final DataOutputStream out;
+    private long lastNanos;
+    private long recordCount = 0;
+    private boolean closed = false;
+
+    private TrafficCapture(Path path, DataOutputStream out) {
+        this.path = path;
+        this.out = out;
+        this.lastNanos = System.nanoTime();
+    }
+
+    /**
+     * 创建抓包文件（已存在时覆盖）
+     */
+    public static TrafficCapture create(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        return new TrafficCapture(path, out);
+    }
+
+    /**
+     * 记录一条消息；写入失败时停止抓包，不影响通信
+     */
+    public synchronized void record(byte direction, String message) {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        try {
+            out.writeByte(direction);
+            writeVarLong(out, now - lastNanos);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+            lastNanos = now;
+            recordCount++;
+        } catch (IOException e) {
+            System.err.println("[Capture] 写入失败，停止抓包: " + e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            out.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // 忽略关闭错误
+        }
+    }
+
+    /**
+     * 读取整个抓包文件
+     * @return 记录列表，时间戳为相对抓包开始的纳秒数
+     */
+    public static List<Record> read(Path path) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是抓包文件: " + path);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {  // 版本 1 只是没有断开标记
+                throw new IOException("不支持的抓包版本: " + version);
+            }
+            in.readLong();  // 开始时间，仅供参考
+
+            long nanos = 0;
+            int direction;
+            while ((direction = in.read()) != -1) {
+                nanos += readVarLong(in);
+                byte[] bytes = new byte[(int) readVarLong(in)];
+                in.readFully(bytes);
+                records.add(new Record((byte) direction, nanos, new String(bytes, StandardCharsets.UTF_8)));
+            }
+        } catch (EOFException e) {
+            // 末尾记录不完整（进程被强制结束），忽略
+        }
+        return records;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * 单条抓包记录
+     */
+    public static class Record {
+        public final byte direction;
+        public final long nanos;
+        public final String message;
+
+        Record(byte direction, long nanos, String message) {
+            this.direction = direction;
+            this.nanos = nanos;
+            this.message = message;
+        }
+
+        public boolean isOutbound() {
+            return direction == OUTBOUND;
+        }
+
+        public boolean isDisconnect() {
+            return direction == DISCONNECT;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.xylonet.snake.replay;
+
+import com.xylonet.snake.event.EventSubscriber;
+import com.xylonet.snake.event.GameEvent;
+import com.xylonet.snake.game.BoardChangeSet;
+import com.xylonet.snake.game.GameBoard;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 游戏过程录像（以 EDT 方式订阅 FrameUpdated）
+ * - 与画面相同，同一批内的多个 FrameUpdated 合并变化格子，批结束时写一帧
+ * - 只写真正变了的格子（与上一帧逐格比较），没有变化且建议格不变的帧不写，时间差并入下一帧
+ * - 换了棋盘（新关卡、重开）或整盘变化时写关键帧
+ * - 写入经 64 KB 缓冲，EDT 上只有缓冲写满时才有一次小的文件写入；写入失败时停止录像，不影响游戏
+ */
+public class BoardRecorder implements EventSubscriber {
+    private static final int GRID_SIZE = GameBoard.GRID_SIZE;
+
+    private final BoardRecording recording;
+    private final byte[] cells = new byte[GRID_SIZE * GRID_SIZE];  // 已写出的最后一帧
+    private final int[] changed = new int[GRID_SIZE * GRID_SIZE];
+    private final BoardChangeSet pendingChanges = new BoardChangeSet(GRID_SIZE, GRID_SIZE);
+    private GameEvent.FrameUpdated pendingFrame;
+    private GameBoard lastBoard;
+    private int lastHint = -1;
+    private boolean failed;
+
+    private BoardRecorder(BoardRecording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * 开始录像，立即写入棋盘当前状态作为第一帧（必须在 EDT 上调用）
+     * 调用方随后把返回的录像器订阅到事件总线（只需 FrameUpdated）
+     */
+    public static BoardRecorder start(Path path, GameBoard board, long tick) throws IOException {
+        BoardRecorder recorder = new BoardRecorder(BoardRecording.create(path, GRID_SIZE, GRID_SIZE));
+        recorder.writeFrame(board, tick, null, null);
+        return recorder;
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        if (event instanceof GameEvent.FrameUpdated) {
+            pendingFrame = (GameEvent.FrameUpdated) event;
+            if (pendingFrame.changes != null && pendingFrame.board == lastBoard) {
+                pendingChanges.addAll(pendingFrame.changes);
+            } else {
+                pendingChanges.markAll();
+            }
+        }
+    }
+
+    @Override
+    public void onBatchComplete() {
+        GameEvent.FrameUpdated frame = pendingFrame;
+        if (frame == null) {
+            return;
+        }
+        pendingFrame = null;
+        writeFrame(frame.board, frame.tick, frame.hintCell, pendingChanges);
+        pendingChanges.clear();
+    }
+
+    /**
+     * @param changes null 表示写关键帧
+     */
+    private void writeFrame(GameBoard board, long tick, Point hintCell, BoardChangeSet changes) {
+        if (failed) {
+            return;
+        }
+        int hint = hintCell != null && hintCell.x >= 0 && hintCell.x < GRID_SIZE
+                && hintCell.y >= 0 && hintCell.y < GRID_SIZE ? hintCell.y * GRID_SIZE + hintCell.x : -1;
+        try {
+            if (changes == null || changes.isFull() || board != lastBoard) {
+                board.copyCells(0, 0, GRID_SIZE - 1, GRID_SIZE - 1, cells);
+                recording.writeKeyframe(tick, hint, cells);
+                lastBoard = board;
+            } else {
+                int count = 0;
+                for (int i = 0; i < changes.size(); i++) {
+                    int x = changes.getX(i);
+                    int y = changes.getY(i);
+                    int index = y * GRID_SIZE + x;
+                    byte type = board.getCell(x, y);
+                    if (type != cells[index]) {
+                        cells[index] = type;
+                        changed[count++] = index;
+                    }
+                }
+                if (count == 0 && hint == lastHint) {
+                    return;
+                }
+                recording.writeDelta(tick, hint, changed, count, cells);
+            }
+        } catch (IOException e) {
+            System.err.println("[Record] 写入失败，停止录像: " + e.getMessage());
+            failed = true;
+            return;
+        }
+        lastHint = hint;
+    }
+
+    /**
+     * 结束录像（调用前先取消订阅）
+     * @return 写入的帧数
+     */
+    public long stop() throws IOException {
+        recording.close();
+        return recording.getFrameCount();
+    }
+
+    public Path getPath() {
+        return recording.getPath();
+    }
+}
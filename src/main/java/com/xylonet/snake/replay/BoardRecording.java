@@ -0,0 +1,282 @@
+package com.xylonet.snake.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 棋盘录像文件（逐帧格子流，二进制，紧凑格式）
+ *
+ * 文件头:
+ *   int   magic = 'XSBR'
+ *   int   version
+ *   short 棋盘宽度（格）
+ *   short 棋盘高度（格）
+ *   long  开始录制时的墙钟时间（毫秒）
+ * 每条记录（一帧）:
+ *   byte    类型（0 = 关键帧，1 = 增量帧）
+ *   varlong 距上一条记录的毫秒数
+ *   varlong 逻辑帧号
+ *   varint  AI 建议格下标 + 1（0 表示无）
+ *   关键帧: 游程编码，重复 { varint 游程长度, byte 格子类型 } 直到覆盖整盘
+ *   增量帧: varint 变化格数，每格 { varint 格子下标, byte 新类型 }
+ * 格子类型为 GameBoard.CELL_*；蛇每走一步通常只有 2–3 格变化，一帧十几个字节
+ *
+ * 非线程安全：写入方只在一个线程上使用
+ */
+public class BoardRecording implements AutoCloseable {
+    public static final int MAGIC = 0x58534252;  // "XSBR"
+    public static final int VERSION = 1;
+    private static final byte KEYFRAME = 0;
+    private static final byte DELTA = 1;
+
+    private final Path path;
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private long lastMillis;
+    private long frameCount = 0;
+    private long keyframeCount = 0;
+
+    private BoardRecording(Path path, DataOutputStream out, int width, int height, long startMillis) {
+        this.path = path;
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.lastMillis = startMillis;
+    }
+
+    /**
+     * 创建录像文件（已存在时覆盖）
+     */
+    public static BoardRecording create(Path path, int width, int height) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+        long now = System.currentTimeMillis();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeShort(width);
+        out.writeShort(height);
+        out.writeLong(now);
+        return new BoardRecording(path, out, width, height, now);
+    }
+
+    /**
+     * 写关键帧（整盘）
+     * @param hintIndex AI 建议格下标，-1 表示无
+     */
+    public void writeKeyframe(long tick, int hintIndex, byte[] cells) throws IOException {
+        writeHeader(KEYFRAME, tick, hintIndex);
+        int count = width * height;
+        int i = 0;
+        while (i < count) {
+            byte type = cells[i];
+            int end = i + 1;
+            while (end < count && cells[end] == type) {
+                end++;
+            }
+            writeVarLong(out, end - i);
+            out.writeByte(type);
+            i = end;
+        }
+        keyframeCount++;
+    }
+
+    /**
+     * 写增量帧
+     * @param indices 变化格子的下标（y * width + x），前 count 个有效
+     * @param cells 整盘当前格子，按 indices 取新类型
+     */
+    public void writeDelta(long tick, int hintIndex, int[] indices, int count, byte[] cells) throws IOException {
+        writeHeader(DELTA, tick, hintIndex);
+        writeVarLong(out, count);
+        for (int i = 0; i < count; i++) {
+            writeVarLong(out, indices[i]);
+            out.writeByte(cells[indices[i]]);
+        }
+    }
+
+    private void writeHeader(byte kind, long tick, int hintIndex) throws IOException {
+        long now = System.currentTimeMillis();
+        out.writeByte(kind);
+        writeVarLong(out, Math.max(0, now - lastMillis));
+        writeVarLong(out, tick);
+        writeVarLong(out, hintIndex + 1);
+        lastMillis = now;
+        frameCount++;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * 打开录像文件顺序读取
+     */
+    public static Reader open(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是录像文件: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("不支持的录像版本: " + version);
+            }
+            int width = in.readUnsignedShort();
+            int height = in.readUnsignedShort();
+            long startMillis = in.readLong();
+            return new Reader(in, width, height, startMillis);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 顺序读取器：每次 {@link #next} 把一条记录应用到当前整盘格子上
+     */
+    public static final class Reader implements AutoCloseable {
+        public final int width;
+        public final int height;
+        public final long startMillis;
+
+        private final DataInputStream in;
+        private final byte[] cells;
+        private long millis;  // 距开始录制的毫秒数
+        private long tick;
+        private int hintIndex = -1;
+        private boolean started;
+
+        private Reader(DataInputStream in, int width, int height, long startMillis) {
+            this.in = in;
+            this.width = width;
+            this.height = height;
+            this.startMillis = startMillis;
+            this.cells = new byte[width * height];
+        }
+
+        /**
+         * 读下一帧
+         * @return 文件结束（或末尾记录不完整，进程被强制结束）时返回 false
+         */
+        public boolean next() throws IOException {
+            int kind = in.read();
+            if (kind < 0) {
+                return false;
+            }
+            try {
+                millis += readVarLong(in);
+                tick = readVarLong(in);
+                hintIndex = (int) readVarLong(in) - 1;
+                if (kind == KEYFRAME) {
+                    int i = 0;
+                    while (i < cells.length) {
+                        int run = (int) readVarLong(in);
+                        byte type = in.readByte();
+                        if (run <= 0 || i + run > cells.length) {
+                            throw new IOException("关键帧游程越界: " + (i + run));
+                        }
+                        Arrays.fill(cells, i, i + run, type);
+                        i += run;
+                    }
+                    started = true;
+                } else if (kind == DELTA) {
+                    if (!started) {
+                        throw new IOException("增量帧之前没有关键帧");
+                    }
+                    int count = (int) readVarLong(in);
+                    for (int i = 0; i < count; i++) {
+                        int index = (int) readVarLong(in);
+                        if (index >= cells.length) {
+                            throw new IOException("格子下标越界: " + index);
+                        }
+                        cells[index] = in.readByte();
+                    }
+                } else {
+                    throw new IOException("未知记录类型: " + kind);
+                }
+            } catch (EOFException e) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 复制当前帧的格子（行优先，y * width + x）
+         */
+        public void copyCells(byte[] dst) {
+            System.arraycopy(cells, 0, dst, 0, cells.length);
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getTick() {
+            return tick;
+        }
+
+        public int getHintX() {
+            return hintIndex < 0 ? -1 : hintIndex % width;
+        }
+
+        public int getHintY() {
+            return hintIndex < 0 ? -1 : hintIndex / width;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
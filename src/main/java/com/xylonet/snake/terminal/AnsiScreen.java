@@ -0,0 +1,253 @@
+package com.xylonet.snake.terminal;
+
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.MetricsRegistry;
+import com.xylonet.snake.ui.GamePanel;
+
+import java.awt.Color;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * ANSI 终端画面：用转义序列在终端里画棋盘，配色与符号同 Swing 版（□ # ◉ ■ @ ◇）
+ * - 前缓冲记录终端上当前显示的格子，后缓冲是本帧的格子；只输出两者不同的格子，
+ *   每帧写出的字节数与变化的格子数成正比
+ * - 每格占两列（符号 + 空格），接近正方形；同一行相邻的变化格子之间不重复发光标定位，
+ *   颜色与上一个输出的格子相同时不重复发 SGR
+ * - 一帧的所有输出先写进复用的直接缓冲区，最后对 stdout 的 FileChannel 只 write 一次
+ * - 棋盘下方是若干状态行，内容变化时才重写
+ * 只在一个线程上使用（游戏循环所在的 EDT）
+ */
+public class AnsiScreen {
+    private static final int COLUMNS_PER_CELL = 2;
+    private static final int CELL_TYPES = 8;
+    private static final int BUFFER_SIZE = 256 * 1024;  // 整屏重画约 100KB
+    private static final int FLUSH_MARGIN = 256;        // 剩余空间不足时先写出一次（只在状态行很长时发生）
+
+    private static final byte[] CLEAR = bytes("\u001b[0m\u001b[2J");
+    private static final byte[] RESET_STYLE = bytes("\u001b[0m");
+    private static final byte[] ERASE_LINE = bytes("\u001b[K");
+    private static final byte[] ENTER = bytes("\u001b[?1049h\u001b[?25l");  // 备用屏幕、隐藏光标
+    private static final byte[] LEAVE = bytes("\u001b[0m\u001b[?25h\u001b[?1049l");
+
+    private final int width;
+    private final int height;
+    private final byte[] front;  // 终端上当前显示的格子，-1 表示未知（需要重画）
+    private final byte[] back;   // 本帧要显示的格子
+    private final byte[][] cellStyle = new byte[CELL_TYPES][];  // 每种格子的 SGR 序列
+    private final byte[][] cellGlyph = new byte[CELL_TYPES][];  // 每种格子的 UTF-8 字符（两列）
+    private final String[] statusLines;
+    private final String[] shownStatus;
+
+    private final FileChannel out;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private int currentStyle = -1;  // 终端当前 SGR 对应的格子类型，-1 表示未知
+    private int cursorRow = -1;     // 终端光标位置（从 0 开始的格子坐标），-1 表示未知
+    private int cursorCell = -1;
+
+    // 统计
+    private long frames;
+    private long cellsWritten;
+    private long bytesWritten;
+    private final Counter cellCounter = MetricsRegistry.getDefault().counter("tty.cells");
+    private final Counter byteCounter = MetricsRegistry.getDefault().counter("tty.bytes");
+
+    /**
+     * @param ascii 为 true 时用 ASCII 字符代替方块符号（终端把这些符号显示成双宽时使用）
+     */
+    public AnsiScreen(int width, int height, int statusRows, boolean ascii) {
+        this(width, height, statusRows, ascii, new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    public AnsiScreen(int width, int height, int statusRows, boolean ascii, FileChannel out) {
+        this.width = width;
+        this.height = height;
+        this.front = new byte[width * height];
+        this.back = new byte[width * height];
+        this.statusLines = new String[statusRows];
+        this.shownStatus = new String[statusRows];
+        this.out = out;
+        Arrays.fill(front, (byte) -1);
+
+        // 与 GamePanel 相同：彩色底、黑色符号（子弹为白色符号）；空格只有背景
+        defineCell(GameBoard.CELL_EMPTY, ' ', ' ', Color.BLACK, GamePanel.BG_COLOR, ascii);
+        defineCell(GameBoard.CELL_WALL, GamePanel.OBSTACLE_SYMBOL, '#', Color.BLACK, GamePanel.BOUNDARY_COLOR, ascii);
+        defineCell(GameBoard.CELL_BLOCK, GamePanel.OBSTACLE_SYMBOL, '#', Color.BLACK, GamePanel.OBSTACLE_COLOR, ascii);
+        defineCell(GameBoard.CELL_SNAKE_BODY, GamePanel.SNAKE_BODY_SYMBOL, '#', Color.BLACK, GamePanel.SNAKE_BODY_COLOR, ascii);
+        defineCell(GameBoard.CELL_SNAKE_HEAD, GamePanel.SNAKE_HEAD_SYMBOL, 'O', Color.BLACK, GamePanel.SNAKE_HEAD_COLOR, ascii);
+        defineCell(GameBoard.CELL_FOOD, GamePanel.FOOD_SYMBOL, '*', Color.BLACK, GamePanel.FOOD_COLOR, ascii);
+        defineCell(GameBoard.CELL_BULLET, GamePanel.BULLET_SYMBOL, '@', Color.WHITE, GamePanel.BULLET_COLOR, ascii);
+        defineCell(GameBoard.CELL_DOOR, GamePanel.DOOR_SYMBOL, '+', Color.BLACK, GamePanel.DOOR_COLOR, ascii);
+    }
+
+    private void defineCell(byte type, char symbol, char asciiSymbol, Color fg, Color bg, boolean ascii) {
+        cellStyle[type] = bytes(String.format("\u001b[38;2;%d;%d;%d;48;2;%d;%d;%dm",
+                fg.getRed(), fg.getGreen(), fg.getBlue(), bg.getRed(), bg.getGreen(), bg.getBlue()));
+        cellGlyph[type] = bytes((ascii ? asciiSymbol : symbol) + " ");
+    }
+
+    /**
+     * 切换到备用屏幕并清屏
+     */
+    public void open() throws IOException {
+        put(ENTER);
+        invalidate();
+        flush();
+    }
+
+    /**
+     * 恢复终端（颜色、光标、主屏幕）
+     */
+    public void close() throws IOException {
+        buffer.clear();
+        put(LEAVE);
+        flush();
+    }
+
+    /**
+     * 终端内容未知（如窗口被其他程序改写）时调用，下一帧整屏重画
+     */
+    public void invalidate() {
+        Arrays.fill(front, (byte) -1);
+        Arrays.fill(shownStatus, null);
+        put(CLEAR);
+        currentStyle = -1;
+        cursorRow = -1;
+    }
+
+    /**
+     * 设置第 index 个状态行（下次 render 时如有变化才输出）
+     */
+    public void setStatusLine(int index, String text) {
+        statusLines[index] = text;
+    }
+
+    /**
+     * 画一帧：与前缓冲比较，只输出变化的格子和状态行，然后一次写出
+     */
+    public void render(GameBoard board) throws IOException {
+        board.writeCells(back);
+        int changed = 0;
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                byte cell = back[row + x];
+                if (cell == front[row + x]) continue;
+                writeCell(x, y, cell);
+                front[row + x] = cell;
+                changed++;
+            }
+        }
+        for (int i = 0; i < statusLines.length; i++) {
+            String text = statusLines[i];
+            if (text != null && !text.equals(shownStatus[i])) {
+                writeStatus(i, text);
+                shownStatus[i] = text;
+            }
+        }
+        frames++;
+        cellsWritten += changed;
+        cellCounter.add(changed);
+        flush();
+    }
+
+    private void writeCell(int x, int y, byte cell) {
+        if (buffer.remaining() < FLUSH_MARGIN) {
+            flushQuietly();
+        }
+        if (cursorRow != y || cursorCell != x) {
+            moveCursor(y + 1, x * COLUMNS_PER_CELL + 1);
+        }
+        if (currentStyle != cell) {
+            buffer.put(cellStyle[cell]);
+            currentStyle = cell;
+        }
+        buffer.put(cellGlyph[cell]);
+        cursorRow = y;
+        cursorCell = x + 1;
+    }
+
+    private void writeStatus(int index, String text) {
+        byte[] line = bytes(text);
+        if (buffer.remaining() < line.length + FLUSH_MARGIN) {
+            flushQuietly();
+        }
+        moveCursor(height + 1 + index, 1);
+        buffer.put(RESET_STYLE);
+        if (line.length <= buffer.remaining() - ERASE_LINE.length) {
+            buffer.put(line);
+        }
+        buffer.put(ERASE_LINE);
+        currentStyle = -1;
+        cursorRow = -1;  // 状态行宽度不按格子计算
+    }
+
+    /**
+     * CSI row ; col H（从 1 开始），直接写数字，不创建字符串
+     */
+    private void moveCursor(int row, int col) {
+        buffer.put((byte) 0x1b).put((byte) '[');
+        putDecimal(row);
+        buffer.put((byte) ';');
+        putDecimal(col);
+        buffer.put((byte) 'H');
+    }
+
+    private void putDecimal(int value) {
+        if (value >= 10) {
+            putDecimal(value / 10);
+        }
+        buffer.put((byte) ('0' + value % 10));
+    }
+
+    private void put(byte[] data) {
+        buffer.put(data);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += out.write(buffer);
+        }
+        buffer.clear();
+        bytesWritten += written;
+        byteCounter.add(written);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            buffer.clear();
+            System.err.println("[Terminal] 写出失败: " + e.getMessage());
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    public long getCellsWritten() {
+        return cellsWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public String summary() {
+        return String.format("frames=%d cells=%d bytes=%d (%.1f B/frame)", frames, cellsWritten, bytesWritten,
+                frames == 0 ? 0.0 : (double) bytesWritten / frames);
+    }
+}
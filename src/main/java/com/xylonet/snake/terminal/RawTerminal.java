@@ -0,0 +1,146 @@
+package com.xylonet.snake.terminal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 终端原始模式与按键读取（类 Unix，依赖 stty）
+ * - 进入时保存 stty 设置，切换为 raw -echo：按键不回显、不等回车，Ctrl-C 也作为普通字节读到
+ * - 退出时恢复原设置（也注册了关闭钩子，异常退出时同样恢复）
+ * - 方向键的 ESC [ A..D 序列解析为 {@link Key}
+ */
+public class RawTerminal {
+
+    public enum Key {
+        W, A, S, D,
+        UP, DOWN, LEFT, RIGHT,
+        SPACE, ESCAPE, P, R, Q,
+        REDRAW,     // Ctrl-L
+        INTERRUPT,  // Ctrl-C
+        OTHER
+    }
+
+    private static final long ESCAPE_WAIT_MS = 30;  // 单独按 ESC 与方向键序列的区分时间
+
+    private final InputStream in;
+    private String savedSettings;
+
+    public RawTerminal(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * 进入原始模式
+     * @throws IOException 没有可用的 stty 或 stdin 不是终端
+     */
+    public synchronized void enter() throws IOException {
+        if (savedSettings != null) {
+            return;
+        }
+        savedSettings = stty("-g").trim();
+        stty("raw", "-echo");
+        Runtime.getRuntime().addShutdownHook(new Thread(this::restore, "tty-restore"));
+    }
+
+    /**
+     * 恢复进入前的终端设置（可重复调用）
+     */
+    public synchronized void restore() {
+        if (savedSettings == null) {
+            return;
+        }
+        try {
+            stty(savedSettings);
+        } catch (IOException e) {
+            System.err.println("[Terminal] 无法恢复终端设置: " + e.getMessage());
+        }
+        savedSettings = null;
+    }
+
+    /**
+     * 阻塞读取一个按键
+     * @return 输入结束时返回 null
+     */
+    public Key readKey() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            return null;
+        }
+        switch (b) {
+            case 'w': case 'W': return Key.W;
+            case 'a': case 'A': return Key.A;
+            case 's': case 'S': return Key.S;
+            case 'd': case 'D': return Key.D;
+            case 'p': case 'P': return Key.P;
+            case 'r': case 'R': return Key.R;
+            case 'q': case 'Q': return Key.Q;
+            case ' ': return Key.SPACE;
+            case 0x03: return Key.INTERRUPT;
+            case 0x0c: return Key.REDRAW;
+            case 0x1b: return readEscape();
+            default: return Key.OTHER;
+        }
+    }
+
+    /**
+     * ESC 之后：短时间内跟着 [ 和 A..D 是方向键，否则是单独的 ESC
+     */
+    private Key readEscape() throws IOException {
+        if (!waitForInput()) {
+            return Key.ESCAPE;
+        }
+        int b = in.read();
+        if (b != '[' && b != 'O') {  // 部分终端在应用光标模式下发 ESC O A
+            return Key.ESCAPE;
+        }
+        switch (in.read()) {
+            case 'A': return Key.UP;
+            case 'B': return Key.DOWN;
+            case 'C': return Key.RIGHT;
+            case 'D': return Key.LEFT;
+            default: return Key.OTHER;
+        }
+    }
+
+    private boolean waitForInput() throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESCAPE_WAIT_MS);
+        while (in.available() == 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 运行 stty，标准输入接到控制终端（stty 作用于它的标准输入）
+     */
+    private static String stty(String... args) throws IOException {
+        String[] command = new String[args.length + 1];
+        command[0] = "stty";
+        System.arraycopy(args, 0, command, 1, args.length);
+        ProcessBuilder pb = new ProcessBuilder(command)
+                .redirectInput(ProcessBuilder.Redirect.from(new File("/dev/tty")))
+                .redirectErrorStream(true);
+        Process process = pb.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("stty " + String.join(" ", args) + " 失败: " + output.trim());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("stty 被中断", e);
+        }
+        return output;
+    }
+}
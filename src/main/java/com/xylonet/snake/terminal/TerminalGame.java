@@ -0,0 +1,205 @@
+package com.xylonet.snake.terminal;
+
+import com.xylonet.snake.event.EventBus;
+import com.xylonet.snake.event.EventSubscriber;
+import com.xylonet.snake.event.GameEvent;
+import com.xylonet.snake.game.Bullet;
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.game.GameEngine;
+import com.xylonet.snake.game.Snake;
+
+import javax.swing.SwingUtilities;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 终端模式入口（无需 X，可通过 SSH 运行）：
+ * java -cp "out:lib/*" com.xylonet.snake.terminal.TerminalGame
+ * - 游戏引擎与 Swing 版相同（Swing 定时器在无头模式下照常在 EDT 上驱动游戏循环），
+ *   画面由 {@link AnsiScreen} 按差异输出，按键由 {@link RawTerminal} 在原始模式下读取
+ * - 日志输出（System.out / System.err）转到 data/terminal.log，不干扰画面
+ * - 终端至少需要 128 列 x 66 行；符号显示成双宽时加 -Dxylonet.tty.ascii=true
+ * - 终端模式不启动 Python AI 服务，没有实时建议和 MBTI 分析
+ */
+public class TerminalGame implements EventSubscriber {
+    private static final String DEFAULT_LOG = "data/terminal.log";
+    private static final String HELP = "SPACE 开始/暂停  WASD 移动  方向键 射击  P 暂停  R 重开  Ctrl-L 重画  Q 退出";
+
+    private final GameEngine engine;
+    private final AnsiScreen screen;
+    private final RawTerminal terminal;
+    private final PrintStream console;  // 原来的标准输出，退出后打印统计
+
+    // 状态行（只在 EDT 上访问）
+    private int score;
+    private int length;
+    private int level = 1;
+    private int remainingSeconds;
+    private String message = HELP;
+    private boolean statusDirty = true;
+    private GameBoard pendingBoard;
+
+    private TerminalGame(AnsiScreen screen, RawTerminal terminal, PrintStream console) {
+        this.screen = screen;
+        this.terminal = terminal;
+        this.console = console;
+        EventBus eventBus = new EventBus(true);
+        eventBus.subscribe("tty", EventBus.Delivery.EDT, this);
+        this.engine = new GameEngine(eventBus);
+        this.pendingBoard = engine.getBoard();
+    }
+
+    // ===== 事件（EDT） =====
+
+    @Override
+    public void onEvent(GameEvent event) {
+        if (event instanceof GameEvent.FrameUpdated) {
+            pendingBoard = ((GameEvent.FrameUpdated) event).board;
+            return;
+        }
+        if (event instanceof GameEvent.ScoreChanged) {
+            score = ((GameEvent.ScoreChanged) event).score;
+        } else if (event instanceof GameEvent.LengthChanged) {
+            length = ((GameEvent.LengthChanged) event).length;
+        } else if (event instanceof GameEvent.LevelChanged) {
+            level = ((GameEvent.LevelChanged) event).level;
+        } else if (event instanceof GameEvent.TimeChanged) {
+            remainingSeconds = ((GameEvent.TimeChanged) event).remainingSeconds;
+        } else if (event instanceof GameEvent.GameStarted || event instanceof GameEvent.LevelStarted
+                || event instanceof GameEvent.GameResumed) {
+            message = "";
+        } else if (event instanceof GameEvent.GamePaused) {
+            message = "已暂停，按 SPACE 继续";
+        } else if (event instanceof GameEvent.LevelCompleted) {
+            message = "LEVEL " + ((GameEvent.LevelCompleted) event).completedLevel + " COMPLETE! 按 SPACE 继续";
+            pendingBoard = engine.getBoard();
+        } else if (event instanceof GameEvent.GameOver) {
+            message = (((GameEvent.GameOver) event).reason == GameEvent.GameOver.Reason.TIMEOUT ? "TIME'S UP" : "GAME OVER")
+                    + "  按 R 重新开始，Q 退出";
+            pendingBoard = engine.getBoard();
+        } else {
+            return;
+        }
+        statusDirty = true;
+    }
+
+    @Override
+    public void onBatchComplete() {
+        if (pendingBoard == null && !statusDirty) {
+            return;
+        }
+        render(pendingBoard != null ? pendingBoard : engine.getBoard());
+    }
+
+    private void render(GameBoard board) {
+        if (statusDirty) {
+            screen.setStatusLine(0, String.format("Score %-6d Length %-5d Level %-3d Time %ds",
+                    score, length, level, remainingSeconds));
+            screen.setStatusLine(1, message);
+            statusDirty = false;
+        }
+        pendingBoard = null;
+        try {
+            screen.render(board);
+        } catch (IOException e) {
+            System.err.println("[Terminal] 画面输出失败: " + e.getMessage());
+        }
+    }
+
+    // ===== 按键（EDT） =====
+
+    private void handleKey(RawTerminal.Key key) {
+        switch (key) {
+            case W: engine.moveSnake(Snake.Direction.UP); break;
+            case S: engine.moveSnake(Snake.Direction.DOWN); break;
+            case A: engine.moveSnake(Snake.Direction.LEFT); break;
+            case D: engine.moveSnake(Snake.Direction.RIGHT); break;
+            case UP: engine.shoot(Bullet.Direction.UP); break;
+            case DOWN: engine.shoot(Bullet.Direction.DOWN); break;
+            case LEFT: engine.shoot(Bullet.Direction.LEFT); break;
+            case RIGHT: engine.shoot(Bullet.Direction.RIGHT); break;
+            case SPACE:
+                GameEngine.GameState state = engine.getState();
+                if (state == GameEngine.GameState.READY || state == GameEngine.GameState.GAME_OVER
+                        || state == GameEngine.GameState.LEVEL_COMPLETE) {
+                    engine.start();
+                } else {
+                    engine.togglePause();
+                }
+                break;
+            case P:
+            case ESCAPE:
+                engine.togglePause();
+                break;
+            case R:
+                engine.restart();
+                break;
+            case REDRAW:
+                screen.invalidate();
+                statusDirty = true;
+                render(engine.getBoard());
+                break;
+            case Q:
+            case INTERRUPT:
+                quit();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void quit() {
+        engine.stop();
+        try {
+            screen.close();
+        } catch (IOException e) {
+            System.err.println("[Terminal] 无法恢复画面: " + e.getMessage());
+        }
+        terminal.restore();
+        console.println("[Terminal] " + screen.summary());
+        System.exit(0);
+    }
+
+    /**
+     * 按键读取循环（主线程），每个按键交给 EDT 处理，与游戏循环在同一线程
+     */
+    private void readKeys() throws IOException {
+        RawTerminal.Key key;
+        while ((key = terminal.readKey()) != null) {
+            RawTerminal.Key pressed = key;
+            SwingUtilities.invokeLater(() -> handleKey(pressed));
+        }
+        SwingUtilities.invokeLater(this::quit);  // 标准输入关闭
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        boolean ascii = Boolean.getBoolean("xylonet.tty.ascii");
+        PrintStream console = System.out;
+
+        RawTerminal terminal = new RawTerminal(System.in);
+        try {
+            terminal.enter();
+        } catch (IOException e) {
+            System.err.println("[Terminal] 无法进入原始模式（需要类 Unix 终端）: " + e.getMessage());
+            System.exit(1);
+        }
+
+        // 日志转到文件；画面直接写 stdout 的文件描述符，不受影响
+        PrintStream log = new PrintStream(new FileOutputStream(System.getProperty("xylonet.tty.log", DEFAULT_LOG), true),
+                true, StandardCharsets.UTF_8);
+        System.setOut(log);
+        System.setErr(log);
+
+        AnsiScreen screen = new AnsiScreen(GameBoard.GRID_SIZE, GameBoard.GRID_SIZE, 2, ascii);
+        screen.open();
+        TerminalGame[] game = new TerminalGame[1];
+        SwingUtilities.invokeAndWait(() -> {
+            game[0] = new TerminalGame(screen, terminal, console);
+            game[0].render(game[0].engine.getBoard());
+        });
+        game[0].readKeys();
+    }
+}
@@ -0,0 +1,196 @@
+package com.xylonet.snake.tools;
+
+import com.xylonet.snake.analysis.BehaviorFeatures;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.network.AIClient;
+import com.xylonet.snake.network.Endpoint;
+import com.xylonet.snake.network.StubAIServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIClient 压测工具
+ * 启动 N 个并发客户端，持续发送请求并统计往返延迟（p50/p99/p999）与吞吐量
+ *
+ * 用法:
+ *   java -cp "out:lib/*" com.xylonet.snake.tools.AILoadGenerator [选项]
+ *     --clients N        并发客户端数（默认 4）
+ *     --duration S       压测时长，秒（默认 10）
+ *     --warmup S         预热时长，秒（默认 2，不计入统计）
+ *     --mode M           ping | analysis（默认 ping）
+ *     --target H:P       压测已运行的服务；省略时启动 JVM 内桩服务
+ *     --latency US       桩服务固定延迟，微秒（默认 0）
+ *     --jitter US        桩服务随机抖动，微秒（默认 0）
+ *     --drop R           桩服务丢弃响应概率（默认 0）
+ *     --disconnect R     桩服务断开连接概率（默认 0）
+ */
+public class AILoadGenerator {
+    private static final long DISCONNECTED_WAIT_MS = 50;  // 未连接（或熔断打开）时的等待间隔
+
+    public static void main(String[] args) throws Exception {
+        int clients = 4;
+        int durationSec = 10;
+        int warmupSec = 2;
+        String mode = "ping";
+        String target = null;
+        long latencyMicros = 0;
+        long jitterMicros = 0;
+        double dropRate = 0.0;
+        double disconnectRate = 0.0;
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                System.err.println("参数缺少取值: " + args[i]);
+                System.exit(1);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--clients": clients = Integer.parseInt(value); break;
+                case "--duration": durationSec = Integer.parseInt(value); break;
+                case "--warmup": warmupSec = Integer.parseInt(value); break;
+                case "--mode": mode = value; break;
+                case "--target": target = value; break;
+                case "--latency": latencyMicros = Long.parseLong(value); break;
+                case "--jitter": jitterMicros = Long.parseLong(value); break;
+                case "--drop": dropRate = Double.parseDouble(value); break;
+                case "--disconnect": disconnectRate = Double.parseDouble(value); break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        StubAIServer stub = null;
+        Endpoint endpoint;
+        if (target == null) {
+            stub = new StubAIServer();
+            stub.setLatency(latencyMicros, jitterMicros);
+            stub.setDropRate(dropRate);
+            stub.setDisconnectRate(disconnectRate);
+            endpoint = stub.start();
+        } else {
+            String[] hostPort = target.split(":");
+            endpoint = new Endpoint(hostPort[0], Integer.parseInt(hostPort[1]));
+        }
+
+        System.out.printf("[LoadGen] 目标 %s, 客户端 %d, 模式 %s, 预热 %ds, 时长 %ds%n",
+                endpoint, clients, mode, warmupSec, durationSec);
+
+        Result result = run(endpoint, clients, mode, warmupSec, durationSec);
+        result.print();
+
+        if (stub != null) {
+            stub.stop();
+        }
+    }
+
+    /**
+     * 执行一次压测
+     */
+    public static Result run(Endpoint endpoint, int clientCount, String mode,
+                             int warmupSec, int durationSec) throws InterruptedException {
+        List<AIClient> clients = new ArrayList<>();
+        for (int i = 0; i < clientCount; i++) {
+            AIClient client = new AIClient();
+            if (!client.connect(endpoint.getHost(), endpoint.getPort())) {
+                System.err.println("[LoadGen] 客户端 #" + i + " 连接失败，继续（后台重连）");
+            }
+            clients.add(client);
+        }
+
+        boolean analysis = "analysis".equals(mode);
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicLong failures = new AtomicLong();
+        AtomicLong disconnectedMillis = new AtomicLong();
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + TimeUnit.SECONDS.toNanos(warmupSec);
+        long endNanos = measureFrom + TimeUnit.SECONDS.toNanos(durationSec);
+        CountDownLatch done = new CountDownLatch(clientCount);
+
+        for (AIClient client : clients) {
+            Thread worker = new Thread(() -> {
+                try {
+                    BehaviorFeatures features = new BehaviorFeatures();
+                    long now;
+                    while ((now = System.nanoTime()) < endNanos) {
+                        // 未连接或熔断打开时请求会立即失败，等待重连而不是空转计数
+                        if (!client.isConnected()) {
+                            Thread.sleep(DISCONNECTED_WAIT_MS);
+                            if (now >= measureFrom) {
+                                disconnectedMillis.addAndGet(DISCONNECTED_WAIT_MS);
+                            }
+                            continue;
+                        }
+                        boolean ok;
+                        if (analysis) {
+                            features.totalActions++;
+                            ok = client.requestAnalysis(features).get() != null;
+                        } else {
+                            ok = client.sendPing();
+                        }
+                        long elapsed = System.nanoTime() - now;
+                        if (now >= measureFrom) {
+                            if (ok) {
+                                histogram.record(elapsed);
+                            } else {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    System.err.println("[LoadGen] 客户端异常: " + e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            }, "loadgen-client");
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        done.await();
+        for (AIClient client : clients) {
+            client.disconnect();
+        }
+        return new Result(histogram, failures.get(), disconnectedMillis.get(), durationSec);
+    }
+
+    /**
+     * 压测结果
+     */
+    public static class Result {
+        public final LatencyHistogram histogram;
+        public final long failures;
+        public final long disconnectedMillis;  // 各客户端等待重连的时间合计
+        public final int durationSec;
+
+        Result(LatencyHistogram histogram, long failures, long disconnectedMillis, int durationSec) {
+            this.histogram = histogram;
+            this.failures = failures;
+            this.disconnectedMillis = disconnectedMillis;
+            this.durationSec = durationSec;
+        }
+
+        public double messagesPerSecond() {
+            return durationSec > 0 ? (double) histogram.getCount() / durationSec : 0.0;
+        }
+
+        public void print() {
+            System.out.println("========== 压测结果 ==========");
+            System.out.printf("成功: %d  失败: %d  吞吐: %.1f msg/s%n",
+                    histogram.getCount(), failures, messagesPerSecond());
+            if (disconnectedMillis > 0) {
+                System.out.printf("未连接等待: %.1fs（各客户端合计）%n", disconnectedMillis / 1000.0);
+            }
+            System.out.printf("p50=%.3fms  p99=%.3fms  p999=%.3fms  max=%.3fms  mean=%.3fms%n",
+                    histogram.getValueAtPercentile(50) / 1e6,
+                    histogram.getValueAtPercentile(99) / 1e6,
+                    histogram.getValueAtPercentile(99.9) / 1e6,
+                    histogram.getMax() / 1e6,
+                    histogram.getMean() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.xylonet.snake.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.network.Endpoint;
+import com.xylonet.snake.network.StubAIServer;
+import com.xylonet.snake.network.TrafficCapture;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AI 通信回放工具
+ * 读取 {@link TrafficCapture} 抓包文件，按原始节奏（或加速 / 全速）把发出的消息重新发送给服务，
+ * 统计吞吐量与各消息类型的延迟分布，并与抓包时记录的延迟对比
+ *
+ * 响应与请求的匹配见 {@link PendingRequests}：HINT 按 tick 匹配 TICK_STATE（服务可能不应答某些帧），
+ * 其余按响应类型各自 FIFO 匹配；抓包中的连接断开标记会清空待匹配的请求，计为未应答。
+ * RING_ATTACH 等依赖抓包现场的消息不回放（共享内存帧不存在时服务按普通 TICK_STATE 处理）
+ *
+ * 用法:
+ *   java -cp "out:lib/*" com.xylonet.snake.tools.AITrafficReplay --capture FILE [选项]
+ *     --speed X          1 = 原速，N = N 倍速，max = 全速（默认 1）
+ *     --target H:P       回放到已运行的服务；省略时启动 JVM 内桩服务
+ *     --window N         全速时最多在途请求数（默认 256）
+ *     --latency US       桩服务固定延迟，微秒（默认 0）
+ */
+public class AITrafficReplay {
+    private static final Set<String> REPLAYABLE = new HashSet<>(
+            Arrays.asList("PING", "TICK_STATE", "GAME_STATE", "REQUEST_ANALYSIS"));
+    private static final Gson GSON = new Gson();
+    private static final long RESPONSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(2);  // 与 AIClient 的 PING 超时相同
+    // 请求类型 -> 应答类型（TICK_STATE 的 HINT 另按 tick 匹配）
+    private static final Map<String, String> RESPONSE_TYPES = Map.of(
+            "PING", "PONG",
+            "GAME_STATE", "GAME_STATE_ACK",
+            "REQUEST_ANALYSIS", "ANALYSIS_RESULT",
+            "RING_ATTACH", "RING_ATTACHED");
+
+    public static void main(String[] args) throws Exception {
+        String capturePath = null;
+        double speed = 1.0;
+        String target = null;
+        int window = 256;
+        long latencyMicros = 0;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--capture": capturePath = value; break;
+                case "--speed": speed = "max".equals(value) ? 0 : Double.parseDouble(value); break;
+                case "--target": target = value; break;
+                case "--window": window = Integer.parseInt(value); break;
+                case "--latency": latencyMicros = Long.parseLong(value); break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (capturePath == null) {
+            System.err.println("缺少 --capture 参数");
+            System.exit(1);
+        }
+
+        List<TrafficCapture.Record> records = TrafficCapture.read(Paths.get(capturePath));
+        System.out.printf("[Replay] 读取 %d 条记录: %s%n", records.size(), capturePath);
+
+        Report baseline = baseline(records);
+        System.out.println("========== 抓包时延迟（基线） ==========");
+        baseline.print();
+
+        StubAIServer stub = null;
+        Endpoint endpoint;
+        if (target == null) {
+            stub = new StubAIServer();
+            stub.setLatency(latencyMicros, 0);
+            endpoint = stub.start();
+        } else {
+            String[] hostPort = target.split(":");
+            endpoint = new Endpoint(hostPort[0], Integer.parseInt(hostPort[1]));
+        }
+
+        System.out.printf("[Replay] 目标 %s, 速度 %s%n", endpoint, speed > 0 ? speed + "x" : "max");
+        Report report = replay(records, endpoint, speed, window);
+        System.out.println("========== 回放结果 ==========");
+        report.print();
+
+        if (stub != null) {
+            stub.stop();
+        }
+    }
+
+    /**
+     * 回放一次
+     * @param speed 速度倍数，0 表示全速
+     * @param window 全速时的最大在途请求数
+     */
+    public static Report replay(List<TrafficCapture.Record> records, Endpoint endpoint,
+                                double speed, int window) throws IOException, InterruptedException {
+        List<TrafficCapture.Record> outbound = new ArrayList<>();
+        for (TrafficCapture.Record record : records) {
+            if (record.isOutbound() && REPLAYABLE.contains(typeOf(record.message))) {
+                outbound.add(record);
+            }
+        }
+
+        Report report = new Report();
+        Semaphore permits = new Semaphore(speed > 0 ? Integer.MAX_VALUE : window);
+        // 应答或判定为不会应答的请求都归还一个在途名额
+        PendingRequests pending = new PendingRequests(report, permits::release);
+
+        try (Socket socket = new Socket(endpoint.getHost(), endpoint.getPort())) {
+            socket.setTcpNoDelay(true);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            Thread readerThread = new Thread(() -> {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        pending.onResponse(line, System.nanoTime());
+                    }
+                } catch (IOException e) {
+                    if (!socket.isClosed()) {
+                        System.err.println("[Replay] 读取响应失败: " + e.getMessage());
+                    }
+                }
+            }, "replay-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+
+            long startNanos = System.nanoTime();
+            long firstNanos = outbound.isEmpty() ? 0 : outbound.get(0).nanos;
+            for (TrafficCapture.Record record : outbound) {
+                if (speed > 0) {
+                    long due = startNanos + (long) ((record.nanos - firstNanos) / speed);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                // 服务丢弃的应答永远不会归还名额：等待过久的请求计为未应答
+                while (!permits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    pending.expire(System.nanoTime() - RESPONSE_TIMEOUT_NANOS);
+                }
+                pending.onRequest(record.message, System.nanoTime());
+                writer.write(record.message);
+                writer.write('\n');
+                writer.flush();
+            }
+
+            // 等所有请求应答或超时，随后关闭连接让读线程退出
+            while (!pending.isEmpty() && readerThread.isAlive()) {
+                pending.expire(System.nanoTime() - RESPONSE_TIMEOUT_NANOS);
+                LockSupport.parkNanos(100_000);
+            }
+            report.elapsedNanos = System.nanoTime() - startNanos;
+            pending.dropAll();
+        }
+        return report;
+    }
+
+    /**
+     * 从抓包中的收发时间计算原始延迟（匹配规则与回放相同）
+     */
+    public static Report baseline(List<TrafficCapture.Record> records) {
+        Report report = new Report();
+        PendingRequests pending = new PendingRequests(report, () -> { });
+        for (TrafficCapture.Record record : records) {
+            if (record.isDisconnect()) {
+                pending.dropAll();
+            } else if (record.isOutbound()) {
+                pending.onRequest(record.message, record.nanos);
+            } else {
+                pending.onResponse(record.message, record.nanos);
+            }
+        }
+        if (!records.isEmpty()) {
+            report.elapsedNanos = records.get(records.size() - 1).nanos - records.get(0).nanos;
+        }
+        pending.dropAll();
+        return report;
+    }
+
+    /**
+     * 等待应答的请求（一个写线程、一个读线程）
+     * - TICK_STATE 按 tick 记录，HINT 按 tick 取出；服务按顺序处理，收到 tick t 的 HINT 时
+     *   更早的 TICK_STATE 不会再有应答（如共享内存帧已被覆盖时服务不回 HINT），计为未应答
+     * - 其余请求按应答类型分别排队 FIFO 匹配，一种消息丢了应答不会让其他类型错位
+     * - 不在 RESPONSE_TYPES 中、也不是 TICK_STATE 的请求不等待应答
+     */
+    static final class PendingRequests {
+        private final Report report;
+        private final Runnable onResolved;
+        private final ConcurrentSkipListMap<Long, Pending> ticks = new ConcurrentSkipListMap<>();
+        private final Map<String, Queue<Pending>> byResponse = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        PendingRequests(Report report, Runnable onResolved) {
+            this.report = report;
+            this.onResolved = onResolved;
+        }
+
+        void onRequest(String message, long nanos) {
+            JsonObject json = parse(message);
+            String type = typeOf(json);
+            Pending request = new Pending(type, nanos);
+            if ("TICK_STATE".equals(type) && json.has("tick")) {
+                size.incrementAndGet();
+                if (ticks.put(json.get("tick").getAsLong(), request) != null) {
+                    lost();  // 同一 tick 重发（如重连后），旧的不再等待
+                }
+            } else if (RESPONSE_TYPES.containsKey(type)) {
+                size.incrementAndGet();
+                byResponse.computeIfAbsent(RESPONSE_TYPES.get(type), t -> new ConcurrentLinkedQueue<>()).add(request);
+            } else {
+                onResolved.run();  // 不会有应答，直接归还名额
+            }
+        }
+
+        void onResponse(String message, long nanos) {
+            JsonObject json = parse(message);
+            String type = typeOf(json);
+            if ("HINT".equals(type) && json.has("tick")) {
+                long tick = json.get("tick").getAsLong();
+                Map.Entry<Long, Pending> older;
+                while ((older = ticks.firstEntry()) != null && older.getKey() < tick) {
+                    if (ticks.remove(older.getKey(), older.getValue())) {
+                        lost();
+                    }
+                }
+                matched(ticks.remove(tick), nanos);
+                return;
+            }
+            Queue<Pending> queue = byResponse.get(type);
+            if (queue != null) {
+                matched(queue.poll(), nanos);
+            }
+        }
+
+        /**
+         * 发出时刻早于 cutoffNanos 的请求计为未应答（各队列按发出顺序排列，只看队首）
+         */
+        void expire(long cutoffNanos) {
+            Map.Entry<Long, Pending> oldest;
+            while ((oldest = ticks.firstEntry()) != null && oldest.getValue().nanos < cutoffNanos) {
+                if (ticks.remove(oldest.getKey(), oldest.getValue())) {
+                    lost();
+                }
+            }
+            for (Queue<Pending> queue : byResponse.values()) {
+                Pending head;
+                while ((head = queue.peek()) != null && head.nanos < cutoffNanos) {
+                    if (queue.remove(head)) {
+                        lost();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 连接断开或结束统计：剩余请求都计为未应答
+         */
+        void dropAll() {
+            while (ticks.pollFirstEntry() != null) {
+                lost();
+            }
+            for (Queue<Pending> queue : byResponse.values()) {
+                while (queue.poll() != null) {
+                    lost();
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return size.get() == 0;
+        }
+
+        /**
+         * @param request 匹配到的请求；为 null 时是多余的应答（对应请求已计为未应答），忽略
+         */
+        private void matched(Pending request, long responseNanos) {
+            if (request != null) {
+                report.record(request.type, responseNanos - request.nanos);
+                size.decrementAndGet();
+                onResolved.run();
+            }
+        }
+
+        private void lost() {
+            report.addLost();
+            size.decrementAndGet();
+            onResolved.run();
+        }
+    }
+
+    private static final class Pending {
+        final String type;
+        final long nanos;
+
+        Pending(String type, long nanos) {
+            this.type = type;
+            this.nanos = nanos;
+        }
+    }
+
+    private static JsonObject parse(String message) {
+        try {
+            return GSON.fromJson(message, JsonObject.class);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String typeOf(JsonObject json) {
+        return json != null && json.has("type") ? json.get("type").getAsString() : "UNKNOWN";
+    }
+
+    private static String typeOf(String message) {
+        return typeOf(parse(message));
+    }
+
+    /**
+     * 回放 / 基线统计：总体与按消息类型的延迟直方图
+     */
+    public static class Report {
+        public final LatencyHistogram overall = new LatencyHistogram();
+        public final Map<String, LatencyHistogram> byType = new TreeMap<>();
+        public long elapsedNanos;
+        public long lost;
+
+        synchronized void addLost() {
+            lost++;
+        }
+
+        synchronized void record(String type, long nanos) {
+            overall.record(nanos);
+            byType.computeIfAbsent(type, t -> new LatencyHistogram()).record(nanos);
+        }
+
+        public double messagesPerSecond() {
+            return elapsedNanos > 0 ? overall.getCount() * 1e9 / elapsedNanos : 0.0;
+        }
+
+        public void print() {
+            System.out.printf("应答: %d  未应答: %d  耗时: %.2fs  吞吐: %.1f msg/s%n",
+                    overall.getCount(), lost, elapsedNanos / 1e9, messagesPerSecond());
+            System.out.println("  ALL              " + overall.summary());
+            for (Map.Entry<String, LatencyHistogram> entry : byType.entrySet()) {
+                System.out.printf("  %-16s %s%n", entry.getKey(), entry.getValue().summary());
+            }
+        }
+    }
+}
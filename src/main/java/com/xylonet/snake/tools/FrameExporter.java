@@ -0,0 +1,564 @@
+package com.xylonet.snake.tools;
+
+import com.xylonet.snake.game.BoardSnapshot;
+import com.xylonet.snake.replay.BoardRecording;
+import com.xylonet.snake.ui.GamePanel;
+import com.xylonet.snake.ui.RasterRenderer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 录像导出工具（无头运行，不需要显示器）
+ * 读取 {@link BoardRecording} 录像，用 {@link RasterRenderer}（与 GamePanel 逐像素一致）渲染每一帧，
+ * 导出为 PNG 序列或 GIF 动画（覆盖层文字不在录像中，不导出）
+ *
+ * 流水线:
+ * - 读取线程顺序解码录像，每帧一份格子快照，编号后交给渲染线程池
+ * - 渲染线程各用自己的 RasterRenderer 并行渲染，并在本线程完成编码前的重活
+ *   （按固定调色板转成索引色；PNG 整帧压缩，GIF 只转换与上一帧不同的矩形）
+ * - 主线程按编号从重排缓冲取结果依次写出。在途帧数由信号量限制（解码前获取、写出后释放），
+ *   重排缓冲和内存占用都有上界，慢帧只会让读取暂停，不会无限堆积
+ *
+ * 用法:
+ *   java -cp "out:lib/*" com.xylonet.snake.tools.FrameExporter --input FILE --output PATH [选项]
+ *     --format png|gif   png = 目录下的 frame-000000.png 序列，gif = 单个动画文件（默认按输出扩展名判断）
+ *     --fps N            按固定帧率重采样（PNG 序列交给 ffmpeg 时使用）；省略时每条录像记录一帧，按录制间隔显示
+ *     --cell N           格子像素（默认 10，与游戏画面一致）
+ *     --threads N        渲染线程数（默认 CPU 核数）
+ *     --no-hint          不画 AI 建议方框
+ */
+public class FrameExporter {
+    public enum Format { PNG, GIF }
+
+    private static final long LAST_FRAME_MS = 1000;   // 最后一帧没有下一条记录决定时长，固定显示 1 秒
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+    private static final int MIN_GIF_DELAY_CS = 2;     // 浏览器把 0–1 厘秒的延迟当成 10 厘秒
+    private static final Object END = new Object();
+
+    private final Path input;
+    private final Path output;
+    private final Format format;
+    private final int fps;
+    private final int cellSize;
+    private final int threads;
+    private final boolean drawHint;
+
+    // 统计（读取线程写，join 之后主线程读）
+    private long records;
+    private long recordedMillis;  // 最后一条记录距开始录制的毫秒数
+
+    public FrameExporter(Path input, Path output, Format format, int fps, int cellSize, int threads, boolean drawHint) {
+        this.input = input;
+        this.output = output;
+        this.format = format;
+        this.fps = fps;
+        this.cellSize = cellSize;
+        this.threads = Math.max(1, threads);
+        this.drawHint = drawHint;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        String input = null;
+        String output = null;
+        String format = null;
+        int fps = 0;
+        int cellSize = GamePanel.CELL_SIZE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean drawHint = true;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--no-hint")) {
+                drawHint = false;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.err.println("缺少参数值: " + args[i]);
+                System.exit(1);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--input": input = value; break;
+                case "--output": output = value; break;
+                case "--format": format = value; break;
+                case "--fps": fps = Integer.parseInt(value); break;
+                case "--cell": cellSize = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                default:
+                    System.err.println("未知参数: " + args[i - 1]);
+                    System.exit(1);
+            }
+        }
+        if (input == null || output == null) {
+            System.err.println("缺少 --input 或 --output 参数");
+            System.exit(1);
+        }
+        if (format == null) {
+            format = output.toLowerCase().endsWith(".gif") ? "gif" : "png";
+        }
+
+        FrameExporter exporter = new FrameExporter(Paths.get(input), Paths.get(output),
+                Format.valueOf(format.toUpperCase()), fps, cellSize, threads, drawHint);
+        long start = System.nanoTime();
+        long frames = exporter.export();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double recorded = exporter.recordedMillis / 1000.0;
+        System.out.printf("[Export] %d 条记录 -> %d 帧 %s: %s%n", exporter.records, frames, format, output);
+        System.out.printf("[Export] 耗时 %.2fs（%.0f 帧/秒，%d 线程），录像时长 %.1fs，%.1f 倍实时%n",
+                seconds, frames / seconds, exporter.threads, recorded, recorded / seconds);
+    }
+
+    /**
+     * 导出整个录像
+     * @return 写出的帧数（PNG 为文件数，GIF 为动画帧数）
+     */
+    public long export() throws IOException, InterruptedException {
+        int capacity = threads * IN_FLIGHT_PER_THREAD;
+        ReorderBuffer buffer = new ReorderBuffer(capacity);
+        Semaphore inFlight = new Semaphore(capacity);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "export-render-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (BoardRecording.Reader reader = BoardRecording.open(input)) {
+            Palette palette = new Palette(new RasterRenderer(cellSize).palette());
+            ThreadLocal<RasterRenderer> renderers = ThreadLocal.withInitial(() -> new RasterRenderer(cellSize));
+            Thread readerThread = new Thread(() -> decode(reader, pool, buffer, inFlight, renderers, palette),
+                    "export-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+
+            long written = 0;
+            try (FrameSink sink = format == Format.GIF ? new GifSink(output) : new PngSink(output)) {
+                for (int seq = 0; ; seq++) {
+                    Object result = buffer.take(seq);
+                    if (result == END) {
+                        break;
+                    }
+                    if (result instanceof Throwable) {
+                        throw new IOException("导出第 " + seq + " 帧失败: " + result, (Throwable) result);
+                    }
+                    written += sink.write((Frame) result);
+                    inFlight.release();
+                }
+            } finally {
+                readerThread.interrupt();
+                readerThread.join();
+            }
+            return written;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ===== 读取线程 =====
+
+    /**
+     * 顺序解码录像并提交渲染任务；出错时在当前编号放入异常，正常结束时放入 END
+     */
+    private void decode(BoardRecording.Reader reader, ExecutorService pool, ReorderBuffer buffer, Semaphore inFlight,
+                        ThreadLocal<RasterRenderer> renderers, Palette palette) {
+        int seq = 0;
+        try {
+            byte[] emitted = null;  // 上一个输出帧的格子（GIF 只编码与它不同的矩形）
+            int emittedHint = -1;
+            long frameIndex = 0;    // --fps 时下一个输出帧的编号
+            boolean more = reader.next();
+            while (more) {
+                BoardSnapshot snapshot = new BoardSnapshot(reader.width, reader.height);
+                reader.copyCells(snapshot.cells);
+                int hintX = drawHint ? reader.getHintX() : -1;
+                int hintY = drawHint ? reader.getHintY() : -1;
+                long start = reader.getMillis();
+                records++;
+                more = reader.next();
+                long end = more ? reader.getMillis() : start + LAST_FRAME_MS;
+                recordedMillis = start;
+
+                int repeat = 1;
+                long durationMs = end - start;
+                if (fps > 0) {
+                    // 输出帧 k 的时刻为 k * 1000 / fps，落在 [start, end) 内的都显示这条记录
+                    repeat = 0;
+                    while (frameIndex * 1000 / fps < end) {
+                        frameIndex++;
+                        repeat++;
+                    }
+                    if (repeat == 0) {
+                        continue;  // 两个输出帧之间的记录，被下一条覆盖
+                    }
+                    durationMs = repeat * 1000L / fps;
+                }
+
+                Job job = new Job(snapshot, hintX, hintY, durationMs, repeat);
+                if (format == Format.GIF) {
+                    int hint = hintX >= 0 ? hintY * reader.width + hintX : -1;
+                    changedBounds(job, emitted, snapshot.cells, reader.width, emittedHint, hint);
+                    emitted = snapshot.cells;
+                    emittedHint = hint;
+                }
+
+                inFlight.acquire();
+                int frameSeq = seq++;
+                pool.execute(() -> {
+                    Object result;
+                    try {
+                        result = render(job, renderers.get(), palette);
+                    } catch (IOException | RuntimeException e) {
+                        result = e;
+                    }
+                    buffer.put(frameSeq, result);
+                });
+            }
+            inFlight.acquire();
+            buffer.put(seq, END);
+        } catch (InterruptedException e) {
+            // 主线程出错退出
+        } catch (IOException | RuntimeException e) {
+            try {
+                inFlight.acquire();
+                buffer.put(seq, e);
+            } catch (InterruptedException ignored) {
+                // 主线程出错退出
+            }
+        }
+    }
+
+    /**
+     * 与上一输出帧相比变化的格子矩形（含新旧建议格），没有上一帧时为整盘；没有变化时取 1 格
+     */
+    private static void changedBounds(Job job, byte[] previous, byte[] cells, int width, int previousHint, int hint) {
+        int height = cells.length / width;
+        if (previous == null) {
+            job.setBounds(0, 0, width - 1, height - 1);
+            return;
+        }
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != previous[i] || (i == hint) != (i == previousHint)) {
+                int x = i % width;
+                int y = i / width;
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        if (maxX < 0) {
+            job.setBounds(0, 0, 0, 0);
+        } else {
+            job.setBounds(minX, minY, maxX, maxY);
+        }
+    }
+
+    // ===== 渲染线程 =====
+
+    private Frame render(Job job, RasterRenderer renderer, Palette palette) throws IOException {
+        BufferedImage image = renderer.render(job.snapshot, job.hintX, job.hintY);
+        if (format == Format.PNG) {
+            // 调色板 PNG：每像素 4 位，压缩的数据量只有 RGB 的几分之一
+            BufferedImage indexed = palette.toIndexed(image, 0, 0, image.getWidth(), image.getHeight());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+            ImageIO.write(indexed, "png", bytes);
+            return new Frame(bytes.toByteArray(), null, 0, 0, job.durationMs, job.repeat);
+        }
+        int left = job.minX * cellSize;
+        int top = job.minY * cellSize;
+        int width = (job.maxX - job.minX + 1) * cellSize;
+        int height = (job.maxY - job.minY + 1) * cellSize;
+        BufferedImage indexed = palette.toIndexed(image, left, top, width, height);
+        return new Frame(null, indexed, left, top, job.durationMs, job.repeat);
+    }
+
+    /**
+     * 固定调色板：渲染器可能输出的全部颜色，逐像素查表转成索引色（同色连续段只查一次）
+     * 颜色不超过 16 种时每像素按 1/2/4 位打包（TYPE_BYTE_BINARY），编码的数据量更小
+     */
+    private static final class Palette {
+        private final IndexColorModel colorModel;
+        private final int bits;  // 每像素位数：1、2、4 或 8
+        private final Map<Integer, Integer> indexOf = new HashMap<>();
+
+        Palette(int[] colors) {
+            if (colors.length > 256) {
+                throw new IllegalArgumentException("颜色数 " + colors.length + " 超过调色板上限 256");
+            }
+            int bits = 1;
+            while ((1 << bits) < colors.length) {
+                bits++;
+            }
+            this.bits = bits == 3 ? 4 : bits > 4 ? 8 : bits;
+            int size = 1 << this.bits;
+            byte[] r = new byte[size];
+            byte[] g = new byte[size];
+            byte[] b = new byte[size];
+            for (int i = 0; i < colors.length; i++) {
+                r[i] = (byte) (colors[i] >> 16);
+                g[i] = (byte) (colors[i] >> 8);
+                b[i] = (byte) colors[i];
+                indexOf.put(colors[i], i);
+            }
+            colorModel = new IndexColorModel(this.bits, size, r, g, b);
+        }
+
+        BufferedImage toIndexed(BufferedImage image, int left, int top, int width, int height) {
+            int[] src = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            int stride = image.getWidth();
+            BufferedImage indexed = new BufferedImage(width, height,
+                    bits == 8 ? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_BYTE_BINARY, colorModel);
+            byte[] dst = ((DataBufferByte) indexed.getRaster().getDataBuffer()).getData();
+            int rowBytes = (width * bits + 7) / 8;
+            int lastColor = -1;
+            int lastIndex = 0;
+            for (int y = 0; y < height; y++) {
+                int s = (top + y) * stride + left;
+                int rowStart = y * rowBytes;
+                for (int x = 0; x < width; x++) {
+                    int color = src[s + x] & 0xFFFFFF;
+                    if (color != lastColor) {
+                        Integer index = indexOf.get(color);
+                        if (index == null) {
+                            throw new IllegalStateException("调色板中没有颜色 #" + Integer.toHexString(color));
+                        }
+                        lastColor = color;
+                        lastIndex = index;
+                    }
+                    // 打包时高位在前（第一个像素在字节的最高位）
+                    int bit = x * bits;
+                    dst[rowStart + (bit >> 3)] |= (byte) (lastIndex << (8 - bits - (bit & 7)));
+                }
+            }
+            return indexed;
+        }
+    }
+
+    // ===== 重排缓冲 =====
+
+    /**
+     * 按编号取出乱序完成的帧；容量由调用方的信号量保证（在途帧数不超过容量），放入不会覆盖未取走的槽
+     */
+    private static final class ReorderBuffer {
+        private final Object[] slots;
+
+        ReorderBuffer(int capacity) {
+            slots = new Object[capacity];
+        }
+
+        synchronized void put(int seq, Object result) {
+            slots[seq % slots.length] = result;
+            notifyAll();
+        }
+
+        synchronized Object take(int seq) throws InterruptedException {
+            int slot = seq % slots.length;
+            while (slots[slot] == null) {
+                wait();
+            }
+            Object result = slots[slot];
+            slots[slot] = null;
+            return result;
+        }
+    }
+
+    // ===== 输出 =====
+
+    private interface FrameSink extends AutoCloseable {
+        /**
+         * @return 写出的帧数
+         */
+        int write(Frame frame) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * PNG 序列：输出目录下 frame-000000.png ...；重复帧直接复用已编码的字节
+     */
+    private static final class PngSink implements FrameSink {
+        private final Path directory;
+        private int index;
+
+        PngSink(Path directory) throws IOException {
+            this.directory = Files.createDirectories(directory);
+        }
+
+        @Override
+        public int write(Frame frame) throws IOException {
+            for (int i = 0; i < frame.repeat; i++) {
+                Files.write(directory.resolve(String.format("frame-%06d.png", index++)), frame.png);
+            }
+            return frame.repeat;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * GIF 动画：每帧带固定调色板（局部颜色表，只有十几种颜色），不隔行
+     * 第一帧整幅，之后每帧只写变化的矩形（处置方式 doNotDispose，叠加在上一帧上）；
+     * 重复帧合并为一帧加长延迟。延迟按累计时间取整，误差不会逐帧累积
+     */
+    private static final class GifSink implements FrameSink {
+        private final OutputStream file;
+        private final ImageOutputStream out;
+        private final ImageWriter writer;
+        private long totalMs;
+        private long emittedCs;
+        private boolean first = true;
+
+        GifSink(Path path) throws IOException {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            file = Files.newOutputStream(path);
+            out = ImageIO.createImageOutputStream(file);
+            writer = ImageIO.getImageWritersByFormatName("gif").next();
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+        }
+
+        @Override
+        public int write(Frame frame) throws IOException {
+            totalMs += frame.durationMs;
+            long delayCs = Math.max(MIN_GIF_DELAY_CS, Math.round(totalMs / 10.0) - emittedCs);
+            emittedCs += delayCs;
+
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            // 不用 createFromRenderedImage：它对 TYPE_BYTE_INDEXED 返回带默认调色板的通用类型
+            IIOMetadata metadata = writer.getDefaultImageMetadata(new ImageTypeSpecifier(frame.image), param);
+            String formatName = metadata.getNativeMetadataFormatName();
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(formatName);
+
+            IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+            descriptor.setAttribute("imageLeftPosition", Integer.toString(frame.left));
+            descriptor.setAttribute("imageTopPosition", Integer.toString(frame.top));
+            descriptor.setAttribute("interlaceFlag", "FALSE");
+
+            IIOMetadataNode control = child(root, "GraphicControlExtension");
+            control.setAttribute("disposalMethod", "doNotDispose");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("transparentColorFlag", "FALSE");
+            control.setAttribute("delayTime", Long.toString(Math.min(delayCs, 0xFFFF)));
+            control.setAttribute("transparentColorIndex", "0");
+
+            if (first) {
+                IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+                loop.setAttribute("applicationID", "NETSCAPE");
+                loop.setAttribute("authenticationCode", "2.0");
+                loop.setUserObject(new byte[]{1, 0, 0});  // 无限循环
+                child(root, "ApplicationExtensions").appendChild(loop);
+                first = false;
+            }
+            metadata.setFromTree(formatName, root);
+            writer.writeToSequence(new IIOImage(frame.image, null, metadata), param);
+            return 1;
+        }
+
+        private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+            for (int i = 0; i < root.getLength(); i++) {
+                if (root.item(i).getNodeName().equals(name)) {
+                    return (IIOMetadataNode) root.item(i);
+                }
+            }
+            IIOMetadataNode node = new IIOMetadataNode(name);
+            root.appendChild(node);
+            return node;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writer.endWriteSequence();
+            } finally {
+                writer.dispose();
+                out.close();
+                file.close();
+            }
+        }
+    }
+
+    // ===== 数据 =====
+
+    /**
+     * 待渲染的一帧（读取线程创建，渲染线程只读）
+     */
+    private static final class Job {
+        final BoardSnapshot snapshot;
+        final int hintX;
+        final int hintY;
+        final long durationMs;
+        final int repeat;
+        int minX;  // GIF 输出的格子矩形
+        int minY;
+        int maxX;
+        int maxY;
+
+        Job(BoardSnapshot snapshot, int hintX, int hintY, long durationMs, int repeat) {
+            this.snapshot = snapshot;
+            this.hintX = hintX;
+            this.hintY = hintY;
+            this.durationMs = durationMs;
+            this.repeat = repeat;
+        }
+
+        void setBounds(int minX, int minY, int maxX, int maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+
+    /**
+     * 渲染完成的一帧：PNG 为编码后的字节，GIF 为变化矩形的索引色图像
+     */
+    private static final class Frame {
+        final byte[] png;
+        final BufferedImage image;
+        final int left;
+        final int top;
+        final long durationMs;
+        final int repeat;
+
+        Frame(byte[] png, BufferedImage image, int left, int top, long durationMs, int repeat) {
+            this.png = png;
+            this.image = image;
+            this.left = left;
+            this.top = top;
+            this.durationMs = durationMs;
+            this.repeat = repeat;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.xylonet.snake.ui;
+
+import com.xylonet.snake.analysis.RunningStats;
+import com.xylonet.snake.game.BoardChangeSet;
+import com.xylonet.snake.game.BoardSnapshot;
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.metrics.MetricsRegistry;
+
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.ImageCapabilities;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 主动渲染的游戏画面（-Dxylonet.render=active）
+ * - Canvas + BufferStrategy（可用时页面翻转），由专用渲染线程按固定帧率绘制，不经过 Swing repaint，
+ *   也不和 EDT 上的控制台等工作排队
+ * - 游戏循环（EDT）每帧把棋盘复制到快照，通过三缓冲交给渲染线程：
+ *   EDT 写后台缓冲后与交换槽对调，渲染线程只在交换槽有新帧时对调出来，双方都不等待对方；
+ *   渲染线程只读快照，从不读取 GameBoard
+ * - 帧限速器按截止时间休眠（落后超过一帧时不追帧）；Java 没有可移植的垂直同步接口，
+ *   页面翻转在部分管线（如 OpenGL）上会自动对齐刷新
+ * - 统计相邻两次 show 的间隔（均值、标准差、分位数）和绘制耗时
+ */
+public class ActiveGameCanvas extends Canvas implements GameView {
+    public static final int DEFAULT_TARGET_FPS = 60;
+    private static final int GRID_SIZE = GamePanel.GRID_SIZE;
+    private static final int CELL_SIZE = GamePanel.CELL_SIZE;
+    private static final int PANEL_SIZE = GRID_SIZE * CELL_SIZE;
+
+    // 三缓冲交换
+    private final AtomicReference<Frame> handoff = new AtomicReference<>(new Frame());
+    private Frame back = new Frame();   // 只在 EDT 上使用
+    private Frame front = new Frame();  // 只在渲染线程上使用
+
+    // EDT 上的画面状态
+    private GameBoard board;
+    private Point hintCell;
+    private String overlayMessage;
+    private Color overlayColor;
+    private long sequence;
+
+    // 渲染线程上的绘制资源
+    private final GlyphAtlas atlas = new GlyphAtlas(CELL_SIZE);
+    private final int[] tileForCell = new int[8];  // GameBoard.CELL_* -> 图集编号，-1 表示不画（空格或静态层）
+    private final StaticLayer staticLayer;
+
+    private volatile int targetFps = DEFAULT_TARGET_FPS;
+    private volatile boolean running = false;
+    private Thread renderThread;
+    private volatile boolean pageFlipping;
+
+    // 帧时间统计
+    private final LatencyHistogram frameInterval = MetricsRegistry.getDefault().histogram("render.active.interval");
+    private final LatencyHistogram drawTime = MetricsRegistry.getDefault().histogram("render.active.draw");
+    private final RunningStats intervalStats = new RunningStats();  // 毫秒，受 intervalStats 锁保护
+    private long lastShow;
+
+    public ActiveGameCanvas() {
+        setPreferredSize(new Dimension(PANEL_SIZE, PANEL_SIZE));
+        setBackground(GamePanel.BG_COLOR);
+        setIgnoreRepaint(true);  // 所有绘制都由渲染线程完成
+        setFocusable(false);     // 按键仍由主窗口接收
+
+        Arrays.fill(tileForCell, -1);
+        int wallTile = atlas.register(GamePanel.OBSTACLE_SYMBOL, Color.BLACK, GamePanel.BOUNDARY_COLOR);
+        int obstacleTile = atlas.register(GamePanel.OBSTACLE_SYMBOL, Color.BLACK, GamePanel.OBSTACLE_COLOR);
+        tileForCell[GameBoard.CELL_FOOD] = atlas.register(GamePanel.FOOD_SYMBOL, Color.BLACK, GamePanel.FOOD_COLOR);
+        tileForCell[GameBoard.CELL_BULLET] = atlas.register(GamePanel.BULLET_SYMBOL, Color.WHITE, GamePanel.BULLET_COLOR);
+        tileForCell[GameBoard.CELL_DOOR] = atlas.register(GamePanel.DOOR_SYMBOL, Color.BLACK, GamePanel.DOOR_COLOR);
+        tileForCell[GameBoard.CELL_SNAKE_HEAD] = atlas.register(GamePanel.SNAKE_HEAD_SYMBOL, Color.BLACK, GamePanel.SNAKE_HEAD_COLOR);
+        tileForCell[GameBoard.CELL_SNAKE_BODY] = atlas.register(GamePanel.SNAKE_BODY_SYMBOL, Color.BLACK, GamePanel.SNAKE_BODY_COLOR);
+        staticLayer = new StaticLayer(GRID_SIZE, CELL_SIZE, GamePanel.BG_COLOR, GamePanel.GRID_COLOR,
+                atlas, wallTile, obstacleTile);
+    }
+
+    // ===== GameView（EDT） =====
+
+    @Override
+    public void render(GameBoard board, BoardChangeSet changes) {
+        this.board = board;
+        publish();
+    }
+
+    @Override
+    public void setHintCell(Point cell) {
+        this.hintCell = cell;
+    }
+
+    @Override
+    public void setOverlay(String message, Color color) {
+        this.overlayMessage = message;
+        this.overlayColor = color;
+        publish();
+    }
+
+    @Override
+    public void clearOverlay() {
+        this.overlayMessage = null;
+        this.overlayColor = null;
+        publish();
+    }
+
+    @Override
+    public Component getComponent() {
+        return this;
+    }
+
+    /**
+     * 把当前状态写入后台缓冲并放入交换槽
+     */
+    private void publish() {
+        Frame frame = back;
+        frame.hasBoard = board != null;
+        if (board != null) {
+            frame.snapshot.capture(board, ++sequence);
+        }
+        Point hint = hintCell;
+        frame.hintX = hint != null ? hint.x : -1;
+        frame.hintY = hint != null ? hint.y : -1;
+        frame.overlayMessage = overlayMessage;
+        frame.overlayColor = overlayColor;
+        frame.fresh = true;
+        back = handoff.getAndSet(frame);  // 换回的可能是渲染线程没来得及取走的旧帧，直接覆盖
+    }
+
+    // ===== 渲染线程 =====
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createStrategy();
+        running = true;
+        renderThread = new Thread(this::renderLoop, "render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        running = false;
+        Thread thread = renderThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy != null) {
+            strategy.dispose();
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * 优先请求页面翻转（显存中的前后缓冲），不支持时退回默认策略（通常是 blit）
+     */
+    private void createStrategy() {
+        try {
+            createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true),
+                    BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e) {
+            createBufferStrategy(2);
+        }
+        pageFlipping = getBufferStrategy().getCapabilities().isPageFlipping();
+        System.out.println("[Render] 主动渲染: " + (pageFlipping ? "页面翻转" : "缓冲区复制") + ", 目标 " + targetFps + " FPS");
+    }
+
+    private void renderLoop() {
+        long next = System.nanoTime();
+        while (running) {
+            long period = TimeUnit.SECONDS.toNanos(1) / targetFps;
+            next += period;
+            try {
+                renderFrame();
+            } catch (RuntimeException e) {
+                System.err.println("[Render] 绘制失败: " + e);
+            }
+            long now = System.nanoTime();
+            if (now - next > period) {
+                next = now;  // 落后超过一帧：从现在重新计时，不连续补帧
+            }
+            while (running && (now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+            }
+        }
+    }
+
+    private void renderFrame() {
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            return;
+        }
+        // 交换槽里是 EDT 放入的新帧时才换出来；只有 EDT 会放入新帧，所以检查后交换拿到的一定是新帧
+        if (handoff.get().fresh) {
+            front.fresh = false;
+            front = handoff.getAndSet(front);
+        }
+
+        long start = System.nanoTime();
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    draw(g2d, front);
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();  // X11 等管线需要显式刷新，否则画面会滞后
+        long shown = System.nanoTime();
+        drawTime.record(shown - start);
+
+        if (lastShow != 0) {
+            long interval = shown - lastShow;
+            frameInterval.record(interval);
+            synchronized (intervalStats) {
+                intervalStats.add(interval / 1e6);
+            }
+        }
+        lastShow = shown;
+    }
+
+    private void draw(Graphics2D g2d, Frame frame) {
+        g2d.setColor(GamePanel.BG_COLOR);
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        if (!frame.hasBoard) {
+            GamePanel.drawWelcomeScreen(g2d);
+            return;
+        }
+
+        BoardSnapshot snapshot = frame.snapshot;
+        staticLayer.paint(g2d, snapshot);
+        byte[] cells = snapshot.cells;
+        for (int i = 0; i < cells.length; i++) {
+            int tile = tileForCell[cells[i]];
+            if (tile >= 0) {
+                atlas.draw(g2d, tile, (i % GRID_SIZE) * CELL_SIZE, (i / GRID_SIZE) * CELL_SIZE);
+            }
+        }
+        if (frame.hintX >= 0) {
+            g2d.setColor(GamePanel.HINT_COLOR);
+            g2d.drawRect(frame.hintX * CELL_SIZE, frame.hintY * CELL_SIZE, CELL_SIZE - 1, CELL_SIZE - 1);
+        }
+        if (frame.overlayMessage != null) {
+            GamePanel.drawOverlay(g2d, frame.overlayMessage, frame.overlayColor);
+        }
+    }
+
+    // ===== 设置与统计 =====
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    public void setTargetFps(int fps) {
+        this.targetFps = Math.max(1, Math.min(fps, 1000));
+    }
+
+    public boolean isPageFlipping() {
+        return pageFlipping;
+    }
+
+    /**
+     * 清空帧时间统计
+     */
+    public void resetStats() {
+        synchronized (intervalStats) {
+            intervalStats.reset();
+        }
+        frameInterval.reset();
+        drawTime.reset();
+    }
+
+    @Override
+    public String summary() {
+        double mean;
+        double stdDev;
+        long frames;
+        synchronized (intervalStats) {
+            mean = intervalStats.getMean();
+            stdDev = intervalStats.getStdDev();
+            frames = intervalStats.getCount();
+        }
+        return String.format("active (BufferStrategy, %s, target %d FPS) frames=%d interval mean=%.2fms stddev=%.2fms p99=%.2fms draw: %s",
+                pageFlipping ? "page flipping" : "blit", targetFps, frames, mean, stdDev,
+                frameInterval.getValueAtPercentile(99) / 1e6, drawTime.summary());
+    }
+
+    /**
+     * 交给渲染线程的一帧
+     */
+    private static final class Frame {
+        final BoardSnapshot snapshot = new BoardSnapshot();
+        boolean hasBoard;
+        int hintX = -1;
+        int hintY = -1;
+        String overlayMessage;
+        Color overlayColor;
+        volatile boolean fresh;  // EDT 放入交换槽时置位，渲染线程取走后清除
+    }
+}
@@ -182,6 +182,10 @@ public class ConsolePanel extends JPanel {
         printMessage("  /status   - 显示游戏状态", TEXT_COLOR);
         printMessage("  /pause    - 暂停/继续游戏", TEXT_COLOR);
         printMessage("  /history  - 查看命令历史", TEXT_COLOR);
+        printMessage("  /perf     - 性能指标 (/perf [前缀] 或 /perf reset)", TEXT_COLOR);
+        printMessage("  /jfr      - 飞行记录 (/jfr start [文件] 或 /jfr stop)", TEXT_COLOR);
+        printMessage("  /record   - 录像 (/record start [文件] 或 /record stop，用 FrameExporter 导出)", TEXT_COLOR);
+        printMessage("  /render   - 渲染方式与帧时间 (主动渲染: /render fps [帧率])", TEXT_COLOR);
         break;
 
       case "clear":
@@ -0,0 +1,109 @@
+package com.xylonet.snake.ui;
+
+import com.xylonet.snake.event.EventSubscriber;
+import com.xylonet.snake.event.GameEvent;
+import com.xylonet.snake.game.BoardChangeSet;
+import com.xylonet.snake.game.GameBoard;
+
+import java.awt.Color;
+
+/**
+ * 把游戏事件映射到 Swing 面板（以 EDT 方式订阅）
+ * - 数值类事件只写入 {@link HudModel}，批结束时把变化的字段一次推给信息面板和进度条
+ * - 同一批内的多个 FrameUpdated 只保留最后一个，合并各帧的变化格子，批结束时重绘一次
+ */
+public class GameEventPresenter implements EventSubscriber {
+    private final GameView gameView;
+    private final InfoPanel infoPanel;
+    private final ProgressBarPanel progressBarPanel;
+    private final ConsolePanel consolePanel;
+
+    private GameEvent.FrameUpdated pendingFrame;  // 本批最后一帧（只在 EDT 上访问）
+    private final HudModel hud = new HudModel();
+    private final BoardChangeSet pendingChanges = new BoardChangeSet(GameBoard.GRID_SIZE, GameBoard.GRID_SIZE);
+    private String lastMbti;
+
+    public GameEventPresenter(GameView gameView, InfoPanel infoPanel,
+                              ProgressBarPanel progressBarPanel, ConsolePanel consolePanel) {
+        this.gameView = gameView;
+        this.infoPanel = infoPanel;
+        this.progressBarPanel = progressBarPanel;
+        this.consolePanel = consolePanel;
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        if (event instanceof GameEvent.FrameUpdated) {
+            pendingFrame = (GameEvent.FrameUpdated) event;
+            if (pendingFrame.changes != null) {
+                pendingChanges.addAll(pendingFrame.changes);
+            } else {
+                pendingChanges.markAll();
+            }
+        } else if (event instanceof GameEvent.ScoreChanged) {
+            hud.setScore(((GameEvent.ScoreChanged) event).score);
+        } else if (event instanceof GameEvent.LengthChanged) {
+            hud.setLength(((GameEvent.LengthChanged) event).length);
+        } else if (event instanceof GameEvent.TimeChanged) {
+            hud.setTime(((GameEvent.TimeChanged) event).remainingSeconds);
+        } else if (event instanceof GameEvent.LevelChanged) {
+            int level = ((GameEvent.LevelChanged) event).level;
+            hud.setLevel(level);
+            message("=== Level " + level + " ===", ConsolePanel.MessageType.SYSTEM);
+        } else if (event instanceof GameEvent.GameStarted) {
+            gameView.clearOverlay();
+            hud.setBulletCount("\u221E");  // 无限子弹
+            message("游戏开始！", ConsolePanel.MessageType.SYSTEM);
+        } else if (event instanceof GameEvent.LevelStarted) {
+            gameView.clearOverlay();
+        } else if (event instanceof GameEvent.GamePaused) {
+            message("游戏暂停", ConsolePanel.MessageType.WARNING);
+        } else if (event instanceof GameEvent.GameResumed) {
+            message("游戏继续", ConsolePanel.MessageType.SYSTEM);
+        } else if (event instanceof GameEvent.GameReset) {
+            message("游戏重置", ConsolePanel.MessageType.SYSTEM);
+        } else if (event instanceof GameEvent.LevelCompleted) {
+            int completed = ((GameEvent.LevelCompleted) event).completedLevel;
+            gameView.setOverlay("LEVEL " + completed + " COMPLETE!", new Color(0, 255, 100));
+            message("关卡 " + completed + " 完成！按 SPACE 继续", ConsolePanel.MessageType.SYSTEM);
+        } else if (event instanceof GameEvent.GameOver) {
+            if (((GameEvent.GameOver) event).reason == GameEvent.GameOver.Reason.TIMEOUT) {
+                gameView.setOverlay("TIME'S UP", new Color(255, 80, 80));
+                message("时间到！游戏结束", ConsolePanel.MessageType.ERROR);
+            } else {
+                gameView.setOverlay("GAME OVER", new Color(255, 80, 80));
+                message("游戏结束！按 R 重新开始", ConsolePanel.MessageType.ERROR);
+            }
+        } else if (event instanceof GameEvent.AnalysisUpdated) {
+            GameEvent.AnalysisUpdated analysis = (GameEvent.AnalysisUpdated) event;
+            hud.setMbtiType(analysis.mbti);
+            if (!analysis.mbti.equals(lastMbti)) {
+                lastMbti = analysis.mbti;
+                message(String.format("MBTI 分析: %s (置信度 %.0f%%)", analysis.mbti, analysis.confidence * 100),
+                        ConsolePanel.MessageType.AI);
+            }
+        }
+    }
+
+    @Override
+    public void onBatchComplete() {
+        GameEvent.FrameUpdated frame = pendingFrame;
+        if (frame != null) {
+            hud.setDoorProgress(frame.board);
+        }
+        hud.flush(infoPanel, progressBarPanel);
+        if (frame == null) {
+            return;
+        }
+        pendingFrame = null;
+        gameView.setHintCell(frame.hintCell);
+        gameView.render(frame.board, pendingChanges);
+        pendingChanges.clear();
+    }
+
+    private void message(String text, ConsolePanel.MessageType type) {
+        if (consolePanel != null) {
+            consolePanel.addMessage(text, type);
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.xylonet.snake.ui;
 
+import com.xylonet.snake.game.BoardChangeSet;
 import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.jfr.RenderPassEvent;
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.metrics.MetricsRegistry;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * 游戏渲染面板
  * 64x64 网格，ASCII 风格渲染
+ * 被动渲染：由 Swing 的 repaint 机制在 EDT 上绘制
+ * 通过 {@link Viewport} 显示棋盘的一部分（可缩放、跟随蛇头）：先把裁剪区与可见范围求交，
+ * 再按格子范围从棋盘索引取出实体，绘制量只与可见面积有关
  */
-public class GamePanel extends JPanel {
+public class GamePanel extends JPanel implements GameView {
     // 网格配置
     public static final int GRID_SIZE = 64;
     public static final int CELL_SIZE = 10;  // 每个格子 10x10 像素
@@ -27,6 +36,8 @@ public class GamePanel extends JPanel {
     public static final Color BOUNDARY_COLOR = new Color(200, 0, 0);      // 边界：深红
     public static final Color BULLET_COLOR = new Color(255, 100, 100);    // 子弹：浅红 @
     public static final Color DOOR_COLOR = new Color(0, 200, 255);        // 门：亮蓝
+    public static final Color HINT_COLOR = new Color(255, 165, 0);        // AI 建议：橙色
+    public static final Color GRID_COLOR = new Color(30, 30, 30);         // 网格线：深灰
 
     // 符号定义
     public static final char FOOD_SYMBOL = '◉';     // 食物符号
@@ -34,16 +45,56 @@ public class GamePanel extends JPanel {
     public static final char SNAKE_BODY_SYMBOL = '#'; // 蛇身符号
     public static final char SNAKE_HEAD_SYMBOL = '□'; // 蛇头符号
     public static final char OBSTACLE_SYMBOL = '■';   // 障碍符号
+    public static final char DOOR_SYMBOL = '\u25C7';  // 门符号 ◇
 
     private GameBoard gameBoard;
     private String overlayMessage;  // 游戏状态覆盖层消息（如 "Game Over", "Level Complete"）
     private Color overlayColor;
+    private Point hintCell;  // AI 建议的下一格（空心方框），null 表示无建议
+    private final LatencyHistogram paintTime = MetricsRegistry.getDefault().histogram("render.paint");
+
+    // 预渲染的格子图集：每个格子一次 drawImage
+    private final GlyphAtlas atlas = new GlyphAtlas(CELL_SIZE);
+    private final int wallTile = atlas.register(OBSTACLE_SYMBOL, Color.BLACK, BOUNDARY_COLOR);
+    private final int obstacleTile = atlas.register(OBSTACLE_SYMBOL, Color.BLACK, OBSTACLE_COLOR);
+    private final int foodTile = atlas.register(FOOD_SYMBOL, Color.BLACK, FOOD_COLOR);
+    private final int bulletTile = atlas.register(BULLET_SYMBOL, Color.WHITE, BULLET_COLOR);
+    private final int doorTile = atlas.register(DOOR_SYMBOL, Color.BLACK, DOOR_COLOR);
+    private final int headTile = atlas.register(SNAKE_HEAD_SYMBOL, Color.BLACK, SNAKE_HEAD_COLOR);
+    private final int bodyTile = atlas.register(SNAKE_BODY_SYMBOL, Color.BLACK, SNAKE_BODY_COLOR);
+    private final int[] tileForCell = new int[8];  // GameBoard.CELL_* -> 动态层图集编号，-1 表示不画（空格或静态层）
+
+    // 视口：默认缩放下整盘正好铺满面板
+    private final Viewport viewport = new Viewport(GRID_SIZE, GRID_SIZE, PANEL_WIDTH, PANEL_HEIGHT, CELL_SIZE);
+    private byte[] visibleCells = new byte[GRID_SIZE * GRID_SIZE];  // 本次绘制范围内的格子（复用）
+
+    // 静态层（背景、网格、墙、障碍物）缓存，只在布局变化或缩放时更新
+    private StaticLayer staticLayer = createStaticLayer();
+
+    // 增量重绘：待重绘的格子（含 AI 建议框的新旧位置），以及本次绘制裁剪区对应的格子范围
+    private static final int MAX_DIRTY_RECTS = 32;  // 超过时合并为一个外接矩形交给 repaint
+    private final BoardChangeSet dirtyCells = new BoardChangeSet(GRID_SIZE, GRID_SIZE);
+    private final Rectangle dirtyRect = new Rectangle();
+    private int clipMinX, clipMinY, clipMaxX, clipMaxY;
+    private final Counter fullRepaints = MetricsRegistry.getDefault().counter("render.full_repaints");
+    private final Counter dirtyRects = MetricsRegistry.getDefault().counter("render.dirty_rects");
 
     public GamePanel() {
         setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
         setBackground(BG_COLOR);
         setDoubleBuffered(true);  // 启用双缓冲减少闪烁
         this.overlayMessage = null;
+
+        Arrays.fill(tileForCell, -1);
+        tileForCell[GameBoard.CELL_FOOD] = foodTile;
+        tileForCell[GameBoard.CELL_BULLET] = bulletTile;
+        tileForCell[GameBoard.CELL_DOOR] = doorTile;
+        tileForCell[GameBoard.CELL_SNAKE_HEAD] = headTile;
+        tileForCell[GameBoard.CELL_SNAKE_BODY] = bodyTile;
+    }
+
+    private StaticLayer createStaticLayer() {
+        return new StaticLayer(GRID_SIZE, viewport.getCellSize(), BG_COLOR, GRID_COLOR, atlas, wallTile, obstacleTile);
     }
 
     /**
@@ -54,18 +105,128 @@ public class GamePanel extends JPanel {
     }
 
     /**
-     * 渲染游戏（供游戏引擎调用）
+     * 渲染游戏（整个面板重绘）
      */
     public void render(GameBoard board) {
         this.gameBoard = board;
+        followSnake(board);
+        dirtyCells.clear();
+        fullRepaints.increment();
         repaint();
     }
 
+    /**
+     * 只重绘变化的格子（在 EDT 上调用）
+     * 换了棋盘、整盘变化、有覆盖层或视口移动时退化为整个面板重绘
+     * @param changes 自上次渲染以来变化的格子
+     */
+    @Override
+    public void render(GameBoard board, BoardChangeSet changes) {
+        if (board != gameBoard || changes == null || changes.isFull() || overlayMessage != null
+                || followSnake(board)) {
+            render(board);
+            return;
+        }
+        dirtyCells.addAll(changes);
+        flushDirtyCells();
+    }
+
+    /**
+     * 视口跟随蛇头
+     * @return 视口是否移动
+     */
+    private boolean followSnake(GameBoard board) {
+        if (board == null || !board.getSnake().isAlive()) {
+            return false;
+        }
+        Point head = board.getSnake().getBody().getFirst();
+        return viewport.follow(head.x, head.y);
+    }
+
+    /**
+     * 把待重绘格子按行合并成横向连续段逐段重绘
+     * repaint(x, y, w, h) 会被 RepaintManager 合并成一个外接矩形（蛇头和蛇尾相距较远时接近整屏），
+     * 而这里已经在 EDT 上、每批只调用一次，所以直接 paintImmediately 各段
+     */
+    private void flushDirtyCells() {
+        int count = dirtyCells.size();
+        if (count == 0) {
+            return;
+        }
+        boolean immediate = SwingUtilities.isEventDispatchThread() && isShowing();
+        if (!immediate || count > MAX_DIRTY_RECTS) {
+            repaintBounds();
+            dirtyCells.clear();
+            return;
+        }
+        boolean[] done = new boolean[count];
+        int cellSize = viewport.getCellSize();
+        for (int i = 0; i < count; i++) {
+            if (done[i]) continue;
+            int y = dirtyCells.getY(i);
+            if (y < viewport.getMinCellY() || y > viewport.getMaxCellY()) continue;  // 在视口外
+            int minX = dirtyCells.getX(i);
+            int maxX = minX;
+            boolean grown = true;
+            while (grown) {  // 向左右吸收同一行中相邻的格子
+                grown = false;
+                for (int j = i + 1; j < count; j++) {
+                    if (done[j] || dirtyCells.getY(j) != y) continue;
+                    int x = dirtyCells.getX(j);
+                    if (x == minX - 1 || x == maxX + 1) {
+                        minX = Math.min(minX, x);
+                        maxX = Math.max(maxX, x);
+                        done[j] = true;
+                        grown = true;
+                    }
+                }
+            }
+            minX = Math.max(minX, viewport.getMinCellX());
+            maxX = Math.min(maxX, viewport.getMaxCellX());
+            if (minX > maxX) continue;
+            paintImmediately(viewport.toScreenX(minX), viewport.toScreenY(y), (maxX - minX + 1) * cellSize, cellSize);
+            dirtyRects.increment();
+        }
+        dirtyCells.clear();
+    }
+
+    private void repaintBounds() {
+        int minX = GRID_SIZE, minY = GRID_SIZE, maxX = -1, maxY = -1;
+        for (int i = 0; i < dirtyCells.size(); i++) {
+            minX = Math.min(minX, dirtyCells.getX(i));
+            maxX = Math.max(maxX, dirtyCells.getX(i));
+            minY = Math.min(minY, dirtyCells.getY(i));
+            maxY = Math.max(maxY, dirtyCells.getY(i));
+        }
+        int cellSize = viewport.getCellSize();
+        dirtyRect.setBounds(viewport.toScreenX(minX), viewport.toScreenY(minY),
+                (maxX - minX + 1) * cellSize, (maxY - minY + 1) * cellSize);
+        repaint(dirtyRect);
+        dirtyRects.increment();
+    }
+
+    /**
+     * 设置 AI 建议的下一格
+     * @param cell 网格坐标，null 表示清除
+     */
+    @Override
+    public void setHintCell(Point cell) {
+        Point old = this.hintCell;
+        if (old != null) {
+            dirtyCells.mark(old.x, old.y);
+        }
+        if (cell != null) {
+            dirtyCells.mark(cell.x, cell.y);
+        }
+        this.hintCell = cell;
+    }
+
     /**
      * 设置覆盖层消息（如 "Game Over", "Level Complete"）
      * @param message 消息文本，null 表示清除覆盖层
      * @param color 消息颜色
      */
+    @Override
     public void setOverlay(String message, Color color) {
         this.overlayMessage = message;
         this.overlayColor = color;
@@ -75,12 +236,53 @@ public class GamePanel extends JPanel {
     /**
      * 清除覆盖层
      */
+    @Override
     public void clearOverlay() {
         this.overlayMessage = null;
         this.overlayColor = null;
         repaint();
     }
 
+    @Override
+    public Component getComponent() {
+        return this;
+    }
+
+    @Override
+    public String summary() {
+        return "passive (Swing repaint) zoom=" + viewport.getCellSize() + "px view=" + viewport.getColumns()
+                + "x" + viewport.getRows() + " full=" + fullRepaints.get() + " dirtyRects=" + dirtyRects.get()
+                + " paint: " + paintTime.summary();
+    }
+
+    // ===== 缩放 =====
+
+    /**
+     * 切换缩放档（见 {@link Viewport#ZOOM_CELL_SIZES}），以蛇头为中心
+     */
+    public void setZoomLevel(int level) {
+        Point center = gameBoard != null ? gameBoard.getSnake().getHead() : new Point(GRID_SIZE / 2, GRID_SIZE / 2);
+        if (viewport.setZoomLevel(level, center.x, center.y)) {
+            atlas.setCellSize(viewport.getCellSize());
+            staticLayer = createStaticLayer();
+            dirtyCells.clear();
+            fullRepaints.increment();
+            repaint();
+        }
+    }
+
+    public void zoomIn() {
+        setZoomLevel(viewport.getZoomLevel() + 1);
+    }
+
+    public void zoomOut() {
+        setZoomLevel(viewport.getZoomLevel() - 1);
+    }
+
+    public Viewport getViewport() {
+        return viewport;
+    }
+
     /**
      * 渲染游戏画面
      */
@@ -99,20 +301,43 @@ public class GamePanel extends JPanel {
             return;
         }
 
-        // 绘制游戏内容
-        drawGrid(g2d);
+        // 绘制游戏内容（只画视口内、且与裁剪区相交的格子）
+        RenderPassEvent event = new RenderPassEvent();
+        event.begin();
+        long start = System.nanoTime();
+        clipMinX = viewport.getMinCellX();
+        clipMinY = viewport.getMinCellY();
+        clipMaxX = viewport.getMaxCellX();
+        clipMaxY = viewport.getMaxCellY();
+        Rectangle clip = g2d.getClipBounds();
+        if (clip != null) {
+            clipMinX = Math.max(clipMinX, viewport.cellAtX(clip.x));
+            clipMinY = Math.max(clipMinY, viewport.cellAtY(clip.y));
+            clipMaxX = Math.min(clipMaxX, viewport.cellAtX(clip.x + clip.width - 1));
+            clipMaxY = Math.min(clipMaxY, viewport.cellAtY(clip.y + clip.height - 1));
+        }
+        staticLayer.paint(g2d, gameBoard, viewport);
         drawGameElements(g2d);
 
         // 绘制覆盖层（如果有）
         if (overlayMessage != null) {
-            drawOverlay(g2d);
+            drawOverlay(g2d, overlayMessage, overlayColor);
+        }
+        paintTime.record(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.snakeLength = gameBoard.getSnake().getLength();
+            event.bullets = gameBoard.getBullets().size();
+            event.obstacles = gameBoard.getObstacles().size();
+            event.overlay = overlayMessage != null;
+            event.commit();
         }
     }
 
     /**
      * 绘制覆盖层（游戏状态提示，如 "Game Over", "Level Complete"）
+     * 主动渲染模式共用
      */
-    private void drawOverlay(Graphics2D g2d) {
+    static void drawOverlay(Graphics2D g2d, String overlayMessage, Color overlayColor) {
         if (overlayMessage == null) {
             return;
         }
@@ -144,113 +369,41 @@ public class GamePanel extends JPanel {
     }
 
     /**
-     * 绘制网格线（调试用，可选）
-     */
-    private void drawGrid(Graphics2D g2d) {
-        g2d.setColor(new Color(30, 30, 30));  // 深灰色网格线
-
-        // 绘制垂直线
-        for (int x = 0; x <= GRID_SIZE; x++) {
-            g2d.drawLine(x * CELL_SIZE, 0, x * CELL_SIZE, PANEL_HEIGHT);
-        }
-
-        // 绘制水平线
-        for (int y = 0; y <= GRID_SIZE; y++) {
-            g2d.drawLine(0, y * CELL_SIZE, PANEL_WIDTH, y * CELL_SIZE);
-        }
-    }
-
-    /**
-     * 绘制游戏元素（蛇、食物、障碍等）
+     * 绘制动态元素（蛇、食物、子弹、门）
+     * 网格线、墙和障碍物在静态层中；按绘制范围从棋盘的格子索引取出每格最上层的实体，
+     * 不遍历实体列表，范围外的实体不产生任何绘制调用
      */
     private void drawGameElements(Graphics2D g2d) {
-        drawObstacles(g2d);
-        drawFood(g2d);
-        drawBullets(g2d);
-        drawDoor(g2d);
-        drawSnake(g2d);  // 蛇最后绘制，在最上层
-    }
-
-    /**
-     * 绘制障碍物
-     */
-    private void drawObstacles(Graphics2D g2d) {
-        for (var obstacle : gameBoard.getObstacles()) {
-            if (obstacle.isDestroyed()) continue;
-
-            Point pos = obstacle.getPosition();
-            Color color = obstacle.getType() == com.xylonet.snake.game.Obstacle.Type.WALL
-                    ? BOUNDARY_COLOR : OBSTACLE_COLOR;
-
-            drawCell(g2d, pos.x, pos.y, color, true);
-            drawSymbol(g2d, pos.x, pos.y, OBSTACLE_SYMBOL, Color.BLACK);
-        }
-    }
-
-    /**
-     * 绘制食物
-     */
-    private void drawFood(Graphics2D g2d) {
-        var food = gameBoard.getFood();
-        if (food != null && food.exists()) {
-            Point pos = food.getPosition();
-            drawCell(g2d, pos.x, pos.y, FOOD_COLOR, true);
-            drawSymbol(g2d, pos.x, pos.y, FOOD_SYMBOL, Color.BLACK);
-        }
-    }
-
-    /**
-     * 绘制子弹
-     */
-    private void drawBullets(Graphics2D g2d) {
-        for (var bullet : gameBoard.getBullets()) {
-            if (!bullet.isActive()) continue;
-
-            Point pos = bullet.getPosition();
-            drawCell(g2d, pos.x, pos.y, BULLET_COLOR, true);
-            drawSymbol(g2d, pos.x, pos.y, BULLET_SYMBOL, Color.WHITE);
-        }
-    }
-
-    /**
-     * 绘制门
-     */
-    private void drawDoor(Graphics2D g2d) {
-        var door = gameBoard.getDoor();
-        if (door != null && door.isVisible()) {
-            Point pos = door.getPosition();
-            drawCell(g2d, pos.x, pos.y, DOOR_COLOR, true);
-            drawSymbol(g2d, pos.x, pos.y, '\u25C7', Color.BLACK);  // ◇ 菱形
+        if (clipMinX <= clipMaxX && clipMinY <= clipMaxY) {
+            gameBoard.copyCells(clipMinX, clipMinY, clipMaxX, clipMaxY, visibleCells);
+            int i = 0;
+            for (int y = clipMinY; y <= clipMaxY; y++) {
+                int pixelY = viewport.toScreenY(y);
+                for (int x = clipMinX; x <= clipMaxX; x++) {
+                    int tile = tileForCell[visibleCells[i++]];
+                    if (tile >= 0) {
+                        atlas.draw(g2d, tile, viewport.toScreenX(x), pixelY);
+                    }
+                }
+            }
         }
+        drawHint(g2d);
     }
 
     /**
-     * 绘制蛇
+     * 绘制 AI 建议（空心方框）
      */
-    private void drawSnake(Graphics2D g2d) {
-        var snake = gameBoard.getSnake();
-        if (snake == null || !snake.isAlive()) return;
-
-        var body = snake.getBody();
-        for (int i = 0; i < body.size(); i++) {
-            Point p = body.get(i);
-
-            if (i == 0) {
-                // 蛇头 □
-                drawCell(g2d, p.x, p.y, SNAKE_HEAD_COLOR, true);
-                drawSymbol(g2d, p.x, p.y, SNAKE_HEAD_SYMBOL, Color.BLACK);
-            } else {
-                // 蛇身 #
-                drawCell(g2d, p.x, p.y, SNAKE_BODY_COLOR, true);
-                drawSymbol(g2d, p.x, p.y, SNAKE_BODY_SYMBOL, Color.BLACK);
-            }
+    private void drawHint(Graphics2D g2d) {
+        Point cell = hintCell;
+        if (cell != null && viewport.isVisible(cell.x, cell.y)) {
+            drawCell(g2d, cell.x, cell.y, HINT_COLOR, false);
         }
     }
 
     /**
      * 绘制欢迎屏幕（游戏未开始时）
      */
-    private void drawWelcomeScreen(Graphics2D g2d) {
+    static void drawWelcomeScreen(Graphics2D g2d) {
         g2d.setColor(Color.WHITE);
         g2d.setFont(new Font("Monospaced", Font.BOLD, 24));
 
@@ -276,40 +429,15 @@ public class GamePanel extends JPanel {
      * @param filled 是否填充（true=实心，false=空心）
      */
     public void drawCell(Graphics2D g2d, int gridX, int gridY, Color color, boolean filled) {
-        int pixelX = gridX * CELL_SIZE;
-        int pixelY = gridY * CELL_SIZE;
+        int pixelX = viewport.toScreenX(gridX);
+        int pixelY = viewport.toScreenY(gridY);
+        int cellSize = viewport.getCellSize();
 
         g2d.setColor(color);
         if (filled) {
-            g2d.fillRect(pixelX, pixelY, CELL_SIZE, CELL_SIZE);
+            g2d.fillRect(pixelX, pixelY, cellSize, cellSize);
         } else {
-            g2d.drawRect(pixelX, pixelY, CELL_SIZE - 1, CELL_SIZE - 1);
+            g2d.drawRect(pixelX, pixelY, cellSize - 1, cellSize - 1);
         }
     }
-
-    /**
-     * 绘制文字符号（ASCII 字符渲染）
-     * @param g2d Graphics2D 对象
-     * @param gridX 网格 X 坐标
-     * @param gridY 网格 Y 坐标
-     * @param symbol 符号字符（如 '#', '□', '■' 等）
-     * @param color 颜色
-     */
-    public void drawSymbol(Graphics2D g2d, int gridX, int gridY, char symbol, Color color) {
-        int pixelX = gridX * CELL_SIZE;
-        int pixelY = gridY * CELL_SIZE;
-
-        g2d.setColor(color);
-        g2d.setFont(new Font("Monospaced", Font.BOLD, CELL_SIZE));
-
-        // 居中对齐
-        FontMetrics fm = g2d.getFontMetrics();
-        int charWidth = fm.charWidth(symbol);
-        int charHeight = fm.getAscent();
-
-        int x = pixelX + (CELL_SIZE - charWidth) / 2;
-        int y = pixelY + (CELL_SIZE + charHeight) / 2 - 2;
-
-        g2d.drawString(String.valueOf(symbol), x, y);
-    }
 }
@@ -0,0 +1,48 @@
+package com.xylonet.snake.ui;
+
+import com.xylonet.snake.game.BoardChangeSet;
+import com.xylonet.snake.game.GameBoard;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Point;
+
+/**
+ * 游戏画面
+ * 被动渲染（{@link GamePanel}，Swing repaint）和主动渲染（{@link ActiveGameCanvas}，渲染线程 + BufferStrategy）
+ * 的共同接口；所有方法都在 EDT 上调用
+ */
+public interface GameView {
+
+    /**
+     * 一帧逻辑更新完成
+     * @param changes 自上次渲染以来变化的格子（可能为 null，表示整盘变化）
+     */
+    void render(GameBoard board, BoardChangeSet changes);
+
+    /**
+     * 设置 AI 建议的下一格
+     * @param cell 网格坐标，null 表示清除
+     */
+    void setHintCell(Point cell);
+
+    /**
+     * 设置覆盖层消息（如 "Game Over", "Level Complete"）
+     */
+    void setOverlay(String message, Color color);
+
+    /**
+     * 清除覆盖层
+     */
+    void clearOverlay();
+
+    /**
+     * 放入窗口布局的组件
+     */
+    Component getComponent();
+
+    /**
+     * 渲染方式与帧时间统计（用于控制台显示）
+     */
+    String summary();
+}
@@ -0,0 +1,148 @@
+package com.xylonet.snake.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 格子符号图集
+ * 每种 (符号, 前景色, 背景色) 预先渲染成一张 cellSize x cellSize 的小图，绘制时一次 drawImage
+ * - 调用方在初始化时 {@link #register} 拿到编号，绘制时按编号取图，不做查找、不分配对象
+ * - 格子大小或配色变化时 {@link #setCellSize} / {@link #invalidate} 使全部小图失效，下次绘制时重建
+ * - 使用与屏幕兼容的 BufferedImage（受管图像，Java2D 会自动缓存到显存），
+ *   不用 VolatileImage：后者内容可能随时丢失，需要每帧检查并重画
+ */
+public class GlyphAtlas {
+    private final List<Glyph> glyphs = new ArrayList<>();
+    private volatile BufferedImage[] tiles = new BufferedImage[0];
+    private volatile int cellSize;
+    private volatile boolean valid = false;
+
+    public GlyphAtlas(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * 登记一种格子外观
+     * @param symbol 符号字符
+     * @param foreground 符号颜色
+     * @param background 格子填充色
+     * @return 格子编号（用于 {@link #draw}）
+     */
+    public synchronized int register(char symbol, Color foreground, Color background) {
+        for (int i = 0; i < glyphs.size(); i++) {
+            Glyph glyph = glyphs.get(i);
+            if (glyph.symbol == symbol && glyph.foreground.equals(foreground) && glyph.background.equals(background)) {
+                return i;
+            }
+        }
+        glyphs.add(new Glyph(symbol, foreground, background));
+        valid = false;
+        return glyphs.size() - 1;
+    }
+
+    /**
+     * 修改某个格子的配色（换主题时使用），下次绘制时重建
+     */
+    public synchronized void recolor(int id, Color foreground, Color background) {
+        Glyph glyph = glyphs.get(id);
+        glyphs.set(id, new Glyph(glyph.symbol, foreground, background));
+        valid = false;
+    }
+
+    public synchronized void setCellSize(int cellSize) {
+        if (this.cellSize != cellSize) {
+            this.cellSize = cellSize;
+            valid = false;
+        }
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * 使全部小图失效（如切换显示器后）
+     */
+    public synchronized void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * 在像素坐标 (x, y) 处绘制一个格子
+     */
+    public void draw(Graphics g, int id, int x, int y) {
+        g.drawImage(tile(id), x, y, null);
+    }
+
+    /**
+     * 取得格子小图（必要时先重建整个图集）
+     */
+    public BufferedImage tile(int id) {
+        BufferedImage[] current = tiles;
+        if (!valid || id >= current.length) {
+            current = rebuild();
+        }
+        return current[id];
+    }
+
+    private synchronized BufferedImage[] rebuild() {
+        if (valid && tiles.length == glyphs.size()) {
+            return tiles;
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        Font font = new Font("Monospaced", Font.BOLD, cellSize);
+        BufferedImage[] built = new BufferedImage[glyphs.size()];
+        for (int i = 0; i < built.length; i++) {
+            built[i] = renderTile(glyphs.get(i), config, font);
+        }
+        tiles = built;
+        valid = true;
+        return built;
+    }
+
+    /**
+     * 渲染一个格子：背景填充 + 居中符号（位置计算与原先逐格 drawString 相同）
+     */
+    private BufferedImage renderTile(Glyph glyph, GraphicsConfiguration config, Font font) {
+        BufferedImage image = config != null
+                ? config.createCompatibleImage(cellSize, cellSize, Transparency.OPAQUE)
+                : new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(glyph.background);
+            g2d.fillRect(0, 0, cellSize, cellSize);
+
+            g2d.setColor(glyph.foreground);
+            g2d.setFont(font);
+            FontMetrics fm = g2d.getFontMetrics();
+            int x = (cellSize - fm.charWidth(glyph.symbol)) / 2;
+            int y = (cellSize + fm.getAscent()) / 2 - 2;
+            g2d.drawString(String.valueOf(glyph.symbol), x, y);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    private static final class Glyph {
+        final char symbol;
+        final Color foreground;
+        final Color background;
+
+        Glyph(char symbol, Color foreground, Color background) {
+            this.symbol = symbol;
+            this.foreground = foreground;
+            this.background = background;
+        }
+    }
+}
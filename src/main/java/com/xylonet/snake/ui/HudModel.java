@@ -0,0 +1,113 @@
+package com.xylonet.snake.ui;
+
+import com.xylonet.snake.game.Door;
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.MetricsRegistry;
+
+/**
+ * 信息面板与进度条的数值模型（只在 EDT 上使用）
+ * - 事件处理时只记录数值，值没变不做任何事，变了置对应的脏标记
+ * - 每批事件结束时 {@link #flush} 一次，只把脏的字段推给面板：
+ *   数值不变时（大多数帧）既不格式化字符串，也不 setText / repaint
+ */
+public class HudModel {
+    private static final int SCORE = 1;
+    private static final int LENGTH = 1 << 1;
+    private static final int LEVEL = 1 << 2;
+    private static final int TIME = 1 << 3;
+    private static final int MBTI = 1 << 4;
+    private static final int BULLETS = 1 << 5;
+    private static final int PROGRESS = 1 << 6;
+
+    private int dirty;
+    private int score = -1;  // -1：尚未推送过，第一次设置总是生效
+    private int length = -1;
+    private int level = -1;
+    private int timeRemaining = -1;
+    private String mbtiType;
+    private String bullets;
+    private boolean progressVisible;
+    private int foodNeeded;
+    private double doorProgress;
+
+    private final Counter flushes = MetricsRegistry.getDefault().counter("ui.hud_flushes");
+
+    public void setScore(int score) {
+        if (this.score != score) {
+            this.score = score;
+            dirty |= SCORE;
+        }
+    }
+
+    public void setLength(int length) {
+        if (this.length != length) {
+            this.length = length;
+            dirty |= LENGTH;
+        }
+    }
+
+    public void setLevel(int level) {
+        if (this.level != level) {
+            this.level = level;
+            dirty |= LEVEL;
+        }
+    }
+
+    public void setTime(int seconds) {
+        if (this.timeRemaining != seconds) {
+            this.timeRemaining = seconds;
+            dirty |= TIME;
+        }
+    }
+
+    public void setMbtiType(String mbtiType) {
+        if (!mbtiType.equals(this.mbtiType)) {
+            this.mbtiType = mbtiType;
+            dirty |= MBTI;
+        }
+    }
+
+    public void setBulletCount(String displayText) {
+        if (!displayText.equals(bullets)) {
+            this.bullets = displayText;
+            dirty |= BULLETS;
+        }
+    }
+
+    /**
+     * 从棋盘读取开门进度（门出现后进度条隐藏）
+     */
+    public void setDoorProgress(GameBoard board) {
+        Door door = board.getDoor();
+        boolean visible = door != null && !door.isVisible();
+        int needed = visible ? board.getFoodNeededForDoor() : 0;
+        double progress = visible ? board.getDoorProgress() : 0.0;
+        if (visible != progressVisible || needed != foodNeeded || progress != doorProgress) {
+            progressVisible = visible;
+            foodNeeded = needed;
+            doorProgress = progress;
+            dirty |= PROGRESS;
+        }
+    }
+
+    /**
+     * 把变化的字段推给面板（每批事件一次）
+     */
+    public void flush(InfoPanel infoPanel, ProgressBarPanel progressBarPanel) {
+        if (dirty == 0) {
+            return;
+        }
+        if ((dirty & SCORE) != 0) infoPanel.setScore(score);
+        if ((dirty & LENGTH) != 0) infoPanel.setLength(length);
+        if ((dirty & LEVEL) != 0) infoPanel.setLevel(level);
+        if ((dirty & TIME) != 0) infoPanel.setTime(timeRemaining);
+        if ((dirty & MBTI) != 0) infoPanel.setMbtiType(mbtiType);
+        if ((dirty & BULLETS) != 0) infoPanel.setBulletCount(bullets);
+        if ((dirty & PROGRESS) != 0 && progressBarPanel != null) {
+            progressBarPanel.setProgress(progressVisible, doorProgress, foodNeeded);
+        }
+        dirty = 0;
+        flushes.increment();
+    }
+}
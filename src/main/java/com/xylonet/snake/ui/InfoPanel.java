@@ -6,6 +6,7 @@ import java.awt.*;
 /**
  * 信息显示面板（顶部）
  * 显示：分数、蛇长度、关卡、时间、MBTI 分析、子弹数、暂停按钮
+ * 每个 setter 只在值变化时重新格式化并更新自己的标签；数值由 {@link HudModel} 每批合并后推送
  */
 public class InfoPanel extends JPanel {
     private static final int PANEL_WIDTH = 400;  // 右侧面板宽度
@@ -90,27 +91,56 @@ public class InfoPanel extends JPanel {
     }
 
     /**
-     * 更新所有显示文本
+     * 更新所有显示文本（只在创建时调用）
      */
     private void updateDisplay() {
-        scoreLabel.setText(String.format("分数: %d", score));
-        lengthLabel.setText(String.format("长度: %d", snakeLength));
-        levelLabel.setText(String.format("关卡: %d", level));
-        timeLabel.setText(String.format("时间: %d:%02d", timeRemaining / 60, timeRemaining % 60));
-        mbtiLabel.setText(String.format("MBTI: %s", mbtiType));
-        bulletsLabel.setText(bulletsCount == 999 ? "子弹: ∞" : String.format("子弹: %d", bulletsCount));
+        updateScore();
+        updateLength();
+        updateLevel();
+        updateTime();
+        updateMbti();
+        updateBullets();
+    }
+
+    private void updateScore() {
+        scoreLabel.setText("分数: " + score);
+    }
+
+    private void updateLength() {
+        lengthLabel.setText("长度: " + snakeLength);
+    }
+
+    private void updateLevel() {
+        levelLabel.setText("关卡: " + level);
+    }
+
+    private void updateTime() {
+        int seconds = timeRemaining % 60;
+        timeLabel.setText("时间: " + timeRemaining / 60 + (seconds < 10 ? ":0" : ":") + seconds);
+    }
+
+    private void updateMbti() {
+        mbtiLabel.setText("MBTI: " + mbtiType);
+    }
+
+    private void updateBullets() {
+        bulletsLabel.setText(bulletsCount == 999 ? "子弹: ∞" : "子弹: " + bulletsCount);
     }
 
     // ==================== 公开更新方法 ====================
 
     public void setScore(int score) {
-        this.score = score;
-        updateDisplay();
+        if (this.score != score) {
+            this.score = score;
+            updateScore();
+        }
     }
 
     public void setSnakeLength(int length) {
-        this.snakeLength = length;
-        updateDisplay();
+        if (this.snakeLength != length) {
+            this.snakeLength = length;
+            updateLength();
+        }
     }
 
     public void setLength(int length) {
@@ -118,13 +148,17 @@ public class InfoPanel extends JPanel {
     }
 
     public void setLevel(int level) {
-        this.level = level;
-        updateDisplay();
+        if (this.level != level) {
+            this.level = level;
+            updateLevel();
+        }
     }
 
     public void setTimeRemaining(int seconds) {
-        this.timeRemaining = seconds;
-        updateDisplay();
+        if (this.timeRemaining != seconds) {
+            this.timeRemaining = seconds;
+            updateTime();
+        }
     }
 
     public void setTime(int seconds) {
@@ -132,26 +166,31 @@ public class InfoPanel extends JPanel {
     }
 
     public void setMbtiType(String mbtiType) {
-        this.mbtiType = mbtiType;
-        updateDisplay();
+        if (!mbtiType.equals(this.mbtiType)) {
+            this.mbtiType = mbtiType;
+            updateMbti();
+        }
     }
 
     public void setBulletsCount(int count) {
-        this.bulletsCount = count;
-        updateDisplay();
+        if (this.bulletsCount != count) {
+            this.bulletsCount = count;
+            updateBullets();
+        }
     }
 
     public void setBulletCount(String displayText) {
+        int count;
         if ("∞".equals(displayText) || "\u221E".equals(displayText)) {
-            this.bulletsCount = 999;
+            count = 999;
         } else {
             try {
-                this.bulletsCount = Integer.parseInt(displayText);
+                count = Integer.parseInt(displayText);
             } catch (NumberFormatException e) {
-                this.bulletsCount = 999;
+                count = 999;
             }
         }
-        updateDisplay();
+        setBulletsCount(count);
     }
 
     /**
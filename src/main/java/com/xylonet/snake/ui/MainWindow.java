@@ -1,13 +1,32 @@
 package com.xylonet.snake.ui;
 
+import com.xylonet.snake.analysis.BehaviorSubscriber;
+import com.xylonet.snake.data.GameDatabase;
+import com.xylonet.snake.data.TelemetrySubscriber;
+import com.xylonet.snake.event.EventBus;
+import com.xylonet.snake.event.GameEvent;
 import com.xylonet.snake.game.Bullet;
+import com.xylonet.snake.game.GameBoard;
 import com.xylonet.snake.game.GameEngine;
 import com.xylonet.snake.game.Snake;
+import com.xylonet.snake.jfr.FlightRecorderControl;
+import com.xylonet.snake.management.GameEngineMonitor;
+import com.xylonet.snake.management.ManagementSupport;
+import com.xylonet.snake.metrics.MetricsRegistry;
+import com.xylonet.snake.network.AIClient;
+import com.xylonet.snake.network.PythonWorkerPool;
+import com.xylonet.snake.replay.BoardRecorder;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * 主游戏窗口 1200x900 分辨率，黑底 ASCII 风格
@@ -17,11 +36,17 @@ public class MainWindow extends JFrame {
   private static final int WINDOW_WIDTH = 1200;
   private static final int WINDOW_HEIGHT = 900;
 
-  private GamePanel gamePanel;
+  private GameView gameView;
   private ProgressBarPanel progressBarPanel;
   private InfoPanel infoPanel;
   private ConsolePanel consolePanel;
   private GameEngine gameEngine;
+  private EventBus eventBus;
+  private PythonWorkerPool aiPool;
+  private BehaviorSubscriber behavior;             // 行为特征 + 后台 MBTI 分析（事件线程）
+  private TelemetrySubscriber telemetry;           // 数据库遥测（事件线程），数据库不可用时为 null
+  private BoardRecorder boardRecorder;             // 当前录像（只在 EDT 上访问）
+  private EventBus.Subscription recordSubscription;
 
   public MainWindow() {
     initializeWindow();
@@ -29,6 +54,7 @@ public class MainWindow extends JFrame {
     layoutComponents();
     setupKeyboardInput();
     setupConsoleCommands();
+    startAIService();
     startGame();
   }
 
@@ -39,6 +65,20 @@ public class MainWindow extends JFrame {
     setTitle("Xylonet Snake - ASCII Edition");
     setSize(WINDOW_WIDTH, WINDOW_HEIGHT);
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    // 监听器在 EXIT_ON_CLOSE 退出之前、在 EDT 上调用：写出录像缓冲中尚未落盘的帧
+    addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosing(WindowEvent e) {
+        long frames = stopRecording();
+        if (frames >= 0) {
+          System.out.println("[Record] 窗口关闭，录像已保存，共 " + frames + " 帧");
+        }
+        behavior.shutdown();
+        if (telemetry != null) {
+          telemetry.close();  // 写完队列中的遥测并关闭数据库
+        }
+      }
+    });
     setResizable(false);
     setLocationRelativeTo(null);  // 居中显示
 
@@ -51,12 +91,40 @@ public class MainWindow extends JFrame {
    */
   private void initializeComponents() {
     infoPanel = new InfoPanel();
-    gamePanel = new GamePanel();
+    // -Dxylonet.render=active 使用渲染线程 + BufferStrategy 主动渲染，
+    // -Dxylonet.render=raster 使用 ForkJoin 并行光栅化，默认为 Swing 被动渲染
+    String render = System.getProperty("xylonet.render", "");
+    if ("active".equalsIgnoreCase(render)) {
+      gameView = new ActiveGameCanvas();
+    } else if ("raster".equalsIgnoreCase(render)) {
+      gameView = new RasterGameView();
+    } else {
+      gameView = new GamePanel();
+    }
     progressBarPanel = new ProgressBarPanel();
     consolePanel = new ConsolePanel();
 
-    // 创建游戏引擎
-    gameEngine = new GameEngine(gamePanel, infoPanel, progressBarPanel, consolePanel);
+    // 创建游戏引擎（引擎和按键处理都在 EDT 上发布事件，单生产者）
+    eventBus = new EventBus(true);
+    eventBus.subscribe("ui", EventBus.Delivery.EDT,
+        new GameEventPresenter(gameView, infoPanel, progressBarPanel, consolePanel));
+    gameEngine = new GameEngine(eventBus);
+    ManagementSupport.register("GameEngine", null, new GameEngineMonitor(gameEngine));
+
+    // 行为分析和遥测在各自的事件线程上处理，游戏循环只发布事件
+    behavior = new BehaviorSubscriber(eventBus, GameBoard.GRID_SIZE, GameBoard.GRID_SIZE);
+    eventBus.subscribe("behavior", EventBus.Delivery.THREAD, behavior,
+        GameEvent.GameStarted.class, GameEvent.GameOver.class, GameEvent.GameReset.class,
+        GameEvent.SnakeMoved.class, GameEvent.DirectionChanged.class, GameEvent.ShotFired.class,
+        GameEvent.BulletsHit.class, GameEvent.FoodEaten.class, GameEvent.LevelChanged.class,
+        GameEvent.LevelCompleted.class);
+    GameDatabase database = new GameDatabase();
+    if (database.connect()) {
+      telemetry = new TelemetrySubscriber(database);
+      eventBus.subscribe("telemetry", EventBus.Delivery.THREAD, telemetry,
+          GameEvent.GameStarted.class, GameEvent.GameOver.class, GameEvent.DirectionChanged.class,
+          GameEvent.ShotFired.class, GameEvent.GameSnapshot.class);
+    }
   }
 
   /**
@@ -71,7 +139,7 @@ public class MainWindow extends JFrame {
     setLayout(new BorderLayout());
 
     // 左侧：游戏区域（不加边框）
-    add(gamePanel, BorderLayout.CENTER);
+    add(gameView.getComponent(), BorderLayout.CENTER);
 
     // 创建垂直分隔符面板（用 ║ 双线字符）
     JPanel verticalSeparator = new JPanel() {
@@ -144,7 +212,7 @@ public class MainWindow extends JFrame {
     // 主游戏区域（游戏面板 + 垂直分隔符）
     JPanel mainPanel = new JPanel(new BorderLayout());
     mainPanel.setBackground(Color.BLACK);
-    mainPanel.add(gamePanel, BorderLayout.CENTER);
+    mainPanel.add(gameView.getComponent(), BorderLayout.CENTER);
     mainPanel.add(verticalSeparator, BorderLayout.EAST);
 
     // 左侧区域（进度条 + 游戏面板）
@@ -158,10 +226,10 @@ public class MainWindow extends JFrame {
   }
 
   /**
-   * 获取游戏面板（供游戏引擎使用）
+   * 获取游戏画面
    */
-  public GamePanel getGamePanel() {
-    return gamePanel;
+  public GameView getGameView() {
+    return gameView;
   }
 
   /**
@@ -272,6 +340,20 @@ public class MainWindow extends JFrame {
       case KeyEvent.VK_R:
         gameEngine.restart();
         break;
+
+      // + / - 缩放（被动渲染面板）
+      case KeyEvent.VK_EQUALS:
+      case KeyEvent.VK_ADD:
+        if (gameView instanceof GamePanel) {
+          ((GamePanel) gameView).zoomIn();
+        }
+        break;
+      case KeyEvent.VK_MINUS:
+      case KeyEvent.VK_SUBTRACT:
+        if (gameView instanceof GamePanel) {
+          ((GamePanel) gameView).zoomOut();
+        }
+        break;
     }
   }
 
@@ -334,6 +416,127 @@ public class MainWindow extends JFrame {
                 ConsolePanel.MessageType.INFO);
           }
           break;
+
+        case "perf":
+          handled = true;
+          if (parts.length >= 2 && parts[1].equals("reset")) {
+            MetricsRegistry.getDefault().reset();
+            consolePanel.addMessage("性能指标已清空", ConsolePanel.MessageType.SYSTEM);
+          } else {
+            List<String> lines = MetricsRegistry.getDefault().report(parts.length >= 2 ? parts[1] : null);
+            if (lines.isEmpty()) {
+              consolePanel.addMessage("暂无性能数据", ConsolePanel.MessageType.INFO);
+            }
+            for (String line : lines) {
+              consolePanel.addMessage(line, ConsolePanel.MessageType.INFO);
+            }
+          }
+          break;
+
+        case "render":
+          handled = true;
+          if (parts.length >= 3 && parts[1].equals("fps") && gameView instanceof ActiveGameCanvas) {
+            try {
+              ((ActiveGameCanvas) gameView).setTargetFps(Integer.parseInt(parts[2]));
+              consolePanel.addMessage("目标帧率已设置为: " + parts[2], ConsolePanel.MessageType.SYSTEM);
+            } catch (NumberFormatException e) {
+              consolePanel.addMessage("无效的帧率: " + parts[2], ConsolePanel.MessageType.ERROR);
+            }
+          } else {
+            consolePanel.addMessage(gameView.summary(), ConsolePanel.MessageType.INFO);
+          }
+          break;
+
+        case "jfr":
+          handled = true;
+          if (parts.length >= 2 && parts[1].equals("start")) {
+            // 文件名保留大小写，取原始命令
+            String[] rawParts = command.substring(1).split("\\s+");
+            String file = rawParts.length >= 3 ? rawParts[2] : "data/snake-" + System.currentTimeMillis() + ".jfr";
+            try {
+              FlightRecorderControl.start(Paths.get(file));
+              consolePanel.addMessage("开始飞行记录: " + file, ConsolePanel.MessageType.SYSTEM);
+            } catch (IOException | RuntimeException e) {
+              consolePanel.addMessage("无法开始飞行记录: " + e.getMessage(), ConsolePanel.MessageType.ERROR);
+            }
+          } else if (parts.length >= 2 && parts[1].equals("stop")) {
+            Path written = FlightRecorderControl.stop();
+            consolePanel.addMessage(written == null ? "当前没有飞行记录" : "飞行记录已写出: " + written,
+                ConsolePanel.MessageType.SYSTEM);
+          } else {
+            consolePanel.addMessage(FlightRecorderControl.status(), ConsolePanel.MessageType.INFO);
+            consolePanel.addMessage("用法: /jfr start [文件] 或 /jfr stop", ConsolePanel.MessageType.INFO);
+          }
+          break;
+
+        case "record":
+          handled = true;
+          if (parts.length >= 2 && parts[1].equals("start")) {
+            // 文件名保留大小写，取原始命令
+            String[] rawParts = command.substring(1).split("\\s+");
+            String file = rawParts.length >= 3 ? rawParts[2] : "data/game-" + System.currentTimeMillis() + ".xsbr";
+            stopRecording();
+            try {
+              boardRecorder = BoardRecorder.start(Paths.get(file), gameEngine.getBoard(), gameEngine.getLogicTick());
+              recordSubscription = eventBus.subscribe("record", EventBus.Delivery.EDT, boardRecorder,
+                  GameEvent.FrameUpdated.class);
+              consolePanel.addMessage("开始录像: " + file, ConsolePanel.MessageType.SYSTEM);
+            } catch (IOException e) {
+              consolePanel.addMessage("无法创建录像文件: " + e.getMessage(), ConsolePanel.MessageType.ERROR);
+            }
+          } else if (parts.length >= 2 && parts[1].equals("stop")) {
+            if (boardRecorder == null) {
+              consolePanel.addMessage("当前没有录像", ConsolePanel.MessageType.INFO);
+            } else {
+              Path path = boardRecorder.getPath();
+              long frames = stopRecording();
+              consolePanel.addMessage("录像结束，共 " + frames + " 帧: " + path, ConsolePanel.MessageType.SYSTEM);
+            }
+          } else {
+            consolePanel.addMessage(boardRecorder == null ? "当前没有录像" : "正在录像: " + boardRecorder.getPath(),
+                ConsolePanel.MessageType.INFO);
+            consolePanel.addMessage("用法: /record start [文件] 或 /record stop", ConsolePanel.MessageType.INFO);
+          }
+          break;
+
+        case "ai":
+          handled = true;
+          AIClient client = aiPool.getRealtimeClient();
+          if (client == null) {
+            consolePanel.addMessage("AI 服务不可用", ConsolePanel.MessageType.WARNING);
+          } else if (parts.length >= 3 && parts[1].equals("deadline")) {
+            try {
+              client.getHintChannel().setDeadlineMs(Long.parseLong(parts[2]));
+              consolePanel.addMessage("建议截止时间已设置为: " + parts[2] + "ms", ConsolePanel.MessageType.SYSTEM);
+            } catch (NumberFormatException e) {
+              consolePanel.addMessage("无效的截止时间: " + parts[2], ConsolePanel.MessageType.ERROR);
+            }
+          } else if (parts.length >= 3 && parts[1].equals("capture")) {
+            if (parts[2].equals("stop")) {
+              long count = client.stopCapture();
+              consolePanel.addMessage(count < 0 ? "当前没有抓包" : "抓包结束，共 " + count + " 条消息",
+                  ConsolePanel.MessageType.SYSTEM);
+            } else {
+              try {
+                client.startCapture(Paths.get(parts[2]));
+                consolePanel.addMessage("开始抓包: " + parts[2], ConsolePanel.MessageType.SYSTEM);
+              } catch (IOException e) {
+                consolePanel.addMessage("无法创建抓包文件: " + e.getMessage(), ConsolePanel.MessageType.ERROR);
+              }
+            }
+          } else {
+            consolePanel.addMessage("AI 工作进程: " + aiPool.getAvailableWorkerCount() + "/" + aiPool.getWorkerCount(),
+                ConsolePanel.MessageType.AI);
+            consolePanel.addMessage("建议截止时间: " + client.getHintChannel().getDeadlineMs() + "ms",
+                ConsolePanel.MessageType.AI);
+            consolePanel.addMessage(client.getHintChannel().summary(), ConsolePanel.MessageType.AI);
+            consolePanel.addMessage("分析缓存: " + aiPool.getAnalysisCache().summary(), ConsolePanel.MessageType.AI);
+            consolePanel.addMessage("MBTI 调度: " + behavior.getScheduler().summary(), ConsolePanel.MessageType.AI);
+            for (EventBus.Subscription subscription : eventBus.getSubscriptions()) {
+              consolePanel.addMessage("事件订阅: " + subscription.summary(), ConsolePanel.MessageType.AI);
+            }
+          }
+          break;
       }
 
       // 如果未处理，调用默认处理器
@@ -343,6 +546,44 @@ public class MainWindow extends JFrame {
     });
   }
 
+  /**
+   * 结束当前录像（没有录像时什么也不做）
+   * @return 写入的帧数，失败或没有录像时为 -1
+   */
+  private long stopRecording() {
+    if (boardRecorder == null) {
+      return -1;
+    }
+    eventBus.unsubscribe(recordSubscription);
+    long frames = -1;
+    try {
+      frames = boardRecorder.stop();
+    } catch (IOException e) {
+      System.err.println("[Record] 关闭录像文件失败: " + e.getMessage());
+    }
+    boardRecorder = null;
+    recordSubscription = null;
+    return frames;
+  }
+
+  /**
+   * 后台启动 Python AI 工作进程池，不阻塞 UI
+   * 启动失败时游戏照常运行，只是没有 AI 建议
+   */
+  private void startAIService() {
+    aiPool = new PythonWorkerPool();
+    gameEngine.setAIClientSupplier(aiPool::getRealtimeClient);
+    behavior.setAnalysisService(aiPool.getAnalysisCache());  // 经缓存访问，数据版本未变时不打扰工作进程
+    aiPool.start().whenComplete((ok, error) -> SwingUtilities.invokeLater(() -> {
+      if (error != null) {
+        consolePanel.addMessage("AI 服务不可用: " + error.getMessage(), ConsolePanel.MessageType.WARNING);
+      } else {
+        consolePanel.addMessage("AI 服务已就绪", ConsolePanel.MessageType.AI);
+      }
+    }));
+    Runtime.getRuntime().addShutdownHook(new Thread(aiPool::shutdown, "ai-pool-shutdown"));
+  }
+
   /**
    * 启动游戏
    */
@@ -351,7 +592,7 @@ public class MainWindow extends JFrame {
     consolePanel.addMessage("Press SPACE to start the game", ConsolePanel.MessageType.SYSTEM);
     consolePanel.addMessage("Controls: WASD = Move, Arrow Keys = Shoot, P = Pause, T = Console",
         ConsolePanel.MessageType.INFO);
-    consolePanel.addMessage("Commands: /snake speed [ms], /help", ConsolePanel.MessageType.INFO);
+    consolePanel.addMessage("Commands: /snake speed [ms], /ai [deadline ms | capture file|stop], /help", ConsolePanel.MessageType.INFO);
   }
 
   /**
@@ -365,6 +606,7 @@ public class MainWindow extends JFrame {
    * 测试主窗口
    */
   public static void main(String[] args) {
+    FlightRecorderControl.startFromSystemProperty();
     SwingUtilities.invokeLater(() -> {
       MainWindow window = new MainWindow();
       window.display();
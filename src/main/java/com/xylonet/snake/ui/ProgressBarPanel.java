@@ -1,18 +1,23 @@
 package com.xylonet.snake.ui;
 
-import com.xylonet.snake.game.GameBoard;
-
 import javax.swing.*;
 import java.awt.*;
 
 /**
  * 进度条面板 - 显示食物收集进度
+ * 只保存进度数值（由 {@link HudModel} 在变化时推送），数值不变时不重绘
  */
 public class ProgressBarPanel extends JPanel {
     private static final Color BG_COLOR = Color.BLACK;
     private static final int PANEL_HEIGHT = 30;
+    private static final Color TRACK_COLOR = new Color(50, 50, 50);
+    private static final Color FILL_COLOR = new Color(0, 200, 255);  // 亮蓝色
+    private static final Color BORDER_COLOR = new Color(120, 120, 120);
+    private static final Font TEXT_FONT = new Font("Monospaced", Font.BOLD, 11);
 
-    private GameBoard gameBoard;
+    private boolean barVisible;  // 门出现前显示
+    private double progress;
+    private String text = "";
 
     public ProgressBarPanel() {
         setBackground(BG_COLOR);
@@ -20,10 +25,15 @@ public class ProgressBarPanel extends JPanel {
     }
 
     /**
-     * 设置游戏板引用
+     * 设置开门进度
+     * @param visible 是否显示进度条（门出现后隐藏）
+     * @param progress 0..1
+     * @param foodNeeded 开门还需的食物数
      */
-    public void setGameBoard(GameBoard board) {
-        this.gameBoard = board;
+    public void setProgress(boolean visible, double progress, int foodNeeded) {
+        this.barVisible = visible;
+        this.progress = progress;
+        this.text = "Food to door: " + foodNeeded;
         repaint();
     }
 
@@ -31,12 +41,7 @@ public class ProgressBarPanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        if (gameBoard == null || gameBoard.getDoor() == null) {
-            return;
-        }
-
-        // 如果门已经可见，不显示进度条
-        if (gameBoard.getDoor().isVisible()) {
+        if (!barVisible) {
             return;
         }
 
@@ -49,27 +54,22 @@ public class ProgressBarPanel extends JPanel {
         int barX = margin;
         int barY = (PANEL_HEIGHT - barHeight) / 2;
 
-        // 获取进度信息
-        double progress = gameBoard.getDoorProgress();
-        int foodNeeded = gameBoard.getFoodNeededForDoor();
-
         // 绘制背景（空的部分）
-        g2d.setColor(new Color(50, 50, 50));
+        g2d.setColor(TRACK_COLOR);
         g2d.fillRect(barX, barY, barWidth, barHeight);
 
         // 绘制进度（已完成的部分）
         int filledWidth = (int) (barWidth * progress);
-        g2d.setColor(new Color(0, 200, 255));  // 亮蓝色
+        g2d.setColor(FILL_COLOR);
         g2d.fillRect(barX, barY, filledWidth, barHeight);
 
         // 绘制边框
-        g2d.setColor(new Color(120, 120, 120));
+        g2d.setColor(BORDER_COLOR);
         g2d.drawRect(barX, barY, barWidth, barHeight);
 
         // 绘制文字说明（居中）
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Monospaced", Font.BOLD, 11));
-        String text = "Food to door: " + foodNeeded;
+        g2d.setFont(TEXT_FONT);
         FontMetrics fm = g2d.getFontMetrics();
         int textWidth = fm.stringWidth(text);
         int textX = (getWidth() - textWidth) / 2;
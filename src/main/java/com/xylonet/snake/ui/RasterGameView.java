@@ -0,0 +1,204 @@
+package com.xylonet.snake.ui;
+
+import com.xylonet.snake.game.BoardChangeSet;
+import com.xylonet.snake.game.BoardSnapshot;
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.metrics.Counter;
+import com.xylonet.snake.metrics.LatencyHistogram;
+import com.xylonet.snake.metrics.MetricsRegistry;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 像素缓冲并行渲染的游戏画面（-Dxylonet.render=raster），面向大棋盘和缩略总览
+ * - EDT 每帧把棋盘复制到快照，经交换槽交给光栅线程（与 {@link ActiveGameCanvas} 相同的三缓冲交接，
+ *   光栅线程忙时只覆盖槽中的旧帧，不排队）
+ * - 光栅线程用 {@link RasterRenderer} 在 ForkJoin 公共池上按条带并行写像素数组，
+ *   整帧完成后交给 EDT；paintComponent 只做一次 drawImage，再叠加覆盖层文字
+ * - 两个渲染器轮流使用：交给 EDT 的图像在被下一帧替换之前不会被改写
+ */
+public class RasterGameView extends JComponent implements GameView {
+    private static final int GRID_SIZE = GamePanel.GRID_SIZE;
+    private static final int CELL_SIZE = GamePanel.CELL_SIZE;
+    private static final int PANEL_SIZE = GRID_SIZE * CELL_SIZE;
+
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // 三缓冲交换
+    private final AtomicReference<Frame> handoff = new AtomicReference<>(new Frame());
+    private Frame back = new Frame();   // 只在 EDT 上使用
+    private Frame front = new Frame();  // 只在光栅线程上使用
+
+    // EDT 上的画面状态
+    private Point hintCell;
+    private String overlayMessage;
+    private Color overlayColor;
+    private BufferedImage shown;  // 最近完成的一帧
+    private long sequence;
+
+    // 光栅线程
+    private final RasterRenderer[] renderers = {new RasterRenderer(CELL_SIZE), new RasterRenderer(CELL_SIZE)};
+    private int nextRenderer;
+    private volatile boolean running = false;
+    private Thread rasterThread;
+
+    private final LatencyHistogram rasterTime = MetricsRegistry.getDefault().histogram("render.raster.draw");
+    private final Counter frames = MetricsRegistry.getDefault().counter("render.raster.frames");
+
+    public RasterGameView() {
+        setPreferredSize(new Dimension(PANEL_SIZE, PANEL_SIZE));
+        setBackground(GamePanel.BG_COLOR);
+        setOpaque(true);
+        setFocusable(false);  // 按键仍由主窗口接收
+    }
+
+    // ===== GameView（EDT） =====
+
+    @Override
+    public void render(GameBoard board, BoardChangeSet changes) {
+        Frame frame = back;
+        frame.snapshot.capture(board, ++sequence);
+        Point hint = hintCell;
+        frame.hintX = hint != null ? hint.x : -1;
+        frame.hintY = hint != null ? hint.y : -1;
+        frame.fresh = true;
+        back = handoff.getAndSet(frame);  // 换回的可能是光栅线程没来得及取走的旧帧，直接覆盖
+        Thread thread = rasterThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void setHintCell(Point cell) {
+        this.hintCell = cell;
+    }
+
+    @Override
+    public void setOverlay(String message, Color color) {
+        this.overlayMessage = message;
+        this.overlayColor = color;
+        repaint();
+    }
+
+    @Override
+    public void clearOverlay() {
+        this.overlayMessage = null;
+        this.overlayColor = null;
+        repaint();
+    }
+
+    @Override
+    public Component getComponent() {
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setColor(GamePanel.BG_COLOR);
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        BufferedImage image = shown;
+        if (image == null) {
+            GamePanel.drawWelcomeScreen(g2d);
+            return;
+        }
+        g2d.drawImage(image, 0, 0, null);
+        if (overlayMessage != null) {
+            GamePanel.drawOverlay(g2d, overlayMessage, overlayColor);
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        running = true;
+        rasterThread = new Thread(this::rasterLoop, "raster");
+        rasterThread.setDaemon(true);
+        rasterThread.start();
+        System.out.println("[Render] 并行光栅渲染: ForkJoin 并行度 " + pool.getParallelism());
+    }
+
+    @Override
+    public void removeNotify() {
+        running = false;
+        Thread thread = rasterThread;
+        rasterThread = null;
+        if (thread != null) {
+            thread.interrupt();  // 可能正阻塞在 invokeAndWait 上，而 EDT 正在这里等它
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.removeNotify();
+    }
+
+    // ===== 光栅线程 =====
+
+    private void rasterLoop() {
+        while (running) {
+            // 只有 EDT 会放入新帧，所以检查后交换拿到的一定是新帧
+            if (!handoff.get().fresh) {
+                LockSupport.park(this);
+                continue;
+            }
+            front.fresh = false;
+            front = handoff.getAndSet(front);
+
+            RasterRenderer renderer = renderers[nextRenderer];
+            nextRenderer ^= 1;
+            long start = System.nanoTime();
+            BufferedImage image;
+            try {
+                image = renderer.render(front.snapshot, front.hintX, front.hintY, pool);
+            } catch (RuntimeException e) {
+                System.err.println("[Render] 光栅渲染失败: " + e);
+                continue;
+            }
+            rasterTime.record(System.nanoTime() - start);
+            frames.increment();
+
+            // 等 EDT 换上新图像后才返回：之后另一个渲染器的图像不再被读取，可以改写
+            try {
+                SwingUtilities.invokeAndWait(() -> {
+                    shown = image;
+                    repaint();
+                });
+            } catch (InterruptedException e) {
+                return;
+            } catch (InvocationTargetException e) {
+                System.err.println("[Render] 提交画面失败: " + e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public String summary() {
+        return "raster (ForkJoin parallelism " + pool.getParallelism() + ") frames=" + frames.get()
+                + " raster: " + rasterTime.summary();
+    }
+
+    /**
+     * 交给光栅线程的一帧
+     */
+    private static final class Frame {
+        final BoardSnapshot snapshot = new BoardSnapshot();
+        int hintX = -1;
+        int hintY = -1;
+        volatile boolean fresh;  // EDT 放入交换槽时置位，光栅线程取走后清除
+    }
+}
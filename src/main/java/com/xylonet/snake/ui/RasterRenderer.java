@@ -0,0 +1,329 @@
+package com.xylonet.snake.ui;
+
+import com.xylonet.snake.game.BoardSnapshot;
+import com.xylonet.snake.game.GameBoard;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 像素缓冲渲染器：直接写 BufferedImage 的 int[] 像素数组，不经过 Java2D 逐格绘制
+ * - 每种格子（GameBoard.CELL_*）预先烘焙成 cellSize x cellSize 的像素块（空格含网格线），
+ *   来自 {@link GlyphAtlas}，配色与 {@link GamePanel} 相同，输出逐像素一致
+ * - 每个像素行按格扫描，同一格子类型的连续段作为一段处理：
+ *   该行是纯色时一次 Arrays.fill，否则从预先平铺好的整行图案一次 System.arraycopy
+ * - cellSize 小于 {@link #MIN_GLYPH_CELL_SIZE} 时（大地图缩略）不画符号和网格线，
+ *   每格为纯色，一个格子行只算第一行像素，其余行整行复制；段很短时直接逐像素写入，
+ *   避免随机分布的格子让每段都付一次调用开销
+ * - 大画面可在 ForkJoin 池上并行：按格子行切成横向条带，各条带写同一像素数组的不相交区域，不加锁
+ * 画好后调用方把图像一次 drawImage 到屏幕，或直接编码导出
+ * 同一实例同一时刻只能有一个 render 调用；{@link #renderRows} 可由多个线程对不相交的格子行区间并行调用
+ */
+public class RasterRenderer {
+    public static final int MIN_GLYPH_CELL_SIZE = 6;
+    private static final int CELL_TYPES = 8;
+
+    private final int cellSize;
+    private final boolean glyphs;
+    private final int[][] tilePixels = new int[CELL_TYPES][];   // 每种格子的像素块（行优先）
+    private final int[][] rowColor = new int[CELL_TYPES][];     // 每种格子每一像素行的纯色；该行不是纯色时为 MIXED
+    private final int[] cellColor = new int[CELL_TYPES];        // 无符号模式下每种格子的颜色
+    private int[][][] rowPatterns = new int[CELL_TYPES][][];    // [类型][像素行] 平铺 patternCells 个格子的整行图案
+    private int patternCells;
+    private final int hintColor = GamePanel.HINT_COLOR.getRGB();
+
+    private BufferedImage image;
+    private int[] pixels;
+    private int imageWidth;
+
+    private static final int MIXED = 0;  // 纯色值都带不透明 alpha（0xFF......），0 不会与之冲突
+    private static final int SHORT_SPAN = 32;  // 短于此像素数的纯色段直接循环写入
+    private static final int TILE_PIXELS = 1 << 16;  // 并行时每个条带的目标像素数（约 256 KB）
+
+    public RasterRenderer(int cellSize) {
+        this.cellSize = cellSize;
+        this.glyphs = cellSize >= MIN_GLYPH_CELL_SIZE;
+        bakeTiles();
+    }
+
+    /**
+     * 烘焙各类格子的像素块
+     */
+    private void bakeTiles() {
+        Color[] background = new Color[CELL_TYPES];
+        background[GameBoard.CELL_EMPTY] = GamePanel.BG_COLOR;
+        background[GameBoard.CELL_WALL] = GamePanel.BOUNDARY_COLOR;
+        background[GameBoard.CELL_BLOCK] = GamePanel.OBSTACLE_COLOR;
+        background[GameBoard.CELL_SNAKE_BODY] = GamePanel.SNAKE_BODY_COLOR;
+        background[GameBoard.CELL_SNAKE_HEAD] = GamePanel.SNAKE_HEAD_COLOR;
+        background[GameBoard.CELL_FOOD] = GamePanel.FOOD_COLOR;
+        background[GameBoard.CELL_BULLET] = GamePanel.BULLET_COLOR;
+        background[GameBoard.CELL_DOOR] = GamePanel.DOOR_COLOR;
+
+        char[] symbol = new char[CELL_TYPES];
+        Color[] foreground = new Color[CELL_TYPES];
+        Arrays.fill(foreground, Color.BLACK);
+        symbol[GameBoard.CELL_WALL] = GamePanel.OBSTACLE_SYMBOL;
+        symbol[GameBoard.CELL_BLOCK] = GamePanel.OBSTACLE_SYMBOL;
+        symbol[GameBoard.CELL_SNAKE_BODY] = GamePanel.SNAKE_BODY_SYMBOL;
+        symbol[GameBoard.CELL_SNAKE_HEAD] = GamePanel.SNAKE_HEAD_SYMBOL;
+        symbol[GameBoard.CELL_FOOD] = GamePanel.FOOD_SYMBOL;
+        symbol[GameBoard.CELL_BULLET] = GamePanel.BULLET_SYMBOL;
+        foreground[GameBoard.CELL_BULLET] = Color.WHITE;
+        symbol[GameBoard.CELL_DOOR] = GamePanel.DOOR_SYMBOL;
+
+        GlyphAtlas atlas = glyphs ? new GlyphAtlas(cellSize) : null;
+        int area = cellSize * cellSize;
+        for (int type = 0; type < CELL_TYPES; type++) {
+            int[] tile = new int[area];
+            if (!glyphs) {
+                Arrays.fill(tile, background[type].getRGB());
+            } else if (type == GameBoard.CELL_EMPTY) {
+                // 空格：背景 + 上边、左边的网格线（与 GamePanel 的网格线位置一致）
+                Arrays.fill(tile, GamePanel.BG_COLOR.getRGB());
+                int grid = GamePanel.GRID_COLOR.getRGB();
+                Arrays.fill(tile, 0, cellSize, grid);
+                for (int y = 0; y < cellSize; y++) {
+                    tile[y * cellSize] = grid;
+                }
+            } else {
+                BufferedImage glyph = atlas.tile(atlas.register(symbol[type], foreground[type], background[type]));
+                glyph.getRGB(0, 0, cellSize, cellSize, tile, 0, cellSize);
+            }
+            tilePixels[type] = tile;
+            rowColor[type] = solidRows(tile);
+            cellColor[type] = background[type].getRGB();
+        }
+    }
+
+    private int[] solidRows(int[] tile) {
+        int[] colors = new int[cellSize];
+        for (int y = 0; y < cellSize; y++) {
+            int first = tile[y * cellSize] | 0xFF000000;
+            colors[y] = first;
+            for (int x = 1; x < cellSize; x++) {
+                if ((tile[y * cellSize + x] | 0xFF000000) != first) {
+                    colors[y] = MIXED;
+                    break;
+                }
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * 为非纯色行准备平铺图案（按最宽的棋盘准备一次，之后复用）
+     */
+    private synchronized void ensurePatterns(int width) {
+        if (patternCells >= width) {
+            return;
+        }
+        int[][][] patterns = new int[CELL_TYPES][cellSize][];
+        for (int type = 0; type < CELL_TYPES; type++) {
+            for (int py = 0; py < cellSize; py++) {
+                if (rowColor[type][py] != MIXED) continue;
+                int[] row = new int[width * cellSize];
+                for (int x = 0; x < width; x++) {
+                    System.arraycopy(tilePixels[type], py * cellSize, row, x * cellSize, cellSize);
+                }
+                patterns[type][py] = row;
+            }
+        }
+        rowPatterns = patterns;
+        patternCells = width;
+    }
+
+    /**
+     * 渲染整个快照
+     * @param hintX AI 建议格（空心方框），小于 0 表示无
+     * @return 复用的图像（TYPE_INT_RGB，尺寸 width*cellSize x height*cellSize），下次调用会被覆盖
+     */
+    public BufferedImage render(BoardSnapshot snapshot, int hintX, int hintY) {
+        return render(snapshot, hintX, hintY, null);
+    }
+
+    /**
+     * 在 ForkJoin 池上并行渲染整个快照
+     * 条带取整宽的格子行而不是方块：像素数组行优先，整宽条带是一段连续内存，
+     * 同类格子的连续段也不会被切短；相邻条带只在边界共享一条缓存行
+     * pool 为 null、并行度为 1 或画面不足两个条带时在调用线程上单线程渲染
+     * @return 复用的图像，同 {@link #render(BoardSnapshot, int, int)}
+     */
+    public BufferedImage render(BoardSnapshot snapshot, int hintX, int hintY, ForkJoinPool pool) {
+        ensureImage(snapshot.width * cellSize, snapshot.height * cellSize);
+        int tileRows = Math.max(1, TILE_PIXELS / (snapshot.width * cellSize * cellSize));
+        if (pool == null || pool.getParallelism() < 2 || snapshot.height <= tileRows) {
+            renderRows(snapshot, 0, snapshot.height, pixels, imageWidth);
+        } else {
+            ensurePatterns(snapshot.width);  // 先在调用线程上准备好，各条带不再重建
+            pool.invoke(new TileTask(snapshot, 0, snapshot.height, tileRows));
+        }
+        if (hintX >= 0 && hintY >= 0 && hintX < snapshot.width && hintY < snapshot.height) {
+            drawOutline(hintX, hintY, hintColor);
+        }
+        return image;
+    }
+
+    /**
+     * 把格子行 [fromRow, toRow) 渲染进目标像素数组
+     * 不同线程可以对同一数组的不相交行区间并行调用（只读本实例的像素块）
+     * @param dst 目标像素（行优先）
+     * @param stride 目标每行像素数，至少 snapshot.width * cellSize
+     */
+    public void renderRows(BoardSnapshot snapshot, int fromRow, int toRow, int[] dst, int stride) {
+        if (!glyphs) {
+            renderSolidRows(snapshot, fromRow, toRow, dst, stride);
+            return;
+        }
+        ensurePatterns(snapshot.width);
+        int[][][] patterns = rowPatterns;
+        byte[] cells = snapshot.cells;
+        int width = snapshot.width;
+        for (int cy = fromRow; cy < toRow; cy++) {
+            int cellRow = cy * width;
+            int rowBase = cy * cellSize * stride;
+            for (int py = 0; py < cellSize; py++) {
+                int lineStart = rowBase + py * stride;
+                int cx = 0;
+                while (cx < width) {
+                    int type = cells[cellRow + cx];
+                    int runEnd = cx + 1;
+                    while (runEnd < width && cells[cellRow + runEnd] == type) {
+                        runEnd++;
+                    }
+                    int start = lineStart + cx * cellSize;
+                    int span = (runEnd - cx) * cellSize;
+                    int solid = rowColor[type][py];
+                    if (solid != MIXED) {
+                        Arrays.fill(dst, start, start + span, solid);
+                    } else {
+                        System.arraycopy(patterns[type][py], 0, dst, start, span);
+                    }
+                    cx = runEnd;
+                }
+            }
+        }
+    }
+
+    /**
+     * 并行渲染任务：行区间不超过 tileRows 时直接渲染，否则二分
+     */
+    private final class TileTask extends RecursiveAction {
+        private final BoardSnapshot snapshot;
+        private final int fromRow;
+        private final int toRow;
+        private final int tileRows;
+
+        TileTask(BoardSnapshot snapshot, int fromRow, int toRow, int tileRows) {
+            this.snapshot = snapshot;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.tileRows = tileRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= tileRows) {
+                renderRows(snapshot, fromRow, toRow, pixels, imageWidth);
+                return;
+            }
+            int mid = (fromRow + toRow) >>> 1;
+            invokeAll(new TileTask(snapshot, fromRow, mid, tileRows), new TileTask(snapshot, mid, toRow, tileRows));
+        }
+    }
+
+    /**
+     * 无符号模式：每格纯色，只算每个格子行的第一行像素，其余行整行复制
+     */
+    private void renderSolidRows(BoardSnapshot snapshot, int fromRow, int toRow, int[] dst, int stride) {
+        byte[] cells = snapshot.cells;
+        int width = snapshot.width;
+        int span = width * cellSize;
+        for (int cy = fromRow; cy < toRow; cy++) {
+            int cellRow = cy * width;
+            int rowBase = cy * cellSize * stride;
+            int p = rowBase;
+            int cx = 0;
+            while (cx < width) {
+                int type = cells[cellRow + cx];
+                int runEnd = cx + 1;
+                while (runEnd < width && cells[cellRow + runEnd] == type) {
+                    runEnd++;
+                }
+                int end = p + (runEnd - cx) * cellSize;
+                int color = cellColor[type];
+                if (end - p >= SHORT_SPAN) {
+                    Arrays.fill(dst, p, end, color);
+                } else {
+                    while (p < end) {
+                        dst[p++] = color;
+                    }
+                }
+                p = end;
+                cx = runEnd;
+            }
+            for (int py = 1; py < cellSize; py++) {
+                System.arraycopy(dst, rowBase, dst, rowBase + py * stride, span);
+            }
+        }
+    }
+
+    /**
+     * 画空心方框（与 Graphics.drawRect(x, y, cellSize - 1, cellSize - 1) 相同的像素）
+     */
+    private void drawOutline(int cellX, int cellY, int color) {
+        int left = cellX * cellSize;
+        int top = cellY * cellSize;
+        int last = cellSize - 1;
+        Arrays.fill(pixels, top * imageWidth + left, top * imageWidth + left + cellSize, color);
+        Arrays.fill(pixels, (top + last) * imageWidth + left, (top + last) * imageWidth + left + cellSize, color);
+        for (int y = 1; y < last; y++) {
+            pixels[(top + y) * imageWidth + left] = color;
+            pixels[(top + y) * imageWidth + left + last] = color;
+        }
+    }
+
+    private void ensureImage(int width, int height) {
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            imageWidth = width;
+        }
+    }
+
+    /**
+     * 渲染结果中可能出现的全部颜色（各类格子像素块 + 建议方框），不含 alpha，按首次出现的顺序
+     * 输出全部来自这些颜色，导出 GIF 时可直接建调色板，不需要量化
+     */
+    public int[] palette() {
+        LinkedHashSet<Integer> colors = new LinkedHashSet<>();
+        for (int[] tile : tilePixels) {
+            for (int pixel : tile) {
+                colors.add(pixel & 0xFFFFFF);
+            }
+        }
+        colors.add(hintColor & 0xFFFFFF);
+        int[] palette = new int[colors.size()];
+        int i = 0;
+        for (int color : colors) {
+            palette[i++] = color;
+        }
+        return palette;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * 是否绘制符号和网格线（格子足够大时）
+     */
+    public boolean isDrawingGlyphs() {
+        return glyphs;
+    }
+}
@@ -0,0 +1,218 @@
+package com.xylonet.snake.ui;
+
+import com.xylonet.snake.game.BoardSnapshot;
+import com.xylonet.snake.game.GameBoard;
+import com.xylonet.snake.game.Obstacle;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Point;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * 静态层缓存：背景、网格线、边界墙、未被摧毁的障碍物画在一张离屏图上
+ * - 换了棋盘或生成新关卡（布局版本变化）时整张重画
+ * - 障碍物被摧毁时只把对应格子恢复成背景 + 网格线
+ * - 每帧只需一次 drawImage，动态层（蛇、子弹、食物、门、覆盖层）画在上面
+ * 数据来源可以是 GameBoard（EDT 上的被动渲染）或 BoardSnapshot（渲染线程上的主动渲染），
+ * 每个实例只在一个线程上使用
+ */
+public class StaticLayer {
+    private final int gridSize;
+    private final int cellSize;
+    private final Color backgroundColor;
+    private final Color gridColor;
+    private final GlyphAtlas atlas;
+    private final int wallTile;
+    private final int obstacleTile;
+
+    private BufferedImage image;
+    private GameBoard board;         // 当前缓存对应的棋盘
+    private int layoutVersion;       // 当前缓存对应的布局版本
+    private int destroyedApplied;    // 已处理的被摧毁障碍物数
+    private BoardSnapshot snapshotSource;  // 按快照绘制时，当前缓存对应的布局
+    private long fullRedraws;
+    private long cellRedraws;
+
+    public StaticLayer(int gridSize, int cellSize, Color backgroundColor, Color gridColor,
+                       GlyphAtlas atlas, int wallTile, int obstacleTile) {
+        this.gridSize = gridSize;
+        this.cellSize = cellSize;
+        this.backgroundColor = backgroundColor;
+        this.gridColor = gridColor;
+        this.atlas = atlas;
+        this.wallTile = wallTile;
+        this.obstacleTile = obstacleTile;
+    }
+
+    /**
+     * 使缓存与棋盘同步后画到 g 上
+     */
+    public void paint(Graphics g, GameBoard board) {
+        sync(board);
+        g.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * 使缓存与棋盘同步后只画视口可见的部分（缓存的格子尺寸须与视口当前缩放一致）
+     */
+    public void paint(Graphics g, GameBoard board, Viewport viewport) {
+        sync(board);
+        int srcX = viewport.getMinCellX() * cellSize;
+        int srcY = viewport.getMinCellY() * cellSize;
+        int width = viewport.getScreenWidth();
+        int height = viewport.getScreenHeight();
+        int dstX = viewport.getScreenX();
+        int dstY = viewport.getScreenY();
+        g.drawImage(image, dstX, dstY, dstX + width, dstY + height, srcX, srcY, srcX + width, srcY + height, null);
+    }
+
+    /**
+     * 使缓存与棋盘一致
+     */
+    public void sync(GameBoard board) {
+        if (image == null || board != this.board || board.getLayoutVersion() != layoutVersion) {
+            redrawAll(board);
+            return;
+        }
+        int destroyed = board.getDestroyedObstacleCount();
+        if (destroyedApplied < destroyed) {
+            Graphics2D g2d = image.createGraphics();
+            try {
+                for (int i = destroyedApplied; i < destroyed; i++) {
+                    int cell = board.getDestroyedObstacleCell(i);
+                    clearCell(g2d, cell % gridSize, cell / gridSize);
+                    cellRedraws++;
+                }
+            } finally {
+                g2d.dispose();
+            }
+            destroyedApplied = destroyed;
+        }
+    }
+
+    /**
+     * 按快照绘制：墙和障碍物布局与上次不同时整张重画
+     */
+    public void paint(Graphics g, BoardSnapshot snapshot) {
+        if (image == null || !snapshot.sameStaticLayout(snapshotSource)) {
+            redrawAll(snapshot);
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    private void redrawAll(BoardSnapshot snapshot) {
+        Graphics2D g2d = beginFullRedraw();
+        try {
+            for (int y = 0; y < snapshot.height; y++) {
+                for (int x = 0; x < snapshot.width; x++) {
+                    byte cell = snapshot.get(x, y);
+                    if (cell == GameBoard.CELL_WALL) {
+                        atlas.draw(g2d, wallTile, x * cellSize, y * cellSize);
+                    } else if (cell == GameBoard.CELL_BLOCK) {
+                        atlas.draw(g2d, obstacleTile, x * cellSize, y * cellSize);
+                    }
+                }
+            }
+        } finally {
+            g2d.dispose();
+        }
+        if (snapshotSource == null) {
+            snapshotSource = new BoardSnapshot(snapshot.width, snapshot.height);
+        }
+        snapshotSource.copyFrom(snapshot);
+        this.board = null;
+    }
+
+    /**
+     * 强制下次绘制时整张重画
+     */
+    public void invalidate() {
+        image = null;
+    }
+
+    private void redrawAll(GameBoard board) {
+        Graphics2D g2d = beginFullRedraw();
+        try {
+            for (Obstacle obstacle : board.getObstacles()) {
+                if (obstacle.isDestroyed()) continue;
+                Point pos = obstacle.getPosition();
+                int tile = obstacle.getType() == Obstacle.Type.WALL ? wallTile : obstacleTile;
+                atlas.draw(g2d, tile, pos.x * cellSize, pos.y * cellSize);
+            }
+        } finally {
+            g2d.dispose();
+        }
+        this.board = board;
+        this.layoutVersion = board.getLayoutVersion();
+        this.destroyedApplied = board.getDestroyedObstacleCount();
+        this.snapshotSource = null;
+    }
+
+    /**
+     * 清空缓存图并画好背景和网格线，返回用于继续绘制障碍物的 Graphics
+     */
+    private Graphics2D beginFullRedraw() {
+        if (image == null) {
+            image = createImage(gridSize * cellSize, gridSize * cellSize);
+        }
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(backgroundColor);
+        g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+        drawGrid(g2d);
+        fullRedraws++;
+        return g2d;
+    }
+
+    private void drawGrid(Graphics2D g2d) {
+        int size = gridSize * cellSize;
+        g2d.setColor(gridColor);
+        for (int x = 0; x <= gridSize; x++) {
+            g2d.drawLine(x * cellSize, 0, x * cellSize, size);
+        }
+        for (int y = 0; y <= gridSize; y++) {
+            g2d.drawLine(0, y * cellSize, size, y * cellSize);
+        }
+    }
+
+    /**
+     * 把一个格子恢复成空格：背景 + 该格上边、左边的网格线
+     * （每条网格线落在其右侧 / 下方格子的第一列 / 第一行像素上）
+     */
+    private void clearCell(Graphics2D g2d, int gridX, int gridY) {
+        int px = gridX * cellSize;
+        int py = gridY * cellSize;
+        g2d.setColor(backgroundColor);
+        g2d.fillRect(px, py, cellSize, cellSize);
+        g2d.setColor(gridColor);
+        g2d.drawLine(px, py, px + cellSize - 1, py);
+        g2d.drawLine(px, py, px, py + cellSize - 1);
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return config.createCompatibleImage(width, height, Transparency.OPAQUE);
+    }
+
+    /**
+     * 整张重画次数（换关、换棋盘）
+     */
+    public long getFullRedrawCount() {
+        return fullRedraws;
+    }
+
+    /**
+     * 单格重画次数（障碍物被摧毁）
+     */
+    public long getCellRedrawCount() {
+        return cellRedraws;
+    }
+}
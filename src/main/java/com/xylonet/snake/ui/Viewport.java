@@ -0,0 +1,174 @@
+package com.xylonet.snake.ui;
+
+/**
+ * 视口（摄像机）：棋盘上哪一块格子范围显示在面板里、按多大的格子显示
+ * - 缩放为若干档格子像素尺寸；棋盘在当前缩放下比面板小时居中显示，整盘可见
+ * - 跟随蛇头：蛇头离开中间的非滚动区域时才按整格移动，移动后需要整屏重绘，
+ *   所以不每步滚动
+ * - 所有坐标换算（格子 ↔ 面板像素）和可见格子范围都由这里计算，绘制前先按范围裁剪
+ */
+public class Viewport {
+    public static final int[] ZOOM_CELL_SIZES = {5, 10, 20};  // 各档缩放的格子像素尺寸
+    private static final int FOLLOW_MARGIN_DIVISOR = 4;        // 蛇头与视口边缘至少保持 1/4 视口的距离
+
+    private final int boardWidth;
+    private final int boardHeight;
+    private final int viewWidth;
+    private final int viewHeight;
+
+    private int zoomLevel;
+    private int cellSize;
+    private int columns;   // 视口内可见的格子列数
+    private int rows;
+    private int originX;   // 左上角可见格子
+    private int originY;
+    private int offsetX;   // 棋盘比视口小时的居中偏移（像素）
+    private int offsetY;
+
+    /**
+     * @param cellSize 初始格子像素尺寸（取最接近的一档缩放）
+     */
+    public Viewport(int boardWidth, int boardHeight, int viewWidth, int viewHeight, int cellSize) {
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        int level = 0;
+        for (int i = 0; i < ZOOM_CELL_SIZES.length; i++) {
+            if (Math.abs(ZOOM_CELL_SIZES[i] - cellSize) < Math.abs(ZOOM_CELL_SIZES[level] - cellSize)) {
+                level = i;
+            }
+        }
+        setZoomLevel(level, boardWidth / 2, boardHeight / 2);
+    }
+
+    /**
+     * 切换缩放档，尽量让 (centerX, centerY) 格子位于视口中央
+     * @return 缩放是否变化
+     */
+    public boolean setZoomLevel(int level, int centerX, int centerY) {
+        level = Math.max(0, Math.min(level, ZOOM_CELL_SIZES.length - 1));
+        if (cellSize != 0 && level == zoomLevel) {
+            return false;
+        }
+        zoomLevel = level;
+        cellSize = ZOOM_CELL_SIZES[level];
+        columns = Math.min(boardWidth, viewWidth / cellSize);
+        rows = Math.min(boardHeight, viewHeight / cellSize);
+        offsetX = Math.max(0, (viewWidth - boardWidth * cellSize) / 2);
+        offsetY = Math.max(0, (viewHeight - boardHeight * cellSize) / 2);
+        originX = clamp(centerX - columns / 2, boardWidth - columns);
+        originY = clamp(centerY - rows / 2, boardHeight - rows);
+        return true;
+    }
+
+    /**
+     * 跟随蛇头：蛇头进入边缘区域时移动视口
+     * @return 视口是否移动（需要整屏重绘）
+     */
+    public boolean follow(int headX, int headY) {
+        int newX = followAxis(originX, columns, boardWidth, headX);
+        int newY = followAxis(originY, rows, boardHeight, headY);
+        if (newX == originX && newY == originY) {
+            return false;
+        }
+        originX = newX;
+        originY = newY;
+        return true;
+    }
+
+    private static int followAxis(int origin, int visible, int board, int head) {
+        if (visible >= board) {
+            return 0;
+        }
+        int margin = visible / FOLLOW_MARGIN_DIVISOR;
+        if (head < origin + margin) {
+            origin = head - margin;
+        } else if (head > origin + visible - 1 - margin) {
+            origin = head - (visible - 1 - margin);
+        }
+        return clamp(origin, board - visible);
+    }
+
+    private static int clamp(int origin, int max) {
+        return Math.max(0, Math.min(origin, max));
+    }
+
+    // ===== 坐标换算 =====
+
+    public int toScreenX(int cellX) {
+        return offsetX + (cellX - originX) * cellSize;
+    }
+
+    public int toScreenY(int cellY) {
+        return offsetY + (cellY - originY) * cellSize;
+    }
+
+    /**
+     * 面板像素所在的格子（可能在可见范围外，调用方自行与 getMin/MaxCell 求交）
+     */
+    public int cellAtX(int pixelX) {
+        return originX + Math.floorDiv(pixelX - offsetX, cellSize);
+    }
+
+    public int cellAtY(int pixelY) {
+        return originY + Math.floorDiv(pixelY - offsetY, cellSize);
+    }
+
+    public boolean isVisible(int cellX, int cellY) {
+        return cellX >= originX && cellX < originX + columns && cellY >= originY && cellY < originY + rows;
+    }
+
+    // ===== 可见范围 =====
+
+    public int getMinCellX() {
+        return originX;
+    }
+
+    public int getMinCellY() {
+        return originY;
+    }
+
+    public int getMaxCellX() {
+        return originX + columns - 1;
+    }
+
+    public int getMaxCellY() {
+        return originY + rows - 1;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public int getZoomLevel() {
+        return zoomLevel;
+    }
+
+    /**
+     * 可见区域在面板上的像素矩形
+     */
+    public int getScreenX() {
+        return offsetX;
+    }
+
+    public int getScreenY() {
+        return offsetY;
+    }
+
+    public int getScreenWidth() {
+        return columns * cellSize;
+    }
+
+    public int getScreenHeight() {
+        return rows * cellSize;
+    }
+}